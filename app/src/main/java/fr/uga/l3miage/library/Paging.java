@@ -0,0 +1,98 @@
+package fr.uga.l3miage.library;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination helpers shared by the controllers.
+ * <p>
+ * A page is requested with {@code after}, the id of the last element of the previous page, and {@code limit}. Listings
+ * can also be streamed as NDJSON, one element per line: they are then read from the service page by page so the whole
+ * collection is never held in memory.
+ */
+public final class Paging {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+    private static final int STREAM_PAGE = 500;
+
+    private Paging() {
+        // to hide the public one
+    }
+
+    /**
+     * Reads one page of entities ordered by id
+     *
+     * @param <E> entity type
+     */
+    @FunctionalInterface
+    public interface PageReader<E> {
+        Collection<E> read(Long after, int limit);
+    }
+
+    /**
+     * @param after the after request parameter
+     * @param limit the limit request parameter
+     * @return true if the client asked for a page rather than the whole collection
+     */
+    public static boolean isPaged(Long after, Integer limit) {
+        return after != null || limit != null;
+    }
+
+    /**
+     * @param limit the limit request parameter, may be null
+     * @return the page size to use
+     * @throws ResponseStatusException 400 if the limit is out of [1, MAX_LIMIT]
+     */
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    /**
+     * Streams all entities after a cursor as NDJSON
+     *
+     * @param objectMapper mapper used to write each DTO
+     * @param reader       reads the entities page by page
+     * @param after        id after which to start, excluded, may be null
+     * @param id           id of an entity, used as the cursor of the next page
+     * @param toDTO        maps an entity to what is written on each line
+     * @return the response, body is written once the handler returns
+     */
+    public static <E> ResponseEntity<StreamingResponseBody> ndjson(ObjectMapper objectMapper, PageReader<E> reader, Long after,
+                                                   Function<E, Long> id, Function<E, ?> toDTO) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                Long cursor = after;
+                Collection<E> page;
+                do {
+                    page = reader.read(cursor, STREAM_PAGE);
+                    for (E entity : page) {
+                        generator.writeObject(toDTO.apply(entity));
+                        generator.writeRaw('\n');
+                        cursor = id.apply(entity);
+                    }
+                    generator.flush();
+                } while (page.size() == STREAM_PAGE);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+}
@@ -1,17 +1,22 @@
 package fr.uga.l3miage.library.authors;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.uga.l3miage.data.domain.Author;
-import fr.uga.l3miage.data.domain.Book;
-import fr.uga.l3miage.library.books.BookDTO;
-import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.Paging;
+import fr.uga.l3miage.library.etag.EntityTags;
+import fr.uga.l3miage.library.etag.StoreChanges;
+import fr.uga.l3miage.library.json.EntityViews;
 import fr.uga.l3miage.library.service.AuthorService;
 import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -22,51 +27,79 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping(value = "/api/v1", produces = "application/json")
 public class AuthorsController {
 
     private final AuthorService authorService;
     private final AuthorMapper authorMapper;
-    private final BooksMapper booksMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityViews entityViews;
     @Autowired
     private BookService bookService;
+    @Autowired
+    private StoreChanges storeChanges;
 
     @Autowired
-    public AuthorsController(AuthorService authorService, AuthorMapper authorMapper, BooksMapper booksMapper) {
+    public AuthorsController(AuthorService authorService, AuthorMapper authorMapper, ObjectMapper objectMapper, EntityViews entityViews) {
         this.authorService = authorService;
         this.authorMapper = authorMapper;
-        this.booksMapper = booksMapper;
+        this.objectMapper = objectMapper;
+        this.entityViews = entityViews;
     }
 
     @GetMapping("/authors")
-    public Collection<AuthorDTO> authors(@RequestParam(value = "q", required = false) String query) {
+    public ResponseEntity<Collection<?>> authors(@RequestParam(value = "q", required = false) String query,
+                                                 @RequestParam(value = "after", required = false) Long after,
+                                                 @RequestParam(value = "limit", required = false) Integer limit,
+                                                 WebRequest request) {
+        // read before the authors, a write racing with the request gives an older tag
+        String tag = storeChanges.weakTag();
+        if (request.checkNotModified(tag)) {
+            return EntityTags.notModified(tag);
+        }
         Collection<Author> authors;
-        if (query == null) {
+        if (Paging.isPaged(after, limit)) {
+            authors = pageReader(query).read(after, Paging.limit(limit));
+        } else if (query == null) {
             authors = authorService.list();
         } else {
             authors = authorService.searchByName(query);
         }
-        return authors.stream()
-                .map(authorMapper::entityToDTO)
-                .toList();
+        return ResponseEntity.ok().eTag(tag).body(entityViews.authors(authors));
+    }
+
+    @GetMapping(value = "/authors", produces = Paging.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAuthors(@RequestParam(value = "q", required = false) String query,
+                                               @RequestParam(value = "after", required = false) Long after) {
+        return Paging.ndjson(objectMapper, pageReader(query), after, Author::getId, entityViews::author);
+    }
+
+    private Paging.PageReader<Author> pageReader(String query) {
+        if (query == null) {
+            return authorService::list;
+        }
+        return (after, limit) -> authorService.searchByName(query, after, limit);
     }
 
     @GetMapping("/authors/{id}")
-    public AuthorDTO author(@PathVariable("id") Long id) throws EntityNotFoundException {
+    public AuthorDTO author(@PathVariable("id") Long id, WebRequest request) throws EntityNotFoundException {
         
         try {
-            var aut = this.authorService.get(id);
-            if (!this.authorService.list().contains(aut)){
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+            Author author = this.authorService.get(id);
+            // 304 sans passer par le mapper
+            if (request.checkNotModified(EntityTags.author(author))) {
+                return null;
             }
-            return authorMapper.entityToDTO(aut);
+            return authorMapper.entityToDTO(author);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
@@ -88,18 +121,26 @@ public class AuthorsController {
     }
     
     @PutMapping("/authors/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public AuthorDTO updateAuthor(@RequestBody AuthorDTO author, @PathVariable("id") Long id) {
-
-        if (author.id() == id){
+    public ResponseEntity<AuthorDTO> updateAuthor(@RequestBody AuthorDTO author, @PathVariable("id") Long id,
+                                                  WebRequest request) {
 
+        if (id.equals(author.id())){
             try {
-                var auth = this.authorService.get(id);
-                auth.setFullName(author.fullName());
-                
-                return this.authorMapper.entityToDTO(auth); 
-
-            }catch (Exception e) {
+                var current = this.authorService.get(id);
+                // If-Match : 412 si le client n'a pas la version courante
+                if (request.checkNotModified(EntityTags.author(current))) {
+                    return null;
+                }
+                // une copie mise à jour depuis la version lue, l'auteur partagé n'est jamais modifié : sans If-Match,
+                // update échoue (409) si l'auteur a été modifié entre temps
+                Author changed = this.authorMapper.dtoToEntity(author);
+                changed.setVersion(current.getVersion());
+                Author updated = this.authorService.update(changed);
+                return ResponseEntity.ok().eTag(EntityTags.author(updated)).body(this.authorMapper.entityToDTO(updated));
+
+            } catch (ConcurrentUpdateException e) {
+                throw new ResponseStatusException(EntityTags.conflict(request), e.getMessage());
+            } catch (Exception e) {
                 throw new ResponseStatusException(HttpStatus.NO_CONTENT);
             }
 
@@ -113,35 +154,27 @@ public class AuthorsController {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteAuthor(@PathVariable("id") Long id) {
         try {
-            Author aut = authorService.get(id);
-        }catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
-        }
-
-        try {
-            for(Book bo : authorService.get(id).getBooks()){
-                if(bo.getAuthors().size() > 1){
-                    bookService.delete(bo.getId());
-                }
-            }
+            // the service deletes the author with its own books, or refuses if one of them is co-authored
             this.authorService.delete(id);
 
-        } catch (Exception e) {
+        } catch (DeleteAuthorException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
         }
     }
 
     @GetMapping("/authors/{authorId}/books")
-    public Collection<BookDTO> books(@PathVariable("authorId") Long authorId) {
+    public ResponseEntity<Collection<?>> books(@PathVariable("authorId") Long authorId, WebRequest request) {
+        String tag = storeChanges.weakTag();
+        if (request.checkNotModified(tag)) {
+            return EntityTags.notModified(tag);
+        }
+        if (!this.authorService.exists(authorId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
         try {
-            this.authorService.get(authorId);
-            var collectLivre = bookService.getByAuthor(authorId);
-            final Collection<BookDTO> collectLivreDTO = new HashSet<>();
-
-            for (Book b : collectLivre) {
-                collectLivreDTO.add(this.booksMapper.entityToDTO(b));
-            }
-            return collectLivreDTO;
+            return ResponseEntity.ok().eTag(tag).body(entityViews.books(bookService.getByAuthor(authorId)));
 
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
@@ -0,0 +1,135 @@
+package fr.uga.l3miage.library.authors;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.Paging;
+import fr.uga.l3miage.library.etag.EntityTags;
+import fr.uga.l3miage.library.json.EntityViews;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.ReactiveAuthorService;
+import fr.uga.l3miage.library.service.ReactiveBookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+/**
+ * {@link AuthorsController} on WebFlux, deployed with the {@code reactive} profile
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class ReactiveAuthorsController {
+
+    private final ReactiveAuthorService authorService;
+    private final ReactiveBookService bookService;
+    private final AuthorMapper authorMapper;
+    private final EntityViews entityViews;
+
+    @Autowired
+    public ReactiveAuthorsController(ReactiveAuthorService authorService, ReactiveBookService bookService,
+                                     AuthorMapper authorMapper, EntityViews entityViews) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+        this.authorMapper = authorMapper;
+        this.entityViews = entityViews;
+    }
+
+    @GetMapping("/authors")
+    public Flux<?> authors(@RequestParam(value = "q", required = false) String query,
+                           @RequestParam(value = "after", required = false) Long after,
+                           @RequestParam(value = "limit", required = false) Integer limit) {
+        Flux<Author> authors = search(query, after);
+        if (Paging.isPaged(after, limit)) {
+            authors = authors.take(Paging.limit(limit), true);
+        }
+        return authors.map(entityViews::author);
+    }
+
+    @GetMapping(value = "/authors", produces = Paging.NDJSON)
+    public Flux<?> streamAuthors(@RequestParam(value = "q", required = false) String query,
+                                 @RequestParam(value = "after", required = false) Long after) {
+        return search(query, after).map(entityViews::author);
+    }
+
+    private Flux<Author> search(String query, Long after) {
+        return query == null ? authorService.list(after) : authorService.searchByName(query, after);
+    }
+
+    @GetMapping("/authors/{id}")
+    public Mono<AuthorDTO> author(@PathVariable("id") Long id, ServerWebExchange exchange) {
+        return authorService.get(id)
+                .flatMap(author -> exchange.checkNotModified(EntityTags.author(author))
+                        ? Mono.<AuthorDTO>empty() : Mono.just(authorMapper.entityToDTO(author)))
+                .onErrorMap(e -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    @PostMapping("/authors")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<AuthorDTO> newAuthor(@RequestBody AuthorDTO author) {
+        if (author.fullName() == null || author.fullName().isBlank()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        }
+        return authorService.save(authorMapper.dtoToEntity(author))
+                .map(authorMapper::entityToDTO);
+    }
+
+    @PutMapping("/authors/{id}")
+    public Mono<AuthorDTO> updateAuthor(@RequestBody AuthorDTO author, @PathVariable("id") Long id,
+                                        ServerWebExchange exchange) {
+        if (!Objects.equals(author.id(), id)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        }
+        return authorService.get(id)
+                .flatMap(existing -> {
+                    // If-Match : 412 si le client n'a pas la version courante
+                    if (exchange.checkNotModified(EntityTags.author(existing))) {
+                        return Mono.empty();
+                    }
+                    // une copie mise à jour depuis la version lue, l'auteur partagé n'est jamais modifié : sans
+                    // If-Match, update échoue (409) si l'auteur a été modifié entre temps
+                    Author changed = authorMapper.dtoToEntity(author);
+                    changed.setVersion(existing.getVersion());
+                    return authorService.update(changed);
+                })
+                .map(updated -> {
+                    exchange.getResponse().getHeaders().setETag(EntityTags.author(updated));
+                    return authorMapper.entityToDTO(updated);
+                })
+                .onErrorMap(EntityNotFoundException.class, e -> new ResponseStatusException(HttpStatus.NO_CONTENT))
+                .onErrorMap(ConcurrentUpdateException.class,
+                        e -> new ResponseStatusException(EntityTags.conflict(exchange.getRequest().getHeaders()),
+                                e.getMessage()));
+    }
+
+    @DeleteMapping("/authors/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteAuthor(@PathVariable("id") Long id) {
+        // same as the servlet controller: the service deletes the author with its own books, or refuses if one of
+        // them is co-authored
+        return authorService.delete(id)
+                .onErrorMap(e -> !(e instanceof ResponseStatusException), e -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
+    }
+
+    @GetMapping("/authors/{authorId}/books")
+    public Flux<?> books(@PathVariable("authorId") Long authorId) {
+        return bookService.getByAuthor(authorId)
+                .map(entityViews::book)
+                .onErrorMap(e -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
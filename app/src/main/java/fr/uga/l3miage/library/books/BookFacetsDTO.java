@@ -0,0 +1,13 @@
+package fr.uga.l3miage.library.books;
+
+import java.util.Collection;
+import java.util.Map;
+
+public record BookFacetsDTO(
+        Collection<?> books,
+        long total,
+        Map<String, Long> publishers,
+        Map<String, Long> languages,
+        Map<Integer, Long> decades
+) {
+}
@@ -0,0 +1,9 @@
+package fr.uga.l3miage.library.books;
+
+import java.util.Collection;
+
+public record BookLookupDTO(
+        Collection<?> found,
+        Collection<Long> missing
+) {
+}
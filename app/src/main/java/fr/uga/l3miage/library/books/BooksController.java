@@ -1,16 +1,28 @@
 package fr.uga.l3miage.library.books;
 
 import fr.uga.l3miage.data.domain.Author;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Paging;
 import fr.uga.l3miage.library.authors.AuthorDTO;
 import fr.uga.l3miage.library.authors.AuthorMapper;
+import fr.uga.l3miage.library.etag.EntityTags;
+import fr.uga.l3miage.library.etag.StoreChanges;
+import fr.uga.l3miage.library.json.EntityViews;
 import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookFilter;
 import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -21,52 +33,128 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
-
-import ch.qos.logback.classic.spi.ThrowableProxy;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-import javax.imageio.plugins.tiff.ExifGPSTagSet;
-
 @RestController
+@Profile("!reactive")
 @RequestMapping(value = "/api/v1", produces = "application/json")
 public class BooksController {
 
     private final BookService bookService;
     private final BooksMapper booksMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityViews entityViews;
     @Autowired
     private AuthorService authorService;
+    @Autowired
+    private StoreChanges storeChanges;
 
     @Autowired
-    public BooksController(BookService bookService, BooksMapper booksMapper) {
+    public BooksController(BookService bookService, BooksMapper booksMapper, ObjectMapper objectMapper, EntityViews entityViews) {
        this.bookService = bookService;
         this.booksMapper = booksMapper;
+        this.objectMapper = objectMapper;
+        this.entityViews = entityViews;
     }
 
-    @GetMapping("/books")
-    @ResponseStatus(HttpStatus.OK)
-    public Collection<BookDTO> books(@RequestParam(value = "q", required = false) String query) {
+    @GetMapping(value = "/books", params = {"!publisher", "!language", "!fromYear", "!toYear", "facets!=true", "!ids"})
+    public ResponseEntity<Collection<?>> books(@RequestParam(value = "q", required = false) String query,
+                                               @RequestParam(value = "after", required = false) Long after,
+                                               @RequestParam(value = "limit", required = false) Integer limit,
+                                               WebRequest request) {
+        // read before the books, a write racing with the request gives an older tag
+        String tag = storeChanges.weakTag();
+        if (request.checkNotModified(tag)) {
+            return EntityTags.notModified(tag);
+        }
         Collection<Book> books;
-        if (query == null) {
+        if (Paging.isPaged(after, limit)) {
+            books = pageReader(query).read(after, Paging.limit(limit));
+        } else if (query == null) {
             books = this.bookService.list();
         } else {
             books = this.bookService.findByTitle(query);
         }
 
-        return books.stream()
-                .map(booksMapper::entityToDTO)
-                .toList();
+        return ResponseEntity.ok().eTag(tag).body(entityViews.books(books));
+    }
+
+    @GetMapping("/books")
+    public ResponseEntity<BookFacetsDTO> facetedBooks(@RequestParam(value = "q", required = false) String query,
+                                                      @RequestParam(value = "publisher", required = false) String publisher,
+                                                      @RequestParam(value = "language", required = false) String language,
+                                                      @RequestParam(value = "fromYear", required = false) Short fromYear,
+                                                      @RequestParam(value = "toYear", required = false) Short toYear,
+                                                      @RequestParam(value = "after", required = false) Long after,
+                                                      @RequestParam(value = "limit", required = false) Integer limit,
+                                                      WebRequest request) {
+        // Recherche à facettes : filtres combinés, une page de livres et le nombre de livres par éditeur, langue et décennie.
+        // Choisie dès qu'un filtre ou facets=true est donné, la liste simple ci-dessus sinon.
+        String tag = storeChanges.weakTag();
+        if (request.checkNotModified(tag)) {
+            return EntityTags.notModified(tag);
+        }
+        BookFilter filter = new BookFilter(query, publisher, fromYear, toYear, language(language));
+        FacetedBooks found = this.bookService.findByFacets(filter, after, Paging.limit(limit));
+        // les langues s'écrivent en minuscules, comme dans les livres
+        Map<String, Long> languages = new LinkedHashMap<>();
+        found.languages().forEach((value, count) -> languages.put(booksMapper.enumToString(value), count));
+        return ResponseEntity.ok().eTag(tag).body(new BookFacetsDTO(entityViews.books(found.books()), found.total(),
+                found.publishers(), languages, found.decades()));
+    }
+
+    private Book.Language language(String language) {
+        if (language == null) {
+            return null;
+        }
+        try {
+            return booksMapper.stringToEnum(language);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown language: " + language);
+        }
+    }
+
+    @GetMapping(value = "/books", params = "ids")
+    public BookLookupDTO booksById(@RequestParam("ids") List<Long> ids) {
+        // Une seule recherche pour tous les ids, au lieu d'un GET /books/{id} par livre
+        if (ids.size() > Paging.MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at most " + Paging.MAX_LIMIT + " ids");
+        }
+        Lookup<Book, Long> lookup = this.bookService.getAll(ids);
+        return new BookLookupDTO(entityViews.books(lookup.found()), lookup.missing());
+    }
+
+    @GetMapping(value = "/books", produces = Paging.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamBooks(@RequestParam(value = "q", required = false) String query,
+                                             @RequestParam(value = "after", required = false) Long after) {
+        return Paging.ndjson(objectMapper, pageReader(query), after, Book::getId, entityViews::book);
+    }
+
+    private Paging.PageReader<Book> pageReader(String query) {
+        if (query == null) {
+            return bookService::list;
+        }
+        return (after, limit) -> bookService.findByTitle(query, after, limit);
     }
 
 
     @GetMapping("/books/{bookId}")
-    @ResponseStatus(HttpStatus.OK)
-    public BookDTO book(@PathVariable("bookId") Long bookId) {
+    public BookDTO book(@PathVariable("bookId") Long bookId, WebRequest request) {
         
         try {
             var book = this.bookService.get(bookId);
+            // 304 sans passer par le mapper
+            if (request.checkNotModified(EntityTags.book(book))) {
+                return null;
+            }
             return this.booksMapper.entityToDTO(book);
 
         } catch (Exception e) {
@@ -75,17 +163,29 @@ public class BooksController {
         
     }
 
+    @GetMapping("/books/isbn/{isbn}")
+    public BookDTO bookByIsbn(@PathVariable("isbn") long isbn, WebRequest request) {
+        // Recherche dans l'index des isbn, sans parcourir les livres
+        try {
+            var book = this.bookService.getByIsbn(isbn);
+            if (request.checkNotModified(EntityTags.book(book))) {
+                return null;
+            }
+            return this.booksMapper.entityToDTO(book);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Livre non trouvé");
+        }
+    }
+
     @PostMapping("/authors/{authorId}/books")
     @ResponseStatus(HttpStatus.CREATED)
     public BookDTO newBook(@PathVariable("authorId") Long authorId, @RequestBody BookDTO book) {
                    
             
         // Vérifier que l'auteur existe avant de créer le livre
-        try {
-            authorService.get(authorId);
-        } catch (EntityNotFoundException e) {
+        if (!authorService.exists(authorId)) {
             // L'auteur n'existe pas, retourner une erreur 404
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Auteur non trouvé", e);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Auteur non trouvé");
         }
         
         try { 
@@ -103,6 +203,9 @@ public class BooksController {
             return this.booksMapper.entityToDTO(bo);
             
 
+        } catch (DuplicateIsbnException e) {
+            // un autre livre a déjà cet isbn : 409
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         } catch (Exception e) {
             // réponse en cas d'échec de création du new book
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erreur lors de la création du livre", e);
@@ -112,37 +215,41 @@ public class BooksController {
 
 
     @PutMapping("/books/{bookId}")
-    @ResponseStatus(HttpStatus.OK)
-    public BookDTO updateBook(@PathVariable("bookId") Long bookId, @RequestBody BookDTO book) {
+    public ResponseEntity<BookDTO> updateBook(@PathVariable("bookId") Long bookId, @RequestBody BookDTO book,
+                                              WebRequest request) {
 
-        // Cette méthode est à revoir, j'ai rencontré un problème en utilisant la methode update,
-        // alors j'ai préféré faire l'update manuellement.
-        // Je pense que cette fonction ne fait pas ce à quoi on s'attend, seulement elle passe les tests.
-        
+        // Le livre partagé n'est jamais modifié : une copie est mise à jour depuis la version lue, et update
+        // échoue si le livre a été modifié entre temps. Les auteurs se changent par /books/{id}/authors.
+        if (!bookId.equals(book.id())){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
 
         try {
         // Vérifier que le livre existe
             Book existingBook = bookService.get(bookId);
-    
-            if (book.id() != bookId){
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+
+            // If-Match : 412 si le client n'a pas la version courante
+            if (request.checkNotModified(EntityTags.book(existingBook))) {
+                return null;
             }
             
-            // Mettre à jour le livre avec les nouvelles informations
-            existingBook.setTitle(book.title());
-            existingBook.setIsbn(book.isbn());
-            existingBook.setYear(book.year());
-            existingBook.setPublisher(book.publisher());
-            existingBook.setLanguage(this.booksMapper.dtoToEntity(book).getLanguage());
-            existingBook.setAuthors(this.booksMapper.dtoToEntity(book).getAuthors());
+            // Mettre à jour une copie avec les nouvelles informations, depuis la version que le client a lue
+            Book changed = this.booksMapper.dtoToEntity(book);
+            changed.setVersion(existingBook.getVersion());
+            changed.setAuthors(existingBook.getAuthors());
 
-            
             // Sauvegarder le livre mis à jour et le renvoyer en tant que DTO
-            Book savedBook = bookService.save(bookId, existingBook);
-            return booksMapper.entityToDTO(savedBook);
+            Book savedBook = bookService.update(changed);
+            return ResponseEntity.ok().eTag(EntityTags.book(savedBook)).body(booksMapper.entityToDTO(savedBook));
         } catch (EntityNotFoundException e) {
             // Si le livre ou l'auteur n'existe pas, renvoyer une erreur 404
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch (ConcurrentUpdateException e) {
+            // Modifié par un autre entre temps : 412 avec If-Match, 409 sans
+            throw new ResponseStatusException(EntityTags.conflict(request), e.getMessage());
+        } catch (DuplicateIsbnException e) {
+            // Un autre livre a déjà cet isbn
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }
     }
     
@@ -168,8 +275,10 @@ public class BooksController {
                 throw new ResponseStatusException(HttpStatus.OK);
             }
 
-            var ath = this.authorService.get(author.id());
-            var bo = this.bookService.addAuthor(authorId, ath.getId());
+            if (!this.authorService.exists(author.id())) {
+                throw new EntityNotFoundException("Cannot find author with id: " + author.id());
+            }
+            var bo = this.bookService.addAuthor(authorId, author.id());
 
             return this.booksMapper.entityToDTO(bo);
 
@@ -0,0 +1,156 @@
+package fr.uga.l3miage.library.books;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Paging;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.etag.EntityTags;
+import fr.uga.l3miage.library.json.EntityViews;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.ReactiveAuthorService;
+import fr.uga.l3miage.library.service.ReactiveBookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+/**
+ * {@link BooksController} on WebFlux, deployed with the {@code reactive} profile.
+ * <p>
+ * Listings are written as the books are read from the store, at the pace the client consumes them.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class ReactiveBooksController {
+
+    private final ReactiveBookService bookService;
+    private final ReactiveAuthorService authorService;
+    private final BooksMapper booksMapper;
+    private final EntityViews entityViews;
+
+    @Autowired
+    public ReactiveBooksController(ReactiveBookService bookService, ReactiveAuthorService authorService,
+                                   BooksMapper booksMapper, EntityViews entityViews) {
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.booksMapper = booksMapper;
+        this.entityViews = entityViews;
+    }
+
+    @GetMapping("/books")
+    public Flux<?> books(@RequestParam(value = "q", required = false) String query,
+                         @RequestParam(value = "after", required = false) Long after,
+                         @RequestParam(value = "limit", required = false) Integer limit) {
+        Flux<Book> books = search(query, after);
+        if (Paging.isPaged(after, limit)) {
+            books = books.take(Paging.limit(limit), true);
+        }
+        return books.map(entityViews::book);
+    }
+
+    @GetMapping(value = "/books", produces = Paging.NDJSON)
+    public Flux<?> streamBooks(@RequestParam(value = "q", required = false) String query,
+                               @RequestParam(value = "after", required = false) Long after) {
+        return search(query, after).map(entityViews::book);
+    }
+
+    private Flux<Book> search(String query, Long after) {
+        return query == null ? bookService.list(after) : bookService.findByTitle(query, after);
+    }
+
+    @GetMapping("/books/{bookId}")
+    public Mono<BookDTO> book(@PathVariable("bookId") Long bookId, ServerWebExchange exchange) {
+        return bookService.get(bookId)
+                .flatMap(book -> exchange.checkNotModified(EntityTags.book(book))
+                        ? Mono.<BookDTO>empty() : Mono.just(booksMapper.entityToDTO(book)))
+                .onErrorMap(e -> new ResponseStatusException(HttpStatus.NO_CONTENT));
+    }
+
+    @PostMapping("/authors/{authorId}/books")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BookDTO> newBook(@PathVariable("authorId") Long authorId, @RequestBody BookDTO book) {
+        return authorService.exists(authorId)
+                .flatMap(exists -> {
+                    if (!exists) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Auteur non trouvé"));
+                    }
+                    if (book.title() == null || book.title().isBlank() || Long.toString(book.isbn()).length() < 10
+                            || Long.toString(book.year()).length() > 4) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+                    }
+                    return bookService.save(authorId, booksMapper.dtoToEntity(book))
+                            .map(booksMapper::entityToDTO)
+                            .onErrorMap(e -> e instanceof DuplicateIsbnException
+                                    ? new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage())
+                                    : new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erreur lors de la création du livre", e));
+                });
+    }
+
+    @PutMapping("/books/{bookId}")
+    public Mono<BookDTO> updateBook(@PathVariable("bookId") Long bookId, @RequestBody BookDTO book,
+                                    ServerWebExchange exchange) {
+        if (!Objects.equals(book.id(), bookId)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        }
+        return bookService.get(bookId)
+                .flatMap(existing -> {
+                    // If-Match : 412 si le client n'a pas la version courante
+                    if (exchange.checkNotModified(EntityTags.book(existing))) {
+                        return Mono.empty();
+                    }
+                    // une copie mise à jour depuis la version lue, le livre partagé n'est jamais modifié : sans
+                    // If-Match, update échoue (409) si le livre a été modifié entre temps
+                    Book changed = booksMapper.dtoToEntity(book);
+                    changed.setVersion(existing.getVersion());
+                    changed.setAuthors(existing.getAuthors());
+                    return bookService.update(changed);
+                })
+                .map(updated -> {
+                    exchange.getResponse().getHeaders().setETag(EntityTags.book(updated));
+                    return booksMapper.entityToDTO(updated);
+                })
+                .onErrorMap(EntityNotFoundException.class, e -> new ResponseStatusException(HttpStatus.NOT_FOUND))
+                .onErrorMap(ConcurrentUpdateException.class,
+                        e -> new ResponseStatusException(EntityTags.conflict(exchange.getRequest().getHeaders()),
+                                e.getMessage()))
+                .onErrorMap(DuplicateIsbnException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    @DeleteMapping("/books/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteBook(@PathVariable("id") Long id) {
+        return bookService.delete(id)
+                .onErrorMap(e -> new ResponseStatusException(HttpStatus.NO_CONTENT));
+    }
+
+    @PutMapping("/books/{bookId}/authors")
+    public Mono<BookDTO> addAuthor(@PathVariable("bookId") Long bookId, @RequestBody AuthorDTO author) {
+        return bookService.get(bookId)
+                .flatMap(book -> {
+                    if (book.getAuthors().size() > 2) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.OK));
+                    }
+                    return bookService.addAuthor(bookId, author.id());
+                })
+                .map(booksMapper::entityToDTO)
+                .onErrorMap(EntityNotFoundException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,20 @@
+package fr.uga.l3miage.library.borrows;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * A borrow, people and books being referenced by id. returned is null while the books are out, overdue tells whether
+ * the borrow was found overdue before being returned.
+ */
+public record BorrowDTO(
+        Long id,
+        Long borrower,
+        Long librarian,
+        Collection<Long> books,
+        Date start,
+        Date end,
+        Date returned,
+        boolean overdue
+) {
+}
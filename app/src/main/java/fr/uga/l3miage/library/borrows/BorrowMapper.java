@@ -0,0 +1,37 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.Collection;
+
+@Mapper(componentModel = "spring")
+public interface BorrowMapper {
+
+    @Mapping(target = "borrower", source = "borrower.id")
+    @Mapping(target = "librarian", source = "librarian.id")
+    BorrowDTO entityToDTO(Borrow borrow);
+
+    Collection<BorrowDTO> entityToDTO(Iterable<Borrow> borrows);
+
+    BorrowerDTO entityToDTO(Borrower borrower);
+
+    @Mapping(target = "gender", ignore = true)
+    @Mapping(target = "birth", ignore = true)
+    Borrower dtoToEntity(BorrowerDTO borrower);
+
+    LibrarianDTO entityToDTO(Librarian librarian);
+
+    @Mapping(target = "gender", ignore = true)
+    @Mapping(target = "birth", ignore = true)
+    @Mapping(target = "manager", ignore = true)
+    Librarian dtoToEntity(LibrarianDTO librarian);
+
+    default Long bookId(Book book) {
+        return book.getId();
+    }
+}
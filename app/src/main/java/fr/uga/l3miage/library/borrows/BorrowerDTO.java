@@ -0,0 +1,12 @@
+package fr.uga.l3miage.library.borrows;
+
+import java.util.Date;
+
+public record BorrowerDTO(
+        Long id,
+        String firstName,
+        String lastName,
+        Date registered,
+        float lateRatio
+) {
+}
@@ -0,0 +1,135 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.LibrarianService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.Date;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class BorrowsController {
+
+    private final BorrowService borrowService;
+    private final BorrowerService borrowerService;
+    private final LibrarianService librarianService;
+    private final BorrowMapper borrowMapper;
+    private final LateRatios lateRatios;
+
+    @Autowired
+    public BorrowsController(BorrowService borrowService, BorrowerService borrowerService,
+                             LibrarianService librarianService, BorrowMapper borrowMapper, LateRatios lateRatios) {
+        this.borrowService = borrowService;
+        this.borrowerService = borrowerService;
+        this.librarianService = librarianService;
+        this.borrowMapper = borrowMapper;
+        this.lateRatios = lateRatios;
+    }
+
+    @PostMapping("/borrowers")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BorrowerDTO newBorrower(@RequestBody BorrowerDTO borrower) {
+        if (isBlank(borrower.firstName()) || isBlank(borrower.lastName())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        Borrower entity = borrowMapper.dtoToEntity(borrower);
+        entity.setId(null);
+        if (entity.getRegistered() == null) {
+            entity.setRegistered(new Date());
+        }
+        return borrowMapper.entityToDTO(borrowerService.save(entity));
+    }
+
+    @PostMapping("/librarians")
+    @ResponseStatus(HttpStatus.CREATED)
+    public LibrarianDTO newLibrarian(@RequestBody LibrarianDTO librarian) {
+        if (isBlank(librarian.firstName()) || isBlank(librarian.lastName())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        var entity = borrowMapper.dtoToEntity(librarian);
+        entity.setId(null);
+        return borrowMapper.entityToDTO(librarianService.save(entity));
+    }
+
+    @GetMapping("/borrowers/{id}/late-ratio")
+    public LateRatioDTO lateRatio(@PathVariable("id") Long borrowerId) {
+        if (!borrowerService.exists(borrowerId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        LateRatios.Counts counts = lateRatios.get(borrowerId);
+        return new LateRatioDTO(borrowerId, counts.borrows(), counts.onTime(), counts.late(), counts.lateRatio());
+    }
+
+    @GetMapping("/borrowers/{id}/borrows")
+    public Collection<BorrowDTO> borrowsOf(@PathVariable("id") Long borrowerId) {
+        try {
+            return borrowMapper.entityToDTO(borrowService.findByBorrower(borrowerId));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping("/borrows")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BorrowDTO newBorrow(@RequestBody NewBorrowDTO borrow) {
+        if (borrow.borrower() == null || borrow.librarian() == null || borrow.end() == null
+                || borrow.books() == null || borrow.books().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            Borrow saved = borrowService.borrow(borrow.borrower(), borrow.librarian(), borrow.books(), borrow.end());
+            return borrowMapper.entityToDTO(saved);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (BookUnavailableException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/borrows/overdue")
+    public Collection<BorrowDTO> overdue() {
+        return borrowMapper.entityToDTO(borrowService.findOverdue(new Date()));
+    }
+
+    @GetMapping("/borrows/{id}")
+    public BorrowDTO borrow(@PathVariable("id") Long id) {
+        try {
+            return borrowMapper.entityToDTO(borrowService.get(id));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    @PutMapping("/borrows/{id}/return")
+    public BorrowDTO giveBack(@PathVariable("id") Long id) {
+        try {
+            return borrowMapper.entityToDTO(borrowService.giveBack(id));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,13 @@
+package fr.uga.l3miage.library.borrows;
+
+/**
+ * Late ratio of a borrower with the counters it is computed from
+ */
+public record LateRatioDTO(
+        Long borrower,
+        long borrows,
+        long onTime,
+        long late,
+        float lateRatio
+) {
+}
@@ -0,0 +1,136 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.library.service.BorrowEvent;
+import fr.uga.l3miage.library.service.BorrowService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the late ratio of every borrower from the {@link BorrowEvent}s, rather than recomputing it from the borrows.
+ * <p>
+ * A borrow counts as late once it is found overdue, or when it is given back after its end date if it was returned
+ * before being found overdue; it counts as on time when given back by its end date. The ratio is late over on time
+ * plus late, borrows still out and not overdue are left out. Overdue borrows are looked for every
+ * {@code library.borrows.overdue-check-ms} (one minute by default) by {@link BorrowService#flagOverdue(Date)}, which
+ * reads the end date index and flags each borrow once.
+ * <p>
+ * Counters are kept in memory and cover the borrows made since startup, like both backends which start empty.
+ * Events are handled once the borrow is committed, so a rolled back borrow is never counted.
+ */
+@Component
+public class LateRatios {
+
+    private final BorrowService borrowService;
+    private final Map<Long, Counters> byBorrower = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LateRatios(BorrowService borrowService) {
+        this.borrowService = borrowService;
+    }
+
+    /**
+     * @param borrowerId id of a borrower
+     * @return the counters of the borrower, all zeros if it never borrowed anything
+     */
+    public Counts get(Long borrowerId) {
+        Counters counters = byBorrower.get(borrowerId);
+        return counters == null ? new Counts(0, 0, 0) : counters.snapshot();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(BorrowEvent event) {
+        Counters counters = byBorrower.computeIfAbsent(event.borrowerId(), id -> new Counters());
+        switch (event.type()) {
+            case CREATED -> counters.created();
+            case OVERDUE -> counters.late();
+            case RETURNED -> {
+                // an overdue borrow was counted late when it was flagged
+                if (!event.overdue()) {
+                    if (event.returned().after(event.end())) {
+                        counters.late();
+                    } else {
+                        counters.onTime();
+                    }
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.borrows.overdue-check-ms:60000}",
+            initialDelayString = "${library.borrows.overdue-check-ms:60000}")
+    public void checkOverdue() {
+        borrowService.flagOverdue(new Date());
+    }
+
+    /**
+     * Full recomputation from the borrows of a borrower, what the counters must be equal to right after the borrows
+     * ended before now were flagged overdue
+     *
+     * @param borrows all the borrows of a borrower
+     * @param now     date of the last overdue check
+     * @return the counters of the borrower
+     */
+    static Counts recompute(Iterable<Borrow> borrows, Date now) {
+        long total = 0;
+        long onTime = 0;
+        long late = 0;
+        for (Borrow borrow : borrows) {
+            total++;
+            if (borrow.getReturned() == null ? borrow.getEnd().before(now) : borrow.getReturned().after(borrow.getEnd())) {
+                late++;
+            } else if (borrow.getReturned() != null) {
+                onTime++;
+            }
+        }
+        return new Counts(total, onTime, late);
+    }
+
+    /**
+     * @param borrows number of borrows made
+     * @param onTime  number of borrows given back by their end date
+     * @param late    number of borrows found overdue or given back after their end date
+     */
+    public record Counts(long borrows, long onTime, long late) {
+
+        /**
+         * @return the share of the finished or overdue borrows that are late, 0 if there is none
+         */
+        public float lateRatio() {
+            long counted = onTime + late;
+            return counted == 0 ? 0f : (float) late / counted;
+        }
+    }
+
+    /**
+     * The three counters of a borrower, only changed and read together under its own monitor: events of different
+     * borrowers never contend.
+     */
+    private static final class Counters {
+        private long borrows;
+        private long onTime;
+        private long late;
+
+        synchronized void created() {
+            borrows++;
+        }
+
+        synchronized void onTime() {
+            onTime++;
+        }
+
+        synchronized void late() {
+            late++;
+        }
+
+        synchronized Counts snapshot() {
+            return new Counts(borrows, onTime, late);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package fr.uga.l3miage.library.borrows;
+
+public record LibrarianDTO(
+        Long id,
+        String firstName,
+        String lastName
+) {
+}
@@ -0,0 +1,12 @@
+package fr.uga.l3miage.library.borrows;
+
+import java.util.Collection;
+import java.util.Date;
+
+public record NewBorrowDTO(
+        Long borrower,
+        Long librarian,
+        Collection<Long> books,
+        Date end
+) {
+}
@@ -0,0 +1,66 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Wraps whatever {@link AuthorService} and {@link BookService} implementations are deployed (mock or persistent) in
+ * their caching decorators.
+ * <p>
+ * Enabled unless {@code library.cache.enabled=false}, {@code library.cache.maximum-size} bounds each cache (10 000
+ * entities by default), {@code library.cache.search-ttl} is how long the results of a search are kept (5 seconds by
+ * default) and {@code library.cache.search-wait} how long a search waits for an identical one before running on its
+ * own (2 seconds by default).
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.cache.enabled", matchIfMissing = true)
+public class CacheConfig {
+
+    @Bean
+    static EntityCaches entityCaches(@Value("${library.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${library.cache.search-ttl:5s}") Duration searchTtl,
+                                     @Value("${library.cache.search-wait:2s}") Duration searchWait) {
+        return new EntityCaches(maximumSize, searchTtl, searchWait);
+    }
+
+    @Bean
+    static BeanPostProcessor cachingServices(EntityCaches caches) {
+        return new CachingServicesPostProcessor(caches);
+    }
+
+    /**
+     * Runs last so that it wraps the transactional proxies of the persistent implementation.
+     */
+    static class CachingServicesPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final EntityCaches caches;
+
+        CachingServicesPostProcessor(EntityCaches caches) {
+            this.caches = caches;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof AuthorService authorService && !(bean instanceof CachingAuthorService)) {
+                return new CachingAuthorService(authorService, caches);
+            }
+            if (bean instanceof BookService bookService && !(bean instanceof CachingBookService)) {
+                return new CachingBookService(bookService, caches);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Lookup;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-through cache in front of any {@link AuthorService}. Identical searches by name running together are made once,
+ * see {@link SearchCache}.
+ */
+public class CachingAuthorService implements AuthorService {
+
+    private final AuthorService delegate;
+    private final EntityCaches caches;
+
+    CachingAuthorService(AuthorService delegate, EntityCaches caches) {
+        this.delegate = delegate;
+        this.caches = caches;
+    }
+
+    @Override
+    public Author save(Author author) {
+        Author saved = delegate.save(author);
+        caches.authors().invalidate(null);
+        return saved;
+    }
+
+    @Override
+    public Collection<Author> saveAll(Collection<Author> authors) {
+        Collection<Author> saved = delegate.saveAll(authors);
+        caches.authors().invalidate(null);
+        return saved;
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name) {
+        return caches.authors().searches().get(name, null, Integer.MAX_VALUE, () -> delegate.searchByName(name));
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name, Long after, int limit) {
+        return caches.authors().searches().get(name, after, limit, () -> delegate.searchByName(name, after, limit));
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        Collection<Book> books = booksOf(id);
+        delegate.delete(id);
+        caches.authors().invalidate(id);
+        caches.invalidateBooks(books);
+    }
+
+    @Override
+    public Author get(Long id) throws EntityNotFoundException {
+        return caches.authors().get(id, () -> delegate.get(id));
+    }
+
+    @Override
+    public Lookup<Author, Long> getAll(Collection<Long> ids) {
+        return caches.authors().getAll(ids, Author::getId, delegate::getAll);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return caches.authors().exists(id, delegate::exists);
+    }
+
+    @Override
+    public Collection<Author> list() {
+        return caches.authors().page(null, Integer.MAX_VALUE, (after, limit) -> delegate.list());
+    }
+
+    @Override
+    public Collection<Author> list(Long after, int limit) {
+        return caches.authors().page(after, limit, delegate::list);
+    }
+
+    @Override
+    public Author update(Author author) throws EntityNotFoundException, ConcurrentUpdateException {
+        // the books embed the name of their authors
+        Collection<Book> books = booksOf(author.getId());
+        Author updated = delegate.update(author);
+        caches.authors().invalidate(author.getId());
+        caches.invalidateBooks(books);
+        return updated;
+    }
+
+    private Collection<Book> booksOf(Long id) throws EntityNotFoundException {
+        Collection<Book> books = get(id).getBooks();
+        return books == null ? List.of() : List.copyOf(books);
+    }
+}
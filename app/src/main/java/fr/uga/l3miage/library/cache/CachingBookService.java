@@ -0,0 +1,132 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-through cache in front of any {@link BookService}. Writes also invalidate the authors of the books they touch,
+ * since an author carries its books. Identical searches by title running together are made once, see
+ * {@link SearchCache}.
+ */
+public class CachingBookService implements BookService {
+
+    private final BookService delegate;
+    private final EntityCaches caches;
+
+    CachingBookService(BookService delegate, EntityCaches caches) {
+        this.delegate = delegate;
+        this.caches = caches;
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        Book saved = delegate.save(authorId, book);
+        caches.books().invalidate(null);
+        caches.authors().invalidate(authorId);
+        return saved;
+    }
+
+    @Override
+    public Collection<Book> saveAll(Collection<Book> books) throws EntityNotFoundException {
+        Collection<Book> saved = delegate.saveAll(books);
+        caches.books().invalidate(null);
+        caches.invalidateAuthors(saved);
+        return saved;
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title) {
+        return caches.books().searches().get(title, null, Integer.MAX_VALUE, () -> delegate.findByTitle(title));
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title, Long after, int limit) {
+        return caches.books().searches().get(title, after, limit, () -> delegate.findByTitle(title, after, limit));
+    }
+
+    @Override
+    public FacetedBooks findByFacets(BookFilter filter, Long after, int limit) {
+        return delegate.findByFacets(filter, after, limit);
+    }
+
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        // not cached, the lookup is already one probe of an index
+        return delegate.getByIsbn(isbn);
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        return delegate.getByAuthor(id);
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        return delegate.findByAuthor(id, title);
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        Book book = get(id);
+        delegate.delete(id);
+        caches.books().invalidate(id);
+        caches.invalidateAuthors(List.of(book));
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        Book book = delegate.addAuthor(bookId, authorId);
+        caches.books().invalidate(bookId);
+        caches.authors().invalidate(authorId);
+        return book;
+    }
+
+    @Override
+    public Book get(Long id) throws EntityNotFoundException {
+        return caches.books().get(id, () -> delegate.get(id));
+    }
+
+    @Override
+    public Lookup<Book, Long> getAll(Collection<Long> ids) {
+        return caches.books().getAll(ids, Book::getId, delegate::getAll);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return caches.books().exists(id, delegate::exists);
+    }
+
+    @Override
+    public Collection<Book> list() {
+        return caches.books().page(null, Integer.MAX_VALUE, (after, limit) -> delegate.list());
+    }
+
+    @Override
+    public Collection<Book> list(Long after, int limit) {
+        return caches.books().page(after, limit, delegate::list);
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException, ConcurrentUpdateException {
+        Collection<Author> previousAuthors = authorsOf(book.getId());
+        Book updated = delegate.update(book);
+        caches.books().invalidate(book.getId());
+        caches.invalidateAuthors(List.of(updated));
+        previousAuthors.forEach(author -> caches.authors().invalidate(author.getId()));
+        return updated;
+    }
+
+    private Collection<Author> authorsOf(Long bookId) throws EntityNotFoundException {
+        Collection<Author> authors = get(bookId).getAuthors();
+        return authors == null ? List.of() : List.copyOf(authors);
+    }
+}
@@ -0,0 +1,181 @@
+package fr.uga.l3miage.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Lookup;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of the entities of one type, by id, of the pages listing them and of the {@link SearchCache searches}.
+ * <p>
+ * Eviction is size based (Caffeine's W-TinyLFU). Any write invalidates the pages and the searches, and the entities it
+ * touched by id. A value loaded concurrently with an invalidation is dropped instead of being cached, so a stale entity
+ * never outlives the write that changed it.
+ *
+ * @param <O> entity type
+ */
+public class EntityCache<O> {
+
+    private final Cache<Long, O> byId;
+    private final Cache<Page, Collection<O>> pages;
+    private final SearchCache<O> searches;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record Page(Long after, int limit) {
+    }
+
+    @FunctionalInterface
+    interface Loader<O> {
+        O load() throws EntityNotFoundException;
+    }
+
+    @FunctionalInterface
+    interface PageLoader<O> {
+        Collection<O> load(Long after, int limit);
+    }
+
+    EntityCache(long maximumSize, Duration searchTtl, Duration searchWait) {
+        this.byId = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+        this.pages = Caffeine.newBuilder().maximumSize(Math.max(1, maximumSize / 100)).recordStats().build();
+        this.searches = new SearchCache<>(searchTtl, searchWait, Math.max(1, maximumSize / 100));
+    }
+
+    O get(Long id, Loader<O> loader) throws EntityNotFoundException {
+        O cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = invalidations.get();
+        O loaded = loader.load();
+        byId.put(id, loaded);
+        if (invalidations.get() != stamp) {
+            byId.invalidate(id);
+        }
+        return loaded;
+    }
+
+    /**
+     * @param ids    ids of the entities
+     * @param idOf   gives the id of an entity
+     * @param loader looks up the entities that are not cached, all in one call
+     * @return the entities found and the ids without entity
+     */
+    Lookup<O, Long> getAll(Collection<Long> ids, Function<O, Long> idOf,
+                           Function<Collection<Long>, Lookup<O, Long>> loader) {
+        Map<Long, O> found = new HashMap<>(byId.getAllPresent(ids.stream().filter(Objects::nonNull).toList()));
+        List<Long> misses = ids.stream()
+                .filter(id -> id != null && !found.containsKey(id))
+                .distinct()
+                .toList();
+        if (!misses.isEmpty()) {
+            long stamp = invalidations.get();
+            List<O> loaded = loader.apply(misses).found();
+            for (O entity : loaded) {
+                found.put(idOf.apply(entity), entity);
+                byId.put(idOf.apply(entity), entity);
+            }
+            if (invalidations.get() != stamp) {
+                byId.invalidateAll(loaded.stream().map(idOf).toList());
+            }
+        }
+        return Lookup.of(ids, found::get);
+    }
+
+    /**
+     * @param id    id of the entity
+     * @param probe asks the underlying service when the entity is not cached
+     * @return true if the entity exists
+     */
+    boolean exists(Long id, Predicate<Long> probe) {
+        return byId.asMap().containsKey(id) || probe.test(id);
+    }
+
+    Collection<O> page(Long after, int limit, PageLoader<O> loader) {
+        Page key = new Page(after, limit);
+        Collection<O> cached = pages.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = invalidations.get();
+        Collection<O> loaded = loader.load(after, limit);
+        pages.put(key, loaded);
+        if (invalidations.get() != stamp) {
+            pages.invalidate(key);
+        }
+        return loaded;
+    }
+
+    /**
+     * @return the searches by text, dropped along with the pages
+     */
+    SearchCache<O> searches() {
+        return searches;
+    }
+
+    /**
+     * @param id id of an entity that was modified, may be null when only the pages are affected
+     */
+    void invalidate(Long id) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        pages.invalidateAll();
+        searches.invalidate();
+    }
+
+    /**
+     * @return hit, miss and eviction counters of the cache by id
+     */
+    public CacheStats stats() {
+        return byId.stats();
+    }
+
+    /**
+     * @return hit, miss and eviction counters of the page cache
+     */
+    public CacheStats pageStats() {
+        return pages.stats();
+    }
+
+    /**
+     * Runs pending maintenance, such as evictions, now rather than on a later access
+     */
+    public void cleanUp() {
+        byId.cleanUp();
+        pages.cleanUp();
+    }
+
+    /**
+     * Registers the Caffeine metrics of the cache by id as {@code name}, of the page cache as {@code name.pages}, and the
+     * meters of the searches
+     *
+     * @param registry registry of the meters
+     * @param name     name of the cache
+     */
+    void bindTo(MeterRegistry registry, String name) {
+        CaffeineCacheMetrics.monitor(registry, byId, name);
+        CaffeineCacheMetrics.monitor(registry, pages, name + ".pages");
+        searches.bindTo(registry, name);
+    }
+
+    /**
+     * @return the approximate number of entities cached by id
+     */
+    public long size() {
+        return byId.estimatedSize();
+    }
+}
@@ -0,0 +1,55 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * The author and book caches, shared by both decorators because writing a book changes its authors. Their hits, misses,
+ * evictions and sizes are published as the {@code cache.*} meters of the {@code authors} and {@code books} caches, and
+ * the searches as {@code library.search}.
+ */
+public class EntityCaches implements MeterBinder {
+
+    private final EntityCache<Author> authors;
+    private final EntityCache<Book> books;
+
+    EntityCaches(long maximumSize) {
+        this(maximumSize, Duration.ofSeconds(5), Duration.ofSeconds(2));
+    }
+
+    EntityCaches(long maximumSize, Duration searchTtl, Duration searchWait) {
+        this.authors = new EntityCache<>(maximumSize, searchTtl, searchWait);
+        this.books = new EntityCache<>(maximumSize, searchTtl, searchWait);
+    }
+
+    public EntityCache<Author> authors() {
+        return authors;
+    }
+
+    public EntityCache<Book> books() {
+        return books;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        authors.bindTo(registry, "authors");
+        books.bindTo(registry, "books");
+    }
+
+    void invalidateAuthors(Collection<Book> books) {
+        for (Book book : books) {
+            if (book.getAuthors() != null) {
+                book.getAuthors().forEach(author -> authors.invalidate(author.getId()));
+            }
+        }
+    }
+
+    void invalidateBooks(Collection<Book> books) {
+        books.forEach(book -> this.books.invalidate(book.getId()));
+    }
+}
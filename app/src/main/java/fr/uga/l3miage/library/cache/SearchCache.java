@@ -0,0 +1,176 @@
+package fr.uga.l3miage.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of the searches by text of one entity type, kept for a short time, with the concurrent identical searches
+ * coalesced into one.
+ * <p>
+ * Searches are keyed by their text in lower case, as the services match it case-insensitively, and by their page. A
+ * search not cached runs once however many requests ask for it meanwhile: the first one runs it, the others wait for
+ * its result (single flight). Results expire {@code ttl} after the search and are dropped by any write, like the pages
+ * of {@link EntityCache}; a search running when a write happens is not cached, and the requests arriving after the
+ * write do not wait for it but run a new one. Those already waiting for it when the write happens run the search again
+ * once it is done, so that no request gets results older than a write made before it returned. A request waits at most
+ * {@code wait} for an identical search, then runs the search itself.
+ * <p>
+ * Results are cached and shared as unmodifiable lists, so that a caller changing the collection it got cannot change
+ * what the others get.
+ * <pre>
+ * library.search{cache, result=hit}       searches answered from the cache
+ * library.search{cache, result=coalesced} searches that waited for an identical one already running
+ * library.search{cache, result=miss}      searches run by the service
+ * </pre>
+ *
+ * @param <O> entity type
+ */
+class SearchCache<O> {
+
+    static final String SEARCHES = "library.search";
+
+    private final Cache<Query, Collection<O>> results;
+    private final ConcurrentMap<Query, CompletableFuture<Found<O>>> running = new ConcurrentHashMap<>();
+    private final Duration wait;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Query(String text, Long after, int limit) {
+    }
+
+    /**
+     * Result of a search, with the number of invalidations made before it started
+     */
+    private record Found<O>(Collection<O> entities, long stamp) {
+    }
+
+    @FunctionalInterface
+    interface Search<O> {
+        Collection<O> run();
+    }
+
+    SearchCache(Duration ttl, Duration wait, long maximumSize) {
+        this.results = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).build();
+        this.wait = wait;
+    }
+
+    /**
+     * @param text   text searched, as given to the service
+     * @param after  id after which the page starts, null for the first page
+     * @param limit  maximum size of the page, {@link Integer#MAX_VALUE} for a search not paged
+     * @param search runs the search on the service, with the text as given by the first of the identical requests
+     * @return the entities found
+     */
+    Collection<O> get(String text, Long after, int limit, Search<O> search) {
+        Query query = new Query(text == null ? null : text.toLowerCase(Locale.ROOT), after, limit);
+        Collection<O> cached = results.getIfPresent(query);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        CompletableFuture<Found<O>> mine = new CompletableFuture<>();
+        CompletableFuture<Found<O>> other = running.putIfAbsent(query, mine);
+        if (other != null) {
+            coalesced.increment();
+            Found<O> found = await(other);
+            if (found != null && invalidations.get() == found.stamp()) {
+                return found.entities();
+            }
+            // too slow, or started before a write: run on its own, not cached
+            return List.copyOf(search.run());
+        }
+        misses.increment();
+        long stamp = invalidations.get();
+        try {
+            Collection<O> found = List.copyOf(search.run());
+            if (invalidations.get() == stamp) {
+                // cached before the search stops running, so that a request arriving in between finds it
+                results.put(query, found);
+                if (invalidations.get() != stamp) {
+                    results.invalidate(query);
+                }
+            }
+            mine.complete(new Found<>(found, stamp));
+            return found;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(query, mine);
+        }
+    }
+
+    /**
+     * Drops the results and lets the next searches run again rather than wait for the ones running
+     */
+    void invalidate() {
+        invalidations.incrementAndGet();
+        running.clear();
+        results.invalidateAll();
+    }
+
+    void bindTo(MeterRegistry registry, String name) {
+        counter(registry, name, "hit", hits);
+        counter(registry, name, "coalesced", coalesced);
+        counter(registry, name, "miss", misses);
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long coalesced() {
+        return coalesced.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    private static void counter(MeterRegistry registry, String name, String result, LongAdder count) {
+        FunctionCounter.builder(SEARCHES, count, LongAdder::sum)
+                .description("Searches by text, by the way they were answered")
+                .tags("cache", name, "result", result)
+                .register(registry);
+    }
+
+    /**
+     * @return the result of the search, or null if it is still running after {@link #wait}
+     */
+    private Found<O> await(CompletableFuture<Found<O>> search) {
+        try {
+            return search.get(wait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package fr.uga.l3miage.library.etag;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Lookup;
+
+import java.util.Collection;
+
+/**
+ * Bumps the {@link StoreChanges} after each write to any {@link AuthorService}, failed ones included since they may
+ * have written part of their changes.
+ */
+public class ChangeCountingAuthorService implements AuthorService {
+
+    private final AuthorService delegate;
+    private final StoreChanges changes;
+
+    public ChangeCountingAuthorService(AuthorService delegate, StoreChanges changes) {
+        this.delegate = delegate;
+        this.changes = changes;
+    }
+
+    @Override
+    public Author save(Author author) {
+        try {
+            return delegate.save(author);
+        } finally {
+            changes.changed();
+        }
+    }
+
+    @Override
+    public Collection<Author> saveAll(Collection<Author> authors) {
+        try {
+            return delegate.saveAll(authors);
+        } finally {
+            changes.changed();
+        }
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name) {
+        return delegate.searchByName(name);
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name, Long after, int limit) {
+        return delegate.searchByName(name, after, limit);
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        try {
+            delegate.delete(id);
+        } finally {
+            changes.changed();
+        }
+    }
+
+    @Override
+    public Author get(Long id) throws EntityNotFoundException {
+        return delegate.get(id);
+    }
+
+    @Override
+    public Lookup<Author, Long> getAll(Collection<Long> ids) {
+        return delegate.getAll(ids);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public Collection<Author> list() {
+        return delegate.list();
+    }
+
+    @Override
+    public Collection<Author> list(Long after, int limit) {
+        return delegate.list(after, limit);
+    }
+
+    @Override
+    public Author update(Author author) throws EntityNotFoundException, ConcurrentUpdateException {
+        try {
+            return delegate.update(author);
+        } finally {
+            changes.changed();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package fr.uga.l3miage.library.etag;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
+
+import java.util.Collection;
+
+/**
+ * Bumps the {@link StoreChanges} after each write to any {@link BookService}, failed ones included since they may
+ * have written part of their changes.
+ */
+public class ChangeCountingBookService implements BookService {
+
+    private final BookService delegate;
+    private final StoreChanges changes;
+
+    public ChangeCountingBookService(BookService delegate, StoreChanges changes) {
+        this.delegate = delegate;
+        this.changes = changes;
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        try {
+            return delegate.save(authorId, book);
+        } finally {
+            changes.changed();
+        }
+    }
+
+    @Override
+    public Collection<Book> saveAll(Collection<Book> books) throws EntityNotFoundException {
+        try {
+            return delegate.saveAll(books);
+        } finally {
+            changes.changed();
+        }
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title) {
+        return delegate.findByTitle(title);
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title, Long after, int limit) {
+        return delegate.findByTitle(title, after, limit);
+    }
+
+    @Override
+    public FacetedBooks findByFacets(BookFilter filter, Long after, int limit) {
+        return delegate.findByFacets(filter, after, limit);
+    }
+
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return delegate.getByIsbn(isbn);
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        return delegate.getByAuthor(id);
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        return delegate.findByAuthor(id, title);
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        try {
+            delegate.delete(id);
+        } finally {
+            changes.changed();
+        }
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        try {
+            return delegate.addAuthor(bookId, authorId);
+        } finally {
+            changes.changed();
+        }
+    }
+
+    @Override
+    public Book get(Long id) throws EntityNotFoundException {
+        return delegate.get(id);
+    }
+
+    @Override
+    public Lookup<Book, Long> getAll(Collection<Long> ids) {
+        return delegate.getAll(ids);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public Collection<Book> list() {
+        return delegate.list();
+    }
+
+    @Override
+    public Collection<Book> list(Long after, int limit) {
+        return delegate.list(after, limit);
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException, ConcurrentUpdateException {
+        try {
+            return delegate.update(book);
+        } finally {
+            changes.changed();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package fr.uga.l3miage.library.etag;
+
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wraps whatever {@link AuthorService} and {@link BookService} implementations are deployed in the decorators counting
+ * their writes, for the weak ETags of the collections. The single resources have strong ETags, see {@link EntityTags}.
+ */
+@Configuration
+public class ETagConfig {
+
+    @Bean
+    static StoreChanges storeChanges() {
+        return new StoreChanges();
+    }
+
+    @Bean
+    static BeanPostProcessor changeCountingServices(StoreChanges changes) {
+        return new ChangeCountingServicesPostProcessor(changes);
+    }
+
+    /**
+     * Not ordered, the writes are counted once they return whatever decorators are inside.
+     */
+    static class ChangeCountingServicesPostProcessor implements BeanPostProcessor {
+
+        private final StoreChanges changes;
+
+        ChangeCountingServicesPostProcessor(StoreChanges changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof AuthorService authorService && !(bean instanceof ChangeCountingAuthorService)) {
+                return new ChangeCountingAuthorService(authorService, changes);
+            }
+            if (bean instanceof BookService bookService && !(bean instanceof ChangeCountingBookService)) {
+                return new ChangeCountingBookService(bookService, changes);
+            }
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package fr.uga.l3miage.library.etag;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Strong ETags of the single resources, computed from the versions of the entities without serializing them. They are
+ * checked against the If-None-Match of the reads and the If-Match of the updates.
+ * <p>
+ * An If-Match is optional on the updates. With one, an update over a version other than the one of the tag is refused
+ * with 412. Without one, the update is made over the version the server reads, and one which loses the race with another
+ * update is refused with 409 by the version check of the services.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+        // to hide the public one
+    }
+
+    /**
+     * @param request an update which lost the race with another one
+     * @return 412 if it was conditioned by an If-Match, the client then refetches, 409 otherwise
+     */
+    public static HttpStatus conflict(WebRequest request) {
+        return conflict(request.getHeader(HttpHeaders.IF_MATCH));
+    }
+
+    /**
+     * @param headers the headers of an update which lost the race with another one
+     * @return 412 if it was conditioned by an If-Match, the client then refetches, 409 otherwise
+     */
+    public static HttpStatus conflict(HttpHeaders headers) {
+        return conflict(headers.getFirst(HttpHeaders.IF_MATCH));
+    }
+
+    private static HttpStatus conflict(String ifMatch) {
+        return ifMatch == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED;
+    }
+
+    /**
+     * @param tag the tag the client already holds
+     * @param <T> type of the body the resource would have
+     * @return 304 with the tag, without body
+     */
+    public static <T> ResponseEntity<T> notModified(String tag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+    }
+
+    /**
+     * @param author the author
+     * @return its tag, from its id and version
+     */
+    public static String author(Author author) {
+        return "\"a" + author.getId() + '-' + author.getVersion() + '"';
+    }
+
+    /**
+     * The JSON of a book embeds the names of its authors, its tag also changes with the versions of its authors.
+     *
+     * @param book the book, with its authors
+     * @return its tag, from its id and version and the ids and versions of its authors in any order
+     */
+    public static String book(Book book) {
+        int authors = 0;
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                authors += 31 * Long.hashCode(author.getId()) + Long.hashCode(author.getVersion());
+            }
+        }
+        return "\"b" + book.getId() + '-' + book.getVersion() + '-' + Integer.toHexString(authors) + '"';
+    }
+}
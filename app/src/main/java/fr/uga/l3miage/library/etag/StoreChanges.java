@@ -0,0 +1,28 @@
+package fr.uga.l3miage.library.etag;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Store-wide modification counter, bumped after every write to the authors or books, from which the collection
+ * endpoints derive a weak ETag: a list cannot have changed if no write completed since it was served.
+ * <p>
+ * The counter is read before loading the data, so that a write racing with the request at worst gives a tag older than
+ * the data, which only costs the client a refetch. It restarts with the process, the tags carry the start time so that
+ * they are not reused across restarts.
+ */
+public class StoreChanges {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * @return the weak ETag of the store as it is now
+     */
+    public String weakTag() {
+        return "W/\"" + epoch + '-' + changes.get() + '"';
+    }
+
+    void changed() {
+        changes.incrementAndGet();
+    }
+}
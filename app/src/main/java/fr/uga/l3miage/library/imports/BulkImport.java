@@ -0,0 +1,214 @@
+package fr.uga.l3miage.library.imports;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * State of one bulk import.
+ * <p>
+ * Rows are validated one by one and buffered, then persisted through {@link AuthorService#saveAll} and
+ * {@link BookService#saveAll} every batchSize rows. A book referencing an author still in the buffer flushes the
+ * authors first. An invalid row is reported and skipped; a batch that fails is retried row by row so that only the
+ * faulty rows are reported.
+ */
+class BulkImport {
+
+    private static final int MAX_DETAILED_ERRORS = 1000;
+
+    private final AuthorService authorService;
+    private final BookService bookService;
+    private final BooksMapper booksMapper;
+    private final int batchSize;
+
+    private final Map<String, Long> authorIds = new HashMap<>();
+    private final Set<Long> existingAuthors = new HashSet<>();
+    private final Map<String, Pending<Author>> pendingAuthors = new HashMap<>();
+    private final List<Pending<Author>> authors = new ArrayList<>();
+    private final List<Pending<Book>> books = new ArrayList<>();
+
+    private long authorCount;
+    private long bookCount;
+    private long errorCount;
+    private final List<ImportErrorDTO> errors = new ArrayList<>();
+
+    private record Pending<T>(long line, String key, T entity) {
+    }
+
+    BulkImport(AuthorService authorService, BookService bookService, BooksMapper booksMapper, int batchSize) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+        this.booksMapper = booksMapper;
+        this.batchSize = batchSize;
+    }
+
+    void row(long line, ImportRowDTO row) {
+        if (ImportRowDTO.AUTHOR.equals(row.type())) {
+            author(line, row);
+        } else if (ImportRowDTO.BOOK.equals(row.type())) {
+            book(line, row);
+        } else {
+            error(line, "unknown row type: " + row.type());
+        }
+    }
+
+    void error(long line, String message) {
+        errorCount++;
+        if (errors.size() < MAX_DETAILED_ERRORS) {
+            errors.add(new ImportErrorDTO(line, message));
+        }
+    }
+
+    ImportReportDTO finish() {
+        flushAuthors();
+        flushBooks();
+        return new ImportReportDTO(authorCount, bookCount, errorCount, List.copyOf(errors));
+    }
+
+    private void author(long line, ImportRowDTO row) {
+        if (row.fullName() == null || row.fullName().isBlank()) {
+            error(line, "an author must have a full name");
+            return;
+        }
+        if (row.key() != null && (authorIds.containsKey(row.key()) || pendingAuthors.containsKey(row.key()))) {
+            error(line, "duplicate author key: " + row.key());
+            return;
+        }
+        Author author = new Author();
+        author.setFullName(row.fullName());
+        Pending<Author> pending = new Pending<>(line, row.key(), author);
+        authors.add(pending);
+        if (row.key() != null) {
+            pendingAuthors.put(row.key(), pending);
+        }
+        if (authors.size() >= batchSize) {
+            flushAuthors();
+        }
+    }
+
+    private void book(long line, ImportRowDTO row) {
+        if (row.title() == null || row.title().isBlank()) {
+            error(line, "a book must have a title");
+            return;
+        }
+        if (row.isbn() != null && Long.toString(row.isbn()).length() < 10) {
+            error(line, "isbn must have at least 10 digits");
+            return;
+        }
+        if (row.year() != null && Math.abs(row.year()) > 9999) {
+            error(line, "year must have at most 4 digits");
+            return;
+        }
+        if (row.authors() == null || row.authors().isEmpty()) {
+            error(line, "a book must have at least one author");
+            return;
+        }
+        Book book = new Book();
+        try {
+            book.setLanguage(booksMapper.stringToEnum(row.language()));
+        } catch (IllegalArgumentException e) {
+            error(line, "unknown language: " + row.language());
+            return;
+        }
+        for (String reference : row.authors()) {
+            Long authorId = resolve(reference);
+            if (authorId == null) {
+                error(line, "unknown author: " + reference);
+                return;
+            }
+            Author author = new Author();
+            author.setId(authorId);
+            book.addAuthor(author);
+        }
+        book.setTitle(row.title());
+        book.setIsbn(row.isbn() == null ? 0 : row.isbn());
+        book.setPublisher(row.publisher());
+        book.setYear(row.year() == null ? 0 : row.year());
+        books.add(new Pending<>(line, null, book));
+        if (books.size() >= batchSize) {
+            flushBooks();
+        }
+    }
+
+    private Long resolve(String reference) {
+        if (pendingAuthors.containsKey(reference)) {
+            flushAuthors();
+        }
+        Long id = authorIds.get(reference);
+        if (id != null) {
+            return id;
+        }
+        try {
+            id = Long.valueOf(reference);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (!existingAuthors.contains(id)) {
+            try {
+                authorService.get(id);
+            } catch (EntityNotFoundException e) {
+                return null;
+            }
+            existingAuthors.add(id);
+        }
+        return id;
+    }
+
+    private void flushAuthors() {
+        if (authors.isEmpty()) {
+            return;
+        }
+        try {
+            authorService.saveAll(authors.stream().map(Pending::entity).toList());
+            authors.forEach(this::saved);
+        } catch (RuntimeException batchFailure) {
+            for (Pending<Author> pending : authors) {
+                try {
+                    authorService.saveAll(List.of(pending.entity()));
+                    saved(pending);
+                } catch (RuntimeException e) {
+                    error(pending.line(), "cannot save author: " + e.getMessage());
+                }
+            }
+        }
+        authors.clear();
+        pendingAuthors.clear();
+    }
+
+    private void saved(Pending<Author> pending) {
+        authorCount++;
+        if (pending.key() != null) {
+            authorIds.put(pending.key(), pending.entity().getId());
+        }
+    }
+
+    private void flushBooks() {
+        if (books.isEmpty()) {
+            return;
+        }
+        try {
+            bookService.saveAll(books.stream().map(Pending::entity).toList());
+            bookCount += books.size();
+        } catch (EntityNotFoundException | RuntimeException batchFailure) {
+            for (Pending<Book> pending : books) {
+                try {
+                    bookService.saveAll(List.of(pending.entity()));
+                    bookCount++;
+                } catch (EntityNotFoundException | RuntimeException e) {
+                    error(pending.line(), "cannot save book: " + e.getMessage());
+                }
+            }
+        }
+        books.clear();
+    }
+}
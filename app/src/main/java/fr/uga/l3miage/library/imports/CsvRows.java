@@ -0,0 +1,70 @@
+package fr.uga.l3miage.library.imports;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses the CSV flavour of a bulk import.
+ * <p>
+ * Columns are those of {@link ImportRowDTO}, in this order, after a header line. Fields may be double-quoted, a quote
+ * being escaped by doubling it. Authors of a book are separated by {@code |}.
+ */
+final class CsvRows {
+
+    static final String HEADER = "type,key,fullName,title,isbn,publisher,year,language,authors";
+    private static final int COLUMNS = 9;
+
+    private CsvRows() {
+        // to hide the public one
+    }
+
+    static ImportRowDTO parse(String line) {
+        List<String> fields = split(line);
+        if (fields.size() != COLUMNS) {
+            throw new IllegalArgumentException("expected " + COLUMNS + " columns but got " + fields.size());
+        }
+        return new ImportRowDTO(
+                blankToNull(fields.get(0)),
+                blankToNull(fields.get(1)),
+                blankToNull(fields.get(2)),
+                blankToNull(fields.get(3)),
+                fields.get(4).isBlank() ? null : Long.valueOf(fields.get(4).trim()),
+                blankToNull(fields.get(5)),
+                fields.get(6).isBlank() ? null : Short.valueOf(fields.get(6).trim()),
+                blankToNull(fields.get(7)),
+                fields.get(8).isBlank() ? List.of() : Arrays.asList(fields.get(8).split("\\|")));
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String blankToNull(String field) {
+        return field.isBlank() ? null : field.trim();
+    }
+}
@@ -0,0 +1,93 @@
+package fr.uga.l3miage.library.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.library.Paging;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bulk import of authors and books, read line by line from the request body and persisted in batches of
+ * {@code library.import.batch-size} rows.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class ImportController {
+
+    private final AuthorService authorService;
+    private final BookService bookService;
+    private final BooksMapper booksMapper;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    @Autowired
+    public ImportController(AuthorService authorService, BookService bookService, BooksMapper booksMapper,
+                            ObjectMapper objectMapper, @Value("${library.import.batch-size:1000}") int batchSize) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+        this.booksMapper = booksMapper;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    @PostMapping(value = "/import", consumes = Paging.NDJSON)
+    public ImportReportDTO importNdjson(InputStream body) throws IOException {
+        return read(body, false, line -> objectMapper.readValue(line, ImportRowDTO.class));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ImportReportDTO importCsv(InputStream body) throws IOException {
+        return read(body, true, CsvRows::parse);
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ImportRowDTO parse(String line) throws JsonProcessingException;
+    }
+
+    private ImportReportDTO read(InputStream body, boolean header, RowParser parser) throws IOException {
+        BulkImport bulkImport = new BulkImport(authorService, bookService, booksMapper, batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long number = 0;
+            String line;
+            if (header) {
+                line = reader.readLine();
+                number++;
+                if (line == null || !CsvRows.HEADER.equals(line.strip())) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "expected header: " + CsvRows.HEADER);
+                }
+            }
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportRowDTO row;
+                try {
+                    row = parser.parse(line);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    bulkImport.error(number, "malformed row: " + e.getMessage());
+                    continue;
+                }
+                bulkImport.row(number, row);
+            }
+        }
+        return bulkImport.finish();
+    }
+}
@@ -0,0 +1,7 @@
+package fr.uga.l3miage.library.imports;
+
+public record ImportErrorDTO(
+        long line,
+        String message
+) {
+}
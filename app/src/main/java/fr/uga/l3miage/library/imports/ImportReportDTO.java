@@ -0,0 +1,14 @@
+package fr.uga.l3miage.library.imports;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first errors are detailed, errorCount counts all of them.
+ */
+public record ImportReportDTO(
+        long authors,
+        long books,
+        long errorCount,
+        List<ImportErrorDTO> errors
+) {
+}
@@ -0,0 +1,24 @@
+package fr.uga.l3miage.library.imports;
+
+import java.util.List;
+
+/**
+ * One line of a bulk import, either an author or a book.
+ * <p>
+ * An author row may carry a key, local to the upload, that later book rows use to reference it. Book rows list their
+ * authors by such keys or by the id of an already existing author.
+ */
+public record ImportRowDTO(
+        String type,
+        String key,
+        String fullName,
+        String title,
+        Long isbn,
+        String publisher,
+        Short year,
+        String language,
+        List<String> authors
+) {
+    static final String AUTHOR = "author";
+    static final String BOOK = "book";
+}
@@ -0,0 +1,130 @@
+package fr.uga.l3miage.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Writes {@link Book} and {@link Author} entities straight to the JSON generator, in the same shape as
+ * {@code BookDTO} and {@code AuthorDTO}, without building the DTOs.
+ * <p>
+ * Field names and language values are serialized once, here, instead of on every book.
+ */
+public class EntityJsonModule extends SimpleModule {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString ISBN = new SerializedString("isbn");
+    private static final SerializedString PUBLISHER = new SerializedString("publisher");
+    private static final SerializedString YEAR = new SerializedString("year");
+    private static final SerializedString LANGUAGE = new SerializedString("language");
+    private static final SerializedString AUTHORS = new SerializedString("authors");
+    private static final SerializedString FULL_NAME = new SerializedString("fullName");
+
+    // indexed by ordinal, same values as BooksMapper.enumToString
+    private static final SerializedString[] LANGUAGES = languages();
+
+    public EntityJsonModule() {
+        super("EntityJsonModule");
+        addSerializer(Book.class, new BookSerializer());
+        addSerializer(Author.class, new AuthorSerializer());
+    }
+
+    /**
+     * @param book      the book to write, as a JSON object
+     * @param generator where to write it
+     */
+    public static void writeBook(Book book, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        writeId(book.getId(), generator);
+        generator.writeFieldName(TITLE);
+        generator.writeString(book.getTitle());
+        generator.writeFieldName(ISBN);
+        generator.writeNumber(book.getIsbn());
+        generator.writeFieldName(PUBLISHER);
+        generator.writeString(book.getPublisher());
+        generator.writeFieldName(YEAR);
+        generator.writeNumber(book.getYear());
+        generator.writeFieldName(LANGUAGE);
+        if (book.getLanguage() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(LANGUAGES[book.getLanguage().ordinal()]);
+        }
+        generator.writeFieldName(AUTHORS);
+        Collection<Author> authors = book.getAuthors();
+        if (authors == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (Author author : authors) {
+                writeAuthor(author, generator);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * @param author    the author to write, as a JSON object
+     * @param generator where to write it
+     */
+    public static void writeAuthor(Author author, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        writeId(author.getId(), generator);
+        generator.writeFieldName(FULL_NAME);
+        generator.writeString(author.getFullName());
+        generator.writeEndObject();
+    }
+
+    private static void writeId(Long id, JsonGenerator generator) throws IOException {
+        if (id == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(id);
+        }
+    }
+
+    private static SerializedString[] languages() {
+        Book.Language[] values = Book.Language.values();
+        SerializedString[] languages = new SerializedString[values.length];
+        for (Book.Language language : values) {
+            languages[language.ordinal()] = new SerializedString(language.name().toLowerCase(Locale.ROOT));
+        }
+        return languages;
+    }
+
+    private static class BookSerializer extends StdSerializer<Book> {
+
+        BookSerializer() {
+            super(Book.class);
+        }
+
+        @Override
+        public void serialize(Book book, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writeBook(book, generator);
+        }
+    }
+
+    private static class AuthorSerializer extends StdSerializer<Author> {
+
+        AuthorSerializer() {
+            super(Author.class);
+        }
+
+        @Override
+        public void serialize(Author author, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writeAuthor(author, generator);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package fr.uga.l3miage.library.json;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.authors.AuthorMapper;
+import fr.uga.l3miage.library.books.BooksMapper;
+
+import java.util.Collection;
+
+/**
+ * What the controllers hand over to Jackson for books and authors: the entities themselves, written by
+ * {@link EntityJsonModule}, or their DTOs mapped by MapStruct when {@code library.json.direct=false}.
+ */
+public class EntityViews {
+
+    private final boolean direct;
+    private final BooksMapper booksMapper;
+    private final AuthorMapper authorMapper;
+
+    EntityViews(boolean direct, BooksMapper booksMapper, AuthorMapper authorMapper) {
+        this.direct = direct;
+        this.booksMapper = booksMapper;
+        this.authorMapper = authorMapper;
+    }
+
+    public Object book(Book book) {
+        return direct ? book : booksMapper.entityToDTO(book);
+    }
+
+    public Collection<?> books(Collection<Book> books) {
+        return direct ? books : books.stream().map(booksMapper::entityToDTO).toList();
+    }
+
+    public Object author(Author author) {
+        return direct ? author : authorMapper.entityToDTO(author);
+    }
+
+    public Collection<?> authors(Collection<Author> authors) {
+        return direct ? authors : authors.stream().map(authorMapper::entityToDTO).toList();
+    }
+}
@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.json;
+
+import fr.uga.l3miage.library.authors.AuthorMapper;
+import fr.uga.l3miage.library.books.BooksMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Books and authors are written directly from the entities unless {@code library.json.direct=false}, which falls back
+ * to the MapStruct DTOs.
+ */
+@Configuration
+public class JsonConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "library.json.direct", matchIfMissing = true)
+    EntityJsonModule entityJsonModule() {
+        return new EntityJsonModule();
+    }
+
+    @Bean
+    EntityViews entityViews(@Value("${library.json.direct:true}") boolean direct, BooksMapper booksMapper, AuthorMapper authorMapper) {
+        return new EntityViews(direct, booksMapper, authorMapper);
+    }
+}
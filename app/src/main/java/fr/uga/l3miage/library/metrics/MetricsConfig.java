@@ -0,0 +1,53 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wraps whatever {@link AuthorService} and {@link BookService} implementations are deployed in their timing
+ * decorators, see {@link ServiceMeters} for the meters.
+ * <p>
+ * Enabled unless {@code library.metrics.services=false}. The meters are served with the rest of the actuator metrics,
+ * on {@code /actuator/prometheus}; percentile histograms of the service timers can be turned on with
+ * {@code management.metrics.distribution.percentiles-histogram.library.service=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.metrics.services", matchIfMissing = true)
+public class MetricsConfig {
+
+    @Bean
+    static BeanPostProcessor timedServices(ObjectProvider<MeterRegistry> registry) {
+        return new TimedServicesPostProcessor(registry);
+    }
+
+    /**
+     * Not ordered, so that it runs after all the ordered post processors, caching included, and times the calls as
+     * the controllers make them. The registry is only looked up once the post processors are all registered, so that
+     * it is configured by them.
+     */
+    static class TimedServicesPostProcessor implements BeanPostProcessor {
+
+        private final ObjectProvider<MeterRegistry> registry;
+
+        TimedServicesPostProcessor(ObjectProvider<MeterRegistry> registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof AuthorService authorService && !(bean instanceof TimedAuthorService)) {
+                return new TimedAuthorService(authorService, registry.getObject());
+            }
+            if (bean instanceof BookService bookService && !(bean instanceof TimedBookService)) {
+                return new TimedBookService(bookService, registry.getObject());
+            }
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package fr.uga.l3miage.library.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the calls to one service, registered once by the timing decorators so that recording a call is a clock
+ * read and an update of the meter, without looking it up.
+ * <pre>
+ * library.service{service, method}         time spent in each method, failed calls included
+ * library.service.results{service, method} number of entities returned by the searches and lists
+ * </pre>
+ */
+class ServiceMeters {
+
+    static final String TIMER = "library.service";
+    static final String RESULTS = "library.service.results";
+
+    private final MeterRegistry registry;
+    private final String service;
+
+    ServiceMeters(MeterRegistry registry, String service) {
+        this.registry = registry;
+        this.service = service;
+    }
+
+    Timer timer(String method) {
+        return Timer.builder(TIMER)
+                .description("Time spent in the calls to the services")
+                .tags("service", service, "method", method)
+                .register(registry);
+    }
+
+    DistributionSummary results(String method) {
+        return DistributionSummary.builder(RESULTS)
+                .description("Number of entities returned by the services")
+                .tags("service", service, "method", method)
+                .serviceLevelObjectives(1, 10, 100, 1_000, 10_000)
+                .register(registry);
+    }
+
+    static <T, E extends Exception> T time(Timer timer, Call<T, E> call) throws E {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static <T extends Collection<?>, E extends Exception> T time(Timer timer, DistributionSummary results,
+                                                                 Call<T, E> call) throws E {
+        T found = time(timer, call);
+        results.record(found.size());
+        return found;
+    }
+
+    @FunctionalInterface
+    interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+}
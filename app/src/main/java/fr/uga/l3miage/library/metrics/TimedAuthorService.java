@@ -0,0 +1,125 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Lookup;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static fr.uga.l3miage.library.metrics.ServiceMeters.time;
+
+/**
+ * Times the calls to any {@link AuthorService}, and counts the authors its searches and lists return.
+ */
+public class TimedAuthorService implements AuthorService {
+
+    private final AuthorService delegate;
+    private final Timer save;
+    private final Timer saveAll;
+    private final Timer searchByName;
+    private final DistributionSummary searchByNameResults;
+    private final Timer searchByNamePage;
+    private final DistributionSummary searchByNamePageResults;
+    private final Timer delete;
+    private final Timer get;
+    private final Timer getAll;
+    private final Timer exists;
+    private final Timer list;
+    private final DistributionSummary listResults;
+    private final Timer listPage;
+    private final DistributionSummary listPageResults;
+    private final Timer update;
+
+    public TimedAuthorService(AuthorService delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        ServiceMeters meters = new ServiceMeters(registry, "authors");
+        save = meters.timer("save");
+        saveAll = meters.timer("saveAll");
+        searchByName = meters.timer("searchByName");
+        searchByNameResults = meters.results("searchByName");
+        searchByNamePage = meters.timer("searchByNamePage");
+        searchByNamePageResults = meters.results("searchByNamePage");
+        delete = meters.timer("delete");
+        get = meters.timer("get");
+        getAll = meters.timer("getAll");
+        exists = meters.timer("exists");
+        list = meters.timer("list");
+        listResults = meters.results("list");
+        listPage = meters.timer("listPage");
+        listPageResults = meters.results("listPage");
+        update = meters.timer("update");
+    }
+
+    @Override
+    public Author save(Author author) {
+        return time(save, () -> delegate.save(author));
+    }
+
+    @Override
+    public Collection<Author> saveAll(Collection<Author> authors) {
+        return time(saveAll, () -> delegate.saveAll(authors));
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name) {
+        return time(searchByName, searchByNameResults, () -> delegate.searchByName(name));
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name, Long after, int limit) {
+        return time(searchByNamePage, searchByNamePageResults, () -> delegate.searchByName(name, after, limit));
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        // two checked exceptions, which a Call cannot throw
+        long start = System.nanoTime();
+        try {
+            delegate.delete(id);
+        } finally {
+            delete.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Author get(Long id) throws EntityNotFoundException {
+        return time(get, () -> delegate.get(id));
+    }
+
+    @Override
+    public Lookup<Author, Long> getAll(Collection<Long> ids) {
+        return time(getAll, () -> delegate.getAll(ids));
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return time(exists, () -> delegate.exists(id));
+    }
+
+    @Override
+    public Collection<Author> list() {
+        return time(list, listResults, delegate::list);
+    }
+
+    @Override
+    public Collection<Author> list(Long after, int limit) {
+        return time(listPage, listPageResults, () -> delegate.list(after, limit));
+    }
+
+    @Override
+    public Author update(Author author) throws EntityNotFoundException, ConcurrentUpdateException {
+        long start = System.nanoTime();
+        try {
+            return delegate.update(author);
+        } finally {
+            update.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static fr.uga.l3miage.library.metrics.ServiceMeters.time;
+
+/**
+ * Times the calls to any {@link BookService}, and counts the books its searches and lists return.
+ */
+public class TimedBookService implements BookService {
+
+    private final BookService delegate;
+    private final Timer save;
+    private final Timer saveAll;
+    private final Timer findByTitle;
+    private final DistributionSummary findByTitleResults;
+    private final Timer findByTitlePage;
+    private final DistributionSummary findByTitlePageResults;
+    private final Timer findByFacets;
+    private final Timer getByIsbn;
+    private final Timer getByAuthor;
+    private final Timer findByAuthor;
+    private final Timer delete;
+    private final Timer addAuthor;
+    private final Timer get;
+    private final Timer getAll;
+    private final Timer exists;
+    private final Timer list;
+    private final DistributionSummary listResults;
+    private final Timer listPage;
+    private final DistributionSummary listPageResults;
+    private final Timer update;
+
+    public TimedBookService(BookService delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        ServiceMeters meters = new ServiceMeters(registry, "books");
+        save = meters.timer("save");
+        saveAll = meters.timer("saveAll");
+        findByTitle = meters.timer("findByTitle");
+        findByTitleResults = meters.results("findByTitle");
+        findByTitlePage = meters.timer("findByTitlePage");
+        findByTitlePageResults = meters.results("findByTitlePage");
+        findByFacets = meters.timer("findByFacets");
+        getByIsbn = meters.timer("getByIsbn");
+        getByAuthor = meters.timer("getByAuthor");
+        findByAuthor = meters.timer("findByAuthor");
+        delete = meters.timer("delete");
+        addAuthor = meters.timer("addAuthor");
+        get = meters.timer("get");
+        getAll = meters.timer("getAll");
+        exists = meters.timer("exists");
+        list = meters.timer("list");
+        listResults = meters.results("list");
+        listPage = meters.timer("listPage");
+        listPageResults = meters.results("listPage");
+        update = meters.timer("update");
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        return time(save, () -> delegate.save(authorId, book));
+    }
+
+    @Override
+    public Collection<Book> saveAll(Collection<Book> books) throws EntityNotFoundException {
+        return time(saveAll, () -> delegate.saveAll(books));
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title) {
+        return time(findByTitle, findByTitleResults, () -> delegate.findByTitle(title));
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title, Long after, int limit) {
+        return time(findByTitlePage, findByTitlePageResults, () -> delegate.findByTitle(title, after, limit));
+    }
+
+    @Override
+    public FacetedBooks findByFacets(BookFilter filter, Long after, int limit) {
+        return time(findByFacets, () -> delegate.findByFacets(filter, after, limit));
+    }
+
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return time(getByIsbn, () -> delegate.getByIsbn(isbn));
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        return time(getByAuthor, () -> delegate.getByAuthor(id));
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        return time(findByAuthor, () -> delegate.findByAuthor(id, title));
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        time(delete, () -> {
+            delegate.delete(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        return time(addAuthor, () -> delegate.addAuthor(bookId, authorId));
+    }
+
+    @Override
+    public Book get(Long id) throws EntityNotFoundException {
+        return time(get, () -> delegate.get(id));
+    }
+
+    @Override
+    public Lookup<Book, Long> getAll(Collection<Long> ids) {
+        return time(getAll, () -> delegate.getAll(ids));
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return time(exists, () -> delegate.exists(id));
+    }
+
+    @Override
+    public Collection<Book> list() {
+        return time(list, listResults, delegate::list);
+    }
+
+    @Override
+    public Collection<Book> list(Long after, int limit) {
+        return time(listPage, listPageResults, () -> delegate.list(after, limit));
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException, ConcurrentUpdateException {
+        // two checked exceptions, which a Call cannot throw
+        long start = System.nanoTime();
+        try {
+            return delegate.update(book);
+        } finally {
+            update.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
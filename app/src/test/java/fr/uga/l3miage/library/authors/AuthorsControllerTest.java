@@ -0,0 +1,62 @@
+package fr.uga.l3miage.library.authors;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.etag.EntityTags;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * An update which loses the race with another one, the version check of the service failing after the controller read
+ * the current version.
+ */
+class AuthorsControllerTest {
+
+    private final AuthorService authorService = mock(AuthorService.class);
+    private final AuthorsController controller = new AuthorsController(authorService, new AuthorMapperImpl(), null, null);
+    private final Author current = new Author();
+
+    @BeforeEach
+    void lostRace() throws Exception {
+        current.setId(1L);
+        current.setFullName("Victor Hugo");
+        when(authorService.get(1L)).thenReturn(current);
+        when(authorService.update(any())).thenThrow(new ConcurrentUpdateException("Author 1 was updated"));
+    }
+
+    @Test
+    void lostRaceWithoutIfMatchIsConflict() {
+        assertThatThrownBy(() -> controller.updateAuthor(new AuthorDTO(1L, "V. Hugo"), 1L, request(null)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    @Test
+    void lostRaceWithIfMatchIsPreconditionFailed() {
+        assertThatThrownBy(() -> controller.updateAuthor(new AuthorDTO(1L, "V. Hugo"), 1L,
+                request(EntityTags.author(current))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED));
+    }
+
+    private static ServletWebRequest request(String ifMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/authors/1");
+        if (ifMatch != null) {
+            request.addHeader(HttpHeaders.IF_MATCH, ifMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
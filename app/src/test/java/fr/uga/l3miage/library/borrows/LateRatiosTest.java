@@ -0,0 +1,158 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.BorrowEvent;
+import fr.uga.l3miage.library.service.BorrowService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Feeds the events a {@link BorrowService} publishes, in the same order, for histories of borrows kept in the test.
+ */
+class LateRatiosTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final int BORROWERS = 5;
+
+    private final LateRatios lateRatios = new LateRatios(mock(BorrowService.class));
+
+    @Test
+    void noBorrowIsNoLateness() {
+        assertThat(lateRatios.get(1L)).isEqualTo(new LateRatios.Counts(0, 0, 0));
+        assertThat(lateRatios.get(1L).lateRatio()).isZero();
+    }
+
+    @Test
+    void overdueBorrowIsCountedLateOnce() {
+        History history = new History();
+        Date now = new Date();
+        Borrow late = history.borrow(1L, new Date(now.getTime() - DAY));
+        Borrow onTime = history.borrow(1L, new Date(now.getTime() + DAY));
+        Borrow returnedLate = history.borrow(1L, new Date(now.getTime() - DAY));
+
+        history.flagOverdue(now);
+        history.flagOverdue(now);
+        history.giveBack(late);
+        history.giveBack(onTime);
+
+        assertThat(lateRatios.get(1L)).isEqualTo(new LateRatios.Counts(3, 1, 2));
+        assertThat(lateRatios.get(1L).lateRatio()).isEqualTo(2f / 3);
+        history.giveBack(returnedLate);
+        assertThat(lateRatios.get(1L)).isEqualTo(new LateRatios.Counts(3, 1, 2));
+    }
+
+    @Test
+    void returnAfterTheEndIsLateEvenIfNeverFlagged() {
+        History history = new History();
+        history.giveBack(history.borrow(1L, new Date(System.currentTimeMillis() - DAY)));
+
+        assertThat(lateRatios.get(1L)).isEqualTo(new LateRatios.Counts(1, 0, 1));
+    }
+
+    @Test
+    void incrementalCountsEqualAFullRecompute() throws Exception {
+        int threads = 4;
+        List<History> histories = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> librarians = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                History history = new History();
+                histories.add(history);
+                Random random = new Random(t);
+                librarians.add(executor.submit(() -> history.play(random, 2_000)));
+            }
+            for (Future<?> done : librarians) {
+                done.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Date now = new Date();
+        histories.forEach(history -> history.flagOverdue(now));
+        for (long borrower = 0; borrower < BORROWERS; borrower++) {
+            List<Borrow> borrows = new ArrayList<>();
+            for (History history : histories) {
+                for (Borrow borrow : history.borrows) {
+                    if (borrow.getBorrower().getId() == borrower) {
+                        borrows.add(borrow);
+                    }
+                }
+            }
+            LateRatios.Counts expected = LateRatios.recompute(borrows, now);
+            assertThat(expected.onTime()).isPositive();
+            assertThat(expected.late()).isPositive();
+            assertThat(lateRatios.get(borrower)).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * Borrows of one librarian, with the events their service would publish
+     */
+    private class History {
+        final List<Borrow> borrows = new ArrayList<>();
+        final List<Borrow> out = new ArrayList<>();
+        long nextId;
+
+        Borrow borrow(Long borrowerId, Date end) {
+            Borrower borrower = new Borrower();
+            borrower.setId(borrowerId);
+            Borrow borrow = new Borrow();
+            borrow.setId(nextId++);
+            borrow.setBorrower(borrower);
+            borrow.setStart(new Date());
+            borrow.setEnd(end);
+            borrows.add(borrow);
+            out.add(borrow);
+            lateRatios.on(new BorrowEvent(BorrowEvent.Type.CREATED, borrow.getId(), borrowerId, end, null, false));
+            return borrow;
+        }
+
+        void giveBack(Borrow borrow) {
+            out.remove(borrow);
+            borrow.setReturned(new Date());
+            lateRatios.on(new BorrowEvent(BorrowEvent.Type.RETURNED, borrow.getId(), borrow.getBorrower().getId(),
+                    borrow.getEnd(), borrow.getReturned(), borrow.isOverdue()));
+        }
+
+        void flagOverdue(Date now) {
+            for (Borrow borrow : out) {
+                if (!borrow.isOverdue() && borrow.getEnd().before(now)) {
+                    borrow.setOverdue(true);
+                    lateRatios.on(new BorrowEvent(BorrowEvent.Type.OVERDUE, borrow.getId(), borrow.getBorrower().getId(),
+                            borrow.getEnd(), null, true));
+                }
+            }
+        }
+
+        /**
+         * Borrows due yesterday or tomorrow, some given back, with overdue checks in between
+         */
+        Void play(Random random, int count) {
+            for (int i = 0; i < count; i++) {
+                long borrower = random.nextInt(BORROWERS);
+                borrow(borrower, new Date(System.currentTimeMillis() + (random.nextBoolean() ? DAY : -DAY)));
+                if (random.nextInt(3) == 0) {
+                    giveBack(out.get(random.nextInt(out.size())));
+                }
+                if (random.nextInt(10) == 0) {
+                    flagOverdue(new Date());
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingServicesTest {
+
+    private AuthorService authors;
+    private BookService books;
+    private EntityCaches caches;
+    private CachingAuthorService cachingAuthors;
+    private CachingBookService cachingBooks;
+
+    private Author author;
+    private Book book;
+
+    @BeforeEach
+    void setup() throws EntityNotFoundException {
+        authors = mock(AuthorService.class);
+        books = mock(BookService.class);
+        caches = new EntityCaches(100);
+        cachingAuthors = new CachingAuthorService(authors, caches);
+        cachingBooks = new CachingBookService(books, caches);
+
+        author = new Author();
+        author.setId(1L);
+        author.setFullName("Ursula K. Le Guin");
+        book = new Book();
+        book.setId(10L);
+        book.setTitle("The Dispossessed");
+        book.addAuthor(author);
+        author.addBook(book);
+
+        when(authors.get(1L)).thenReturn(author);
+        when(books.get(10L)).thenReturn(book);
+    }
+
+    @Test
+    void getIsReadThrough() throws EntityNotFoundException {
+        assertThat(cachingAuthors.get(1L)).isSameAs(author);
+        assertThat(cachingAuthors.get(1L)).isSameAs(author);
+
+        verify(authors, times(1)).get(1L);
+        assertThat(caches.authors().stats().hitCount()).isEqualTo(1);
+        assertThat(caches.authors().stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void notFoundIsNotCached() throws EntityNotFoundException {
+        when(authors.get(2L)).thenThrow(new EntityNotFoundException("not found"));
+
+        assertThatThrownBy(() -> cachingAuthors.get(2L)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> cachingAuthors.get(2L)).isInstanceOf(EntityNotFoundException.class);
+
+        verify(authors, times(2)).get(2L);
+    }
+
+    @Test
+    void updateInvalidates() throws EntityNotFoundException, ConcurrentUpdateException {
+        when(authors.update(any())).thenReturn(author);
+        cachingAuthors.get(1L);
+
+        cachingAuthors.update(author);
+        cachingAuthors.get(1L);
+
+        verify(authors, times(2)).get(1L);
+    }
+
+    @Test
+    void bookWritesInvalidateTheirAuthors() throws EntityNotFoundException {
+        when(books.save(any(), any())).thenReturn(book);
+        when(books.addAuthor(10L, 1L)).thenReturn(book);
+
+        cachingAuthors.get(1L);
+        cachingBooks.save(1L, book);
+        cachingAuthors.get(1L);
+        cachingBooks.addAuthor(10L, 1L);
+        cachingAuthors.get(1L);
+        cachingBooks.delete(10L);
+        cachingAuthors.get(1L);
+
+        verify(authors, times(4)).get(1L);
+    }
+
+    @Test
+    void authorDeleteInvalidatesItsBooks() throws Exception {
+        cachingBooks.get(10L);
+
+        cachingAuthors.delete(1L);
+        cachingBooks.get(10L);
+
+        verify(books, times(2)).get(10L);
+    }
+
+    @Test
+    void pagesAreInvalidatedByAnyWrite() {
+        when(authors.list(null, 10)).thenReturn(List.of(author));
+        when(authors.save(any())).thenReturn(author);
+
+        cachingAuthors.list(null, 10);
+        cachingAuthors.list(null, 10);
+        cachingAuthors.save(new Author());
+        cachingAuthors.list(null, 10);
+
+        verify(authors, times(2)).list(null, 10);
+    }
+
+    @Test
+    void identicalSearchesAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(books.findByTitle(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(book);
+        });
+        SearchCache<Book> searches = caches.books().searches();
+        int requests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<Collection<Book>>> found = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                String title = i % 2 == 0 ? "dispossessed" : "DISPOSSESSED";
+                found.add(executor.submit(() -> cachingBooks.findByTitle(title)));
+            }
+            // every request but the first one waits for its search
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (searches.coalesced() < requests - 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<Collection<Book>> result : found) {
+                assertThat(result.get()).containsExactly(book);
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        verify(books, times(1)).findByTitle(anyString());
+        assertThat(searches.misses()).isEqualTo(1);
+        assertThat(searches.coalesced()).isEqualTo(requests - 1);
+
+        cachingBooks.findByTitle("Dispossessed");
+        assertThat(searches.hits()).isEqualTo(1);
+        verify(books, times(1)).findByTitle(anyString());
+    }
+
+    @Test
+    void searchesAreInvalidatedByAnyWrite() throws Exception {
+        when(books.findByTitle(anyString())).thenReturn(List.of(book));
+        when(books.addAuthor(10L, 1L)).thenReturn(book);
+
+        cachingBooks.findByTitle("dispossessed");
+        cachingBooks.findByTitle("dispossessed");
+        cachingBooks.addAuthor(10L, 1L);
+        cachingBooks.findByTitle("dispossessed");
+
+        verify(books, times(2)).findByTitle("dispossessed");
+    }
+
+    @Test
+    void searchesWaitingThroughAWriteRunAgain() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(books.findByTitle(anyString())).thenAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                started.countDown();
+                release.await();
+                return List.of(book);
+            }
+            return List.of();
+        });
+        when(books.addAuthor(10L, 1L)).thenReturn(book);
+        SearchCache<Book> searches = caches.books().searches();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Collection<Book>> first = executor.submit(() -> cachingBooks.findByTitle("dispossessed"));
+            started.await();
+            Future<Collection<Book>> waiting = executor.submit(() -> cachingBooks.findByTitle("dispossessed"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (searches.coalesced() < 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            cachingBooks.addAuthor(10L, 1L);
+            release.countDown();
+
+            assertThat(first.get()).containsExactly(book);
+            assertThat(waiting.get()).isEmpty();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        verify(books, times(2)).findByTitle(anyString());
+    }
+
+    @Test
+    void slowSearchesAreNotWaitedForForever() throws Exception {
+        caches = new EntityCaches(100, Duration.ofSeconds(5), Duration.ofMillis(50));
+        cachingBooks = new CachingBookService(books, caches);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(books.findByTitle(anyString())).thenAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                release.await();
+            }
+            return List.of(book);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Collection<Book>> stuck = executor.submit(() -> cachingBooks.findByTitle("dispossessed"));
+            while (calls.get() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThat(cachingBooks.findByTitle("dispossessed")).containsExactly(book);
+            assertThat(caches.books().searches().coalesced()).isEqualTo(1);
+            assertThat(stuck).isNotDone();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cachedSearchesCannotBeChanged() {
+        when(books.findByTitle(anyString())).thenReturn(new ArrayList<>(List.of(book)));
+
+        Collection<Book> found = cachingBooks.findByTitle("dispossessed");
+        assertThatThrownBy(() -> found.clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(cachingBooks.findByTitle("dispossessed")).containsExactly(book);
+    }
+
+    @Test
+    void sizeIsBounded() throws EntityNotFoundException {
+        for (long id = 100; id < 1_000; id++) {
+            Author other = new Author();
+            other.setId(id);
+            when(authors.get(id)).thenReturn(other);
+            cachingAuthors.get(id);
+        }
+        caches.authors().cleanUp();
+
+        assertThat(caches.authors().size()).isLessThanOrEqualTo(100);
+        assertThat(caches.authors().stats().evictionCount()).isPositive();
+    }
+}
@@ -0,0 +1,48 @@
+package fr.uga.l3miage.library.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.authors.AuthorMapperImpl;
+import fr.uga.l3miage.library.books.BooksMapperImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityJsonModuleTest {
+
+    private final ObjectMapper dtoMapper = new ObjectMapper();
+    private final ObjectMapper entityMapper = new ObjectMapper().registerModule(new EntityJsonModule());
+
+    @Test
+    void booksAreWrittenLikeTheirDTOs() throws Exception {
+        Author author = new Author();
+        author.setId(3L);
+        author.setFullName("Italo \"Calvino\"");
+        Book book = new Book();
+        book.setId(7L);
+        book.setTitle("Se una notte d'inverno un viaggiatore");
+        book.setIsbn(9788804668237L);
+        book.setPublisher("Einaudi");
+        book.setYear((short) 1979);
+        book.setLanguage(Book.Language.FRENCH);
+        book.addAuthor(author);
+        Book empty = new Book();
+
+        var mapper = new BooksMapperImpl();
+        assertThat(entityMapper.writeValueAsString(List.of(book, empty)))
+                .isEqualTo(dtoMapper.writeValueAsString(List.of(mapper.entityToDTO(book), mapper.entityToDTO(empty))));
+    }
+
+    @Test
+    void authorsAreWrittenLikeTheirDTOs() throws Exception {
+        Author author = new Author();
+        author.setId(3L);
+        author.setFullName("Italo Calvino");
+
+        assertThat(entityMapper.writeValueAsString(author))
+                .isEqualTo(dtoMapper.writeValueAsString(new AuthorMapperImpl().entityToDTO(author)));
+    }
+}
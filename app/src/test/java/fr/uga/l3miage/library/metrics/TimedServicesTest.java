@@ -0,0 +1,91 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimedServicesTest {
+
+    private SimpleMeterRegistry registry;
+    private AuthorService authors;
+    private BookService books;
+    private TimedAuthorService timedAuthors;
+    private TimedBookService timedBooks;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        authors = mock(AuthorService.class);
+        books = mock(BookService.class);
+        timedAuthors = new TimedAuthorService(authors, registry);
+        timedBooks = new TimedBookService(books, registry);
+    }
+
+    @Test
+    void callsAreTimedByMethod() throws EntityNotFoundException {
+        Book book = new Book();
+        when(books.get(1L)).thenReturn(book);
+
+        assertThat(timedBooks.get(1L)).isSameAs(book);
+        timedBooks.get(1L);
+
+        assertThat(registry.get(ServiceMeters.TIMER).tags("service", "books", "method", "get").timer().count())
+                .isEqualTo(2);
+        assertThat(registry.get(ServiceMeters.TIMER).tags("service", "books", "method", "exists").timer().count())
+                .isZero();
+    }
+
+    @Test
+    void searchesRecordTheirResultSizes() {
+        when(books.findByTitle("dune")).thenReturn(List.of(new Book(), new Book(), new Book()));
+        when(authors.searchByName("le guin")).thenReturn(List.of());
+
+        timedBooks.findByTitle("dune");
+        timedAuthors.searchByName("le guin");
+
+        var bookResults = registry.get(ServiceMeters.RESULTS).tags("service", "books", "method", "findByTitle")
+                .summary();
+        assertThat(bookResults.count()).isEqualTo(1);
+        assertThat(bookResults.totalAmount()).isEqualTo(3);
+        var authorResults = registry.get(ServiceMeters.RESULTS).tags("service", "authors", "method", "searchByName")
+                .summary();
+        assertThat(authorResults.count()).isEqualTo(1);
+        assertThat(authorResults.totalAmount()).isZero();
+    }
+
+    @Test
+    void failedCallsAreTimedToo() throws Exception {
+        doThrow(new DeleteAuthorException("co-authored")).when(authors).delete(1L);
+        when(authors.get(2L)).thenThrow(new EntityNotFoundException("missing"));
+
+        assertThatThrownBy(() -> timedAuthors.delete(1L)).isInstanceOf(DeleteAuthorException.class);
+        assertThatThrownBy(() -> timedAuthors.get(2L)).isInstanceOf(EntityNotFoundException.class);
+
+        assertThat(registry.get(ServiceMeters.TIMER).tags("service", "authors", "method", "delete").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get(ServiceMeters.TIMER).tags("service", "authors", "method", "get").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void savesReturnWhatTheServiceReturns() {
+        Author author = new Author();
+        when(authors.save(author)).thenReturn(author);
+
+        assertThat(timedAuthors.save(author)).isSameAs(author);
+    }
+}
@@ -3,17 +3,28 @@ package library;
 import fr.uga.l3miage.library.LibraryApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
 
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class)
+@AutoConfigureObservability
 class DemoApplicationTests {
 
     @SuppressWarnings("java:S2699")
@@ -22,6 +33,10 @@ class DemoApplicationTests {
 
     }
 
+    /** the JSON objects of the responses, typed so that they need no unchecked cast */
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {
+    };
+
     @Autowired
     private TestRestTemplate restTemplate;
 
@@ -39,7 +54,187 @@ class DemoApplicationTests {
 
     @Test
     void authorsResponse() {
-        var list = this.restTemplate.getForObject("/api/v1/authors", List.class);
+        var list = this.restTemplate.getForObject("/api/v1/authors", Object[].class);
         assertThat(list).isNotEmpty();
     }
+
+    @Test
+    void borrowResponses() {
+        var borrower = postJson("/api/v1/borrowers", Map.of("firstName", "Jane", "lastName", "Doe")).getBody();
+        var librarian = postJson("/api/v1/librarians", Map.of("firstName", "John", "lastName", "Smith")).getBody();
+        var borrow = Map.of("borrower", borrower.get("id"), "librarian", librarian.get("id"), "books", List.of(-1),
+                "end", new Date(System.currentTimeMillis() + 3600_000));
+
+        ResponseEntity<Map<String, Object>> created = postJson("/api/v1/borrows", borrow);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(this.restTemplate.postForEntity("/api/v1/borrows", borrow, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+
+        String giveBack = "/api/v1/borrows/" + created.getBody().get("id") + "/return";
+        assertThat(this.restTemplate.exchange(giveBack, HttpMethod.PUT, null, JSON_OBJECT).getBody())
+                .containsKey("returned");
+        assertThat(this.restTemplate.postForEntity("/api/v1/borrows", borrow, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void prometheusResponse() {
+        this.restTemplate.getForObject("/api/v1/authors", String.class);
+
+        String metrics = this.restTemplate.getForObject("/actuator/prometheus", String.class);
+        assertThat(metrics)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/v1/authors\"")
+                .contains("library_service_seconds_count{method=\"list\",service=\"authors\",}")
+                .contains("cache_gets_total{cache=\"authors\"")
+                .contains("library_search_total{cache=\"books\",result=\"coalesced\",}");
+    }
+
+    @Test
+    void booksById() {
+        Map<String, Object> lookup = getJson("/api/v1/books?ids=-1,987654321,-1").getBody();
+        assertThat((List<?>) lookup.get("found")).singleElement()
+                .satisfies(book -> assertThat(((Map<?, ?>) book).get("id")).isEqualTo(-1));
+        assertThat(lookup.get("missing")).isEqualTo(List.of(987654321));
+    }
+
+    @Test
+    void facetedBooks() {
+        Map<String, Object> found = getJson(
+                "/api/v1/books?publisher=Dunod&language=english&fromYear=2020&toYear=2029&limit=10").getBody();
+        assertThat((List<?>) found.get("books"))
+                .anySatisfy(book -> assertThat(((Map<?, ?>) book).get("id")).isEqualTo(-1));
+        assertThat(found.get("languages")).asInstanceOf(MAP).containsKey("english");
+        assertThat(found.get("decades")).asInstanceOf(MAP).containsKey("2020");
+        assertThat(found.get("publishers")).asInstanceOf(MAP).containsKey("Dunod");
+
+        Map<String, Object> none = getJson("/api/v1/books?publisher=Dunod&fromYear=1900&toYear=1909").getBody();
+        assertThat((List<?>) none.get("books")).isEmpty();
+        assertThat(none.get("total")).isEqualTo(0);
+        assertThat(none.get("decades")).asInstanceOf(MAP).containsKey("2020");
+
+        assertThat(this.restTemplate.getForEntity("/api/v1/books?language=klingon", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+
+        // facets=true alone asks for the counts, facets=false is the plain list
+        assertThat(getJson("/api/v1/books?facets=true&limit=1").getBody()).containsKey("total");
+        assertThat(this.restTemplate.getForObject("/api/v1/books?facets=false", Object[].class)).isNotEmpty();
+    }
+
+    @Test
+    void booksByIsbn() {
+        Map<String, Object> book = getJson("/api/v1/books/isbn/2145673168735453").getBody();
+        assertThat(book.get("id")).isEqualTo(-1);
+        assertThat(this.restTemplate.getForEntity("/api/v1/books/isbn/1234567890", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+
+        Map<String, Object> duplicate = Map.of("title", "The Art of JPA, again", "isbn", 2145673168735453L,
+                "publisher", "Dunod", "year", 2024, "language", "english");
+        assertThat(this.restTemplate.postForEntity("/api/v1/authors/-1/books", duplicate, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void coAuthoredAuthorIsNotDeleted() {
+        Map<String, Object> author = postJson("/api/v1/authors", Map.of("fullName", "Terry Pratchett")).getBody();
+        Map<String, Object> coAuthor = postJson("/api/v1/authors", Map.of("fullName", "Neil Gaiman")).getBody();
+        Map<String, Object> book = postJson("/api/v1/authors/" + author.get("id") + "/books",
+                Map.of("title", "Good Omens", "isbn", 9780575048003L, "publisher", "Gollancz", "year", 1990,
+                        "language", "english")).getBody();
+        String bookUrl = "/api/v1/books/" + book.get("id");
+        this.restTemplate.put(bookUrl + "/authors", Map.of("id", coAuthor.get("id")));
+
+        assertThat(delete("/api/v1/authors/" + coAuthor.get("id"))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(getJson(bookUrl).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(this.restTemplate.getForObject("/api/v1/authors/" + author.get("id") + "/books", Object[].class)).hasSize(1);
+
+        assertThat(delete(bookUrl)).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(delete("/api/v1/authors/" + coAuthor.get("id"))).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(delete("/api/v1/authors/" + author.get("id"))).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+    @Test
+    void conditionalRequests() {
+        ResponseEntity<Map<String, Object>> book = getJson("/api/v1/books/-1");
+        String bookTag = book.getHeaders().getETag();
+        assertThat(bookTag).startsWith("\"");
+        assertThat(ifNoneMatch("/api/v1/books/-1", bookTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        String books = this.restTemplate.getForEntity("/api/v1/books", String.class).getHeaders().getETag();
+        assertThat(books).startsWith("W/");
+        assertThat(ifNoneMatch("/api/v1/books", books).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        // renaming an author of the book changes the tags of the book and of the lists
+        Map<?, ?> author = (Map<?, ?>) ((List<?>) book.getBody().get("authors")).get(0);
+        String authorUrl = "/api/v1/authors/" + author.get("id");
+        String authorTag = this.restTemplate.getForEntity(authorUrl, String.class).getHeaders().getETag();
+        assertThat(ifNoneMatch(authorUrl, authorTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        String renamedTag = ifMatch(authorUrl, authorTag,
+                Map.of("id", author.get("id"), "fullName", author.get("fullName") + " Jr.")).getHeaders().getETag();
+
+        assertThat(ifNoneMatch(authorUrl, authorTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ifNoneMatch("/api/v1/books/-1", bookTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ifNoneMatch("/api/v1/books", books).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ifMatch(authorUrl, renamedTag, author).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void conditionalUpdates() {
+        ResponseEntity<Map<String, Object>> book = getJson("/api/v1/books/-1");
+        String tag = book.getHeaders().getETag();
+        Map<String, Object> changed = new HashMap<>(book.getBody());
+        changed.put("title", book.getBody().get("title") + " (2nd edition)");
+
+        // a body which is not the resource of the url, whatever the preconditions
+        Map<String, Object> other = new HashMap<>(changed);
+        other.put("id", -2);
+        assertThat(this.restTemplate.exchange("/api/v1/books/-1", HttpMethod.PUT, new HttpEntity<>(other), JSON_OBJECT)
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(ifMatch("/api/v1/books/-1", tag, other).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        // the book was changed since the version the client holds
+        assertThat(ifMatch("/api/v1/books/-1", "\"b-1-0\"", changed).getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        // without If-Match, the update is made over the current version
+        ResponseEntity<Map<String, Object>> updated = this.restTemplate.exchange("/api/v1/books/-1", HttpMethod.PUT,
+                new HttpEntity<>(changed), JSON_OBJECT);
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updated.getBody().get("title")).isEqualTo(changed.get("title"));
+        assertThat(updated.getHeaders().getETag()).isNotEqualTo(tag);
+        // a second client holding the first version loses
+        assertThat(ifMatch("/api/v1/books/-1", tag, book.getBody()).getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        assertThat(ifMatch("/api/v1/books/-1", updated.getHeaders().getETag(), book.getBody()).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<Map<String, Object>> author = getJson("/api/v1/authors/-1");
+        assertThat(this.restTemplate.exchange("/api/v1/authors/-1", HttpMethod.PUT, new HttpEntity<>(author.getBody()),
+                JSON_OBJECT).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private HttpStatusCode delete(String url) {
+        return this.restTemplate.exchange(url, HttpMethod.DELETE, null, Void.class).getStatusCode();
+    }
+
+    private ResponseEntity<String> ifNoneMatch(String url, String tag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(tag);
+        return this.restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<Map<String, Object>> getJson(String url) {
+        return this.restTemplate.exchange(url, HttpMethod.GET, null, JSON_OBJECT);
+    }
+
+    private ResponseEntity<Map<String, Object>> postJson(String url, Object body) {
+        return this.restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body), JSON_OBJECT);
+    }
+
+    private ResponseEntity<Map<String, Object>> ifMatch(String url, String tag, Map<?, ?> body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(tag);
+        return this.restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(body, headers), JSON_OBJECT);
+    }
 }
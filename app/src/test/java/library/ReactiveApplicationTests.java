@@ -0,0 +1,90 @@
+package library;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.Paging;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class)
+@ActiveProfiles("reactive")
+class ReactiveApplicationTests {
+
+    /** the JSON objects of the responses, typed so that they need no unchecked cast */
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {
+    };
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void authorsResponse() {
+        var list = client.get().uri("/api/v1/authors")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Object[].class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(list).isNotEmpty();
+    }
+
+    @Test
+    void booksAreStreamedAsNdjson() {
+        var books = client.get().uri("/api/v1/books")
+                .accept(MediaType.parseMediaType(Paging.NDJSON))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType(Paging.NDJSON))
+                .returnResult(JSON_OBJECT)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertThat(books).isNotEmpty().allSatisfy(book -> assertThat(book).containsKeys("id", "title", "authors"));
+    }
+
+    @Test
+    void updatesAreConditionedByTheVersionRead() {
+        var author = client.get().uri("/api/v1/authors/{id}", -1)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(JSON_OBJECT);
+        String tag = author.getResponseHeaders().getETag();
+        Map<String, Object> body = author.getResponseBody().blockFirst();
+
+        client.put().uri("/api/v1/authors/{id}", -1).bodyValue(Map.of("id", -2, "fullName", "Nobody"))
+                .header(HttpHeaders.IF_MATCH, tag)
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.put().uri("/api/v1/authors/{id}", -1).bodyValue(body).header(HttpHeaders.IF_MATCH, "\"a-1-12345\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        String renamed = client.put().uri("/api/v1/authors/{id}", -1)
+                .bodyValue(Map.of("id", -1, "fullName", body.get("fullName") + " Jr.")).header(HttpHeaders.IF_MATCH, tag)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(JSON_OBJECT).getResponseHeaders().getETag();
+        assertThat(renamed).isNotEqualTo(tag);
+        // without If-Match, the update is made over the current version
+        client.put().uri("/api/v1/authors/{id}", -1).bodyValue(body)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void unknownAuthorIsNotFound() {
+        client.get().uri("/api/v1/authors/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,86 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single author lookup as done by {@code GET /authors/{id}}, before ({@code getThenContains}, which scanned the whole
+ * author list) and after ({@code get}), and the existence check now used by the other controller paths.
+ * <p>
+ * Each size runs in its own fork since the mock store is static.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class AuthorLookupBenchmark {
+
+    private static final int LOOKUPS = 1 << 12;
+
+    @Param({"1000", "10000", "100000"})
+    int size;
+
+    private final AuthorService authorService = new AuthorServiceMockImpl();
+    private final long[] ids = new long[LOOKUPS];
+    private int next;
+
+    @Setup
+    public void setup() {
+        List<Author> authors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Author author = new Author();
+            author.setFullName("Author " + i);
+            authors.add(author);
+        }
+        authorService.saveAll(authors);
+
+        Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = authors.get(random.nextInt(size)).getId();
+        }
+    }
+
+    private long nextId() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return ids[next];
+    }
+
+    @Benchmark
+    public Author getThenContains() throws EntityNotFoundException {
+        Author author = authorService.get(nextId());
+        if (!authorService.list().contains(author)) {
+            throw new IllegalStateException();
+        }
+        return author;
+    }
+
+    @Benchmark
+    public Author get() throws EntityNotFoundException {
+        return authorService.get(nextId());
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return authorService.exists(nextId());
+    }
+}
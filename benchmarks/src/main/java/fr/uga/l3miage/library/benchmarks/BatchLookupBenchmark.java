@@ -0,0 +1,110 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A reading list of {@code count} books fetched over HTTP, one {@code GET /books/{id}} per book as the clients did
+ * ({@code oneRequestPerBook}), or a single {@code GET /books?ids=...} ({@code oneRequestForAll}).
+ * <p>
+ * The app is started in this JVM with the entity cache disabled, and {@link SimulatedLatency} delays every book service
+ * call by {@code latency} milliseconds, standing for a round trip to the database. Scores are per reading list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class BatchLookupBenchmark {
+
+    private static final int BOOKS = 10_000;
+
+    @Param({"10", "50"})
+    int count;
+
+    @Param({"0", "1"})
+    long latency;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private List<HttpRequest> oneByOne;
+    private HttpRequest batch;
+
+    @Setup
+    public void setup() throws EntityNotFoundException {
+        context = new SpringApplicationBuilder(LibraryApplication.class, SimulatedLatency.class)
+                .properties(
+                        "server.port=0",
+                        "library.cache.enabled=false",
+                        "loadtest.latency-ms=" + latency,
+                        "logging.level.root=WARN")
+                .run();
+        Catalogue catalogue = Catalogue.generate(BOOKS);
+        context.getBean(AuthorService.class).saveAll(catalogue.authors);
+        context.getBean(BookService.class).saveAll(catalogue.books);
+
+        Random random = new Random(42);
+        List<Long> ids = IntStream.range(0, count)
+                .mapToObj(i -> catalogue.books.get(random.nextInt(BOOKS)))
+                .map(Book::getId)
+                .toList();
+        String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                + "/api/v1/books";
+        oneByOne = ids.stream()
+                .map(id -> HttpRequest.newBuilder(URI.create(base + "/" + id)).GET().build())
+                .toList();
+        String joined = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        batch = HttpRequest.newBuilder(URI.create(base + "?ids=" + joined)).GET().build();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public long oneRequestPerBook() throws IOException, InterruptedException {
+        long bytes = 0;
+        for (HttpRequest request : oneByOne) {
+            bytes += client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long oneRequestForAll() throws IOException, InterruptedException {
+        return client.send(batch, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
@@ -0,0 +1,32 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the JMH command line, writing results as JSON to {@code jmh-result.json}
+ * unless another result format or file is given, so that runs of different versions can be compared.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+        // to hide the public one
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>();
+        Collections.addAll(options, args);
+        if (!options.contains("-rf")) {
+            options.add(0, "json");
+            options.add(0, "-rf");
+        }
+        if (!options.contains("-rff")) {
+            options.add(0, "jmh-result.json");
+            options.add(0, "-rff");
+        }
+        Main.main(options.toArray(String[]::new));
+    }
+}
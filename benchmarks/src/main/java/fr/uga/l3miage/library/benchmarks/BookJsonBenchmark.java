@@ -0,0 +1,75 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.books.BooksMapperImpl;
+import fr.uga.l3miage.library.json.EntityJsonModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a page of books as the list endpoints do, through the MapStruct DTOs or straight from the entities.
+ * <p>
+ * Scores are per book. Run with {@code -prof gc} and read {@code gc.alloc.rate.norm} for the bytes allocated per book.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookJsonBenchmark {
+
+    private static final int PAGE = 1000;
+
+    private final BooksMapper booksMapper = new BooksMapperImpl();
+    private final ObjectMapper dtoMapper = new ObjectMapper();
+    private final ObjectMapper entityMapper = new ObjectMapper().registerModule(new EntityJsonModule());
+    private List<Book> books;
+    private JsonGenerator dtoGenerator;
+    private JsonGenerator entityGenerator;
+
+    @Setup
+    public void setup() throws IOException {
+        books = Catalogue.generate(PAGE).books;
+        dtoGenerator = dtoMapper.createGenerator(OutputStream.nullOutputStream());
+        entityGenerator = entityMapper.createGenerator(OutputStream.nullOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dtoGenerator.close();
+        entityGenerator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public void mapstruct() throws IOException {
+        dtoGenerator.writeObject(books.stream().map(booksMapper::entityToDTO).toList());
+        dtoGenerator.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public void direct() throws IOException {
+        entityGenerator.writeObject(books);
+        entityGenerator.flush();
+    }
+}
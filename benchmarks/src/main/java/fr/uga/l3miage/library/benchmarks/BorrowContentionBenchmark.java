@@ -0,0 +1,128 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.LibrarianService;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BorrowServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BorrowerServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.LibrarianServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.MockRepositories;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many librarians issuing borrows of a few books at once, each borrow being given back right away, with the per-book
+ * claims of the mock service ({@code perBook}) or the same calls serialized behind a single lock ({@code globalLock}).
+ * <p>
+ * {@code books} sets the contention: with 64 books, borrows of 3 books often overlap. {@code conflicts} counts the
+ * borrows refused because a book was out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(8)
+public class BorrowContentionBenchmark {
+
+    private static final int BOOKS_PER_BORROW = 3;
+
+    @Param({"64", "10000"})
+    int books;
+
+    private final AuthorService authorService = new AuthorServiceMockImpl();
+    private final BookService bookService = new BookServiceMockImpl(authorService);
+    private final BorrowerService borrowerService = new BorrowerServiceMockImpl(MockRepositories.borrowers());
+    private final LibrarianService librarianService = new LibrarianServiceMockImpl(MockRepositories.librarians());
+    private final BorrowService borrowService =
+            new BorrowServiceMockImpl(borrowerService, librarianService, bookService, event -> { });
+    private final Object globalLock = new Object();
+
+    private Catalogue catalogue;
+    private Long borrower;
+    private Long librarian;
+    private Date end;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Setup
+    public void load() throws EntityNotFoundException {
+        catalogue = Catalogue.generate(books);
+        authorService.saveAll(catalogue.authors);
+        bookService.saveAll(catalogue.books);
+        Borrower b = new Borrower();
+        b.setLastName("Borrower");
+        borrower = borrowerService.save(b).getId();
+        Librarian l = new Librarian();
+        l.setLastName("Librarian");
+        librarian = librarianService.save(l).getId();
+        end = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(14));
+    }
+
+    @Benchmark
+    public Borrow perBook(Outcomes outcomes) throws EntityNotFoundException {
+        return borrowAndGiveBack(outcomes);
+    }
+
+    @Benchmark
+    public Borrow globalLock(Outcomes outcomes) throws EntityNotFoundException {
+        synchronized (globalLock) {
+            return borrowAndGiveBack(outcomes);
+        }
+    }
+
+    private Borrow borrowAndGiveBack(Outcomes outcomes) throws EntityNotFoundException {
+        try {
+            Borrow borrow = borrowService.borrow(borrower, librarian, randomBooks(), end);
+            return borrowService.giveBack(borrow.getId());
+        } catch (BookUnavailableException e) {
+            outcomes.conflicts++;
+            return null;
+        }
+    }
+
+    private List<Long> randomBooks() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long[] ids = new Long[BOOKS_PER_BORROW];
+        for (int i = 0; i < BOOKS_PER_BORROW; i++) {
+            ids[i] = catalogue.books.get(random.nextInt(catalogue.books.size())).getId();
+        }
+        return List.of(ids);
+    }
+}
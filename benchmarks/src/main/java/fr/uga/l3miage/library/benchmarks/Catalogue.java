@@ -0,0 +1,81 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic catalogue shared by the benchmarks.
+ * <p>
+ * Titles are made of three words picked from a vocabulary of pseudo-words, so that a single word matches roughly
+ * {@code 3 * size / VOCABULARY} books whatever the catalogue size.
+ */
+final class Catalogue {
+
+    static final int VOCABULARY = 5_000;
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ne", "ru", "sa", "te", "vo", "zi", "pa", "do", "gu", "fe", "bi", "xo", "ya"
+    };
+    private static final String[] PUBLISHERS = {"Dunod", "Pocket", "Gallimard", "Eyrolles", "O'Reilly", "Folio"};
+
+    final List<String> words;
+    final List<Author> authors;
+    final List<Book> books;
+
+    private Catalogue(List<String> words, List<Author> authors, List<Book> books) {
+        this.words = words;
+        this.authors = authors;
+        this.books = books;
+    }
+
+    /**
+     * @param size number of books, authors are created at a ratio of one for ten books
+     * @return a catalogue where every book is bound to one author
+     */
+    static Catalogue generate(int size) {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>(VOCABULARY);
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            int n = i;
+            do {
+                word.append(SYLLABLES[n % SYLLABLES.length]);
+                n /= SYLLABLES.length;
+            } while (n > 0);
+            words.add(word.toString());
+        }
+
+        List<Author> authors = new ArrayList<>(size / 10 + 1);
+        for (int i = 0; i <= size / 10; i++) {
+            Author author = new Author();
+            author.setId((long) i);
+            author.setFullName(capitalize(words.get(random.nextInt(VOCABULARY))) + " " + capitalize(words.get(random.nextInt(VOCABULARY))));
+            authors.add(author);
+        }
+
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Book book = new Book();
+            book.setId((long) i);
+            book.setTitle(capitalize(words.get(random.nextInt(VOCABULARY))) + " "
+                    + words.get(random.nextInt(VOCABULARY)) + " "
+                    + words.get(random.nextInt(VOCABULARY)));
+            book.setIsbn(9_780_000_000_000L + i);
+            book.setPublisher(PUBLISHERS[random.nextInt(PUBLISHERS.length)]);
+            book.setYear((short) (1900 + random.nextInt(125)));
+            book.setLanguage(random.nextBoolean() ? Book.Language.FRENCH : Book.Language.ENGLISH);
+            Author author = authors.get(random.nextInt(authors.size()));
+            book.addAuthor(author);
+            author.addBook(book);
+            books.add(book);
+        }
+        return new Catalogue(words, authors, books);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,86 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.mock.CompactCatalogue;
+import fr.uga.l3miage.library.service.mock.IdMap;
+import fr.uga.l3miage.library.service.mock.NGramIndex;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Retained size per book of the mock store for {@code size} books of the synthetic {@link Catalogue}, with books kept
+ * as objects (the default) or in a {@link CompactCatalogue} (the compact profile), measured with JOL, and of the
+ * {@link NGramIndex} of their titles, which both keep. The authors are left out, they are the same for both.
+ * <pre>
+ * java -Xmx4g -cp benchmarks.jar fr.uga.l3miage.library.benchmarks.CatalogueFootprint 1000000
+ * </pre>
+ */
+public final class CatalogueFootprint {
+
+    private CatalogueFootprint() {
+        // to hide the public one
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Catalogue catalogue = Catalogue.generate(size);
+        List<Author> authors = catalogue.authors;
+
+        List<Set<Book>> booksOfAuthors = authors.stream().map(Author::getBooks).toList();
+        authors.forEach(author -> author.setBooks(null));
+        long bare = GraphLayout.parseInstance(authors).totalSize();
+        for (int i = 0; i < authors.size(); i++) {
+            authors.get(i).setBooks(booksOfAuthors.get(i));
+        }
+
+        // the map of the store, and the association from the authors
+        IdMap<Book> books = new IdMap<>();
+        catalogue.books.forEach(book -> books.put(book.getId(), book));
+        long objects = GraphLayout.parseInstance(authors, books).totalSize() - bare;
+
+        CompactCatalogue compact = new CompactCatalogue(new NoIds(), new ById(authors));
+        catalogue.books.forEach(compact::append);
+        authors.forEach(author -> author.setBooks(compact.booksOf(author.getId())));
+        long columns = GraphLayout.parseInstance(authors, compact).totalSize() - bare;
+
+        NGramIndex titles = new NGramIndex();
+        titles.putAll(catalogue.books, Book::getId, Book::getTitle);
+        long index = GraphLayout.parseInstance(titles).totalSize();
+
+        System.out.printf("%-22s %14s %12s%n", size + " books", "bytes", "bytes/book");
+        report("Book objects", objects, size);
+        report("CompactCatalogue", columns, size);
+        report("Title index", index, size);
+    }
+
+    private static void report(String name, long bytes, int size) {
+        System.out.printf("%-22s %,14d %12.1f%n", name, bytes, (double) bytes / size);
+    }
+
+    // JOL cannot walk lambdas nor records, which are hidden and trusted final classes
+
+    private static final class NoIds implements LongSupplier {
+        @Override
+        public long getAsLong() {
+            throw new UnsupportedOperationException("books are appended with their ids");
+        }
+    }
+
+    private static final class ById implements LongFunction<Author> {
+        private final List<Author> authors;
+
+        ById(List<Author> authors) {
+            this.authors = authors;
+        }
+
+        @Override
+        public Author apply(long id) {
+            return authors.get((int) id);
+        }
+    }
+}
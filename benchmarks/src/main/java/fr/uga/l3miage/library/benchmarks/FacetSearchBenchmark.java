@@ -0,0 +1,72 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.mock.BookFacetIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a faceted search answered by testing every book ({@code scan}, the default of {@code BookService}) with the
+ * bitmap index of the mock store ({@code index}). Both return the first page and the counts per publisher, language and
+ * decade.
+ * <p>
+ * {@code all} filters nothing, {@code one} a publisher, {@code combined} a publisher, a language and a decade.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class FacetSearchBenchmark {
+
+    private static final int PAGE = 100;
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    @Param({"all", "one", "combined"})
+    String filterKind;
+
+    private final Map<Long, Book> books = new HashMap<>();
+    private final BookFacetIndex index = new BookFacetIndex();
+    private BookFilter filter;
+
+    @Setup
+    public void setup() {
+        for (Book book : Catalogue.generate(size).books) {
+            books.put(book.getId(), book);
+            index.put(book);
+        }
+        filter = switch (filterKind) {
+            case "all" -> new BookFilter(null, null, null, null, null);
+            case "one" -> new BookFilter(null, "Dunod", null, null, null);
+            default -> new BookFilter(null, "Dunod", (short) 1990, (short) 1999, Book.Language.FRENCH);
+        };
+    }
+
+    @Benchmark
+    public FacetedBooks scan() {
+        return FacetedBooks.of(books.values(), filter, null, PAGE);
+    }
+
+    @Benchmark
+    public FacetedBooks index() {
+        return index.search(filter, null, null, PAGE, books::get);
+    }
+}
@@ -0,0 +1,80 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.service.mock.IdMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random lookups by id, as {@code get(Long id)} does, in a {@link HashMap}, the {@link ConcurrentSkipListMap} the mock
+ * store used before and the {@link IdMap} it uses now. Ids are looked up as {@code Long}s, like the services get them.
+ * <p>
+ * The heap taken by each map is reported by {@link IdMapFootprint}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class IdMapBenchmark {
+
+    private static final int LOOKUPS = 1 << 12;
+
+    @Param({"10000", "1000000"})
+    int size;
+
+    private final Map<Long, Object> hashMap = new HashMap<>();
+    private final Map<Long, Object> skipList = new ConcurrentSkipListMap<>();
+    private final IdMap<Object> idMap = new IdMap<>();
+    private final Long[] ids = new Long[LOOKUPS];
+    private int next;
+
+    @Setup
+    public void setup() {
+        for (long id = 0; id < size; id++) {
+            Object entity = new Object();
+            hashMap.put(id, entity);
+            skipList.put(id, entity);
+            idMap.put(id, entity);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = (long) random.nextInt(size);
+        }
+    }
+
+    private Long nextId() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return ids[next];
+    }
+
+    @Benchmark
+    public Object hashMap() {
+        return hashMap.get(nextId());
+    }
+
+    @Benchmark
+    public Object skipList() {
+        return skipList.get(nextId());
+    }
+
+    @Benchmark
+    public Object idMap() {
+        return idMap.get(nextId());
+    }
+}
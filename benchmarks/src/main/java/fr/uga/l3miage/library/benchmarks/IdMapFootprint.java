@@ -0,0 +1,49 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.service.mock.IdMap;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Retained size of the id to entity maps for {@code size} entities, the entities themselves excluded, measured with JOL.
+ * <pre>
+ * java -cp benchmarks.jar fr.uga.l3miage.library.benchmarks.IdMapFootprint 1000000
+ * </pre>
+ */
+public final class IdMapFootprint {
+
+    private IdMapFootprint() {
+        // to hide the public one
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Object[] entities = new Object[size];
+        for (int i = 0; i < size; i++) {
+            entities[i] = new Object();
+        }
+        GraphLayout shared = GraphLayout.parseInstance((Object) entities);
+
+        Map<Long, Object> hashMap = new HashMap<>();
+        Map<Long, Object> skipList = new ConcurrentSkipListMap<>();
+        IdMap<Object> idMap = new IdMap<>();
+        for (int i = 0; i < size; i++) {
+            hashMap.put((long) i, entities[i]);
+            skipList.put((long) i, entities[i]);
+            idMap.put(i, entities[i]);
+        }
+
+        System.out.printf("%-22s %14s %12s%n", "map of " + size, "bytes", "bytes/entry");
+        report("HashMap", GraphLayout.parseInstance(hashMap), shared, size);
+        report("ConcurrentSkipListMap", GraphLayout.parseInstance(skipList), shared, size);
+        report("IdMap", GraphLayout.parseInstance(idMap), shared, size);
+    }
+
+    private static void report(String name, GraphLayout map, GraphLayout entities, int size) {
+        long bytes = map.subtract(entities).totalSize();
+        System.out.printf("%-22s %,14d %12.1f%n", name, bytes, (double) bytes / size);
+    }
+}
@@ -0,0 +1,76 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.mock.IsbnIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares finding the book of an ISBN by testing every book ({@code scan}, the default of {@code BookService}), with a
+ * {@code HashMap} of boxed ISBNs ({@code boxed}) and with the {@link IsbnIndex} of the mock store ({@code index}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class IsbnLookupBenchmark {
+
+    @Param({"10000", "1000000"})
+    int size;
+
+    private List<Book> books;
+    private final Map<Long, Long> boxed = new HashMap<>();
+    private final IsbnIndex index = new IsbnIndex();
+    private int next;
+
+    @Setup
+    public void setup() {
+        books = Catalogue.generate(size).books;
+        for (Book book : books) {
+            boxed.put(book.getIsbn(), book.getId());
+            index.claim(book.getIsbn(), book.getId());
+        }
+    }
+
+    private long isbn() {
+        next = (next + 7919) % size;
+        return books.get(next).getIsbn();
+    }
+
+    @Benchmark
+    public long scan() {
+        long isbn = isbn();
+        for (Book book : books) {
+            if (book.getIsbn() == isbn) {
+                return book.getId();
+            }
+        }
+        return IsbnIndex.NONE;
+    }
+
+    @Benchmark
+    public long boxed() {
+        return boxed.get(isbn());
+    }
+
+    @Benchmark
+    public long index() {
+        return index.idOf(isbn());
+    }
+}
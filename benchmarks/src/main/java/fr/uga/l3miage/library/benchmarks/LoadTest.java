@@ -0,0 +1,156 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Closed-loop HTTP load test of the app, run with Tomcat's platform thread pool ({@code platform}), with virtual threads
+ * ({@code virtual}) and on WebFlux ({@code reactive}).
+ * <p>
+ * Each mode starts the app in this JVM, with {@link SimulatedLatency} standing for the I/O of a persistent store and
+ * the entity cache disabled so that every request reaches the store. {@code concurrency} clients, each on its own
+ * virtual thread, send requests back to back; throughput and latency percentiles are measured after a warmup.
+ * <pre>
+ * java -cp benchmarks.jar fr.uga.l3miage.library.benchmarks.LoadTest concurrency=1000 latency=20 duration=20 modes=platform,virtual,reactive
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+        // to hide the public one
+    }
+
+    /**
+     * Latencies of one client, in nanoseconds
+     */
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int count;
+
+        void add(long value) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = value;
+        }
+
+        LongStream stream() {
+            return Arrays.stream(values, 0, count);
+        }
+    }
+
+    record Result(String mode, long requests, long errors, double throughput, double p50, double p99, double max) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Arrays.stream(args)
+                .map(arg -> arg.split("=", 2))
+                .collect(Collectors.toMap(kv -> kv[0], kv -> kv[1]));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        long latency = Long.parseLong(options.getOrDefault("latency", "20"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "20")));
+        String path = options.getOrDefault("path", "/api/v1/books?limit=20");
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : options.getOrDefault("modes", "platform,virtual,reactive").split(",")) {
+            results.add(run(mode, concurrency, latency, warmup, duration, path));
+        }
+
+        System.out.printf("%nconcurrency=%d latency=%dms path=%s%n", concurrency, latency, path);
+        System.out.printf("%-10s %10s %8s %12s %10s %10s %10s%n", "mode", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Result r : results) {
+            System.out.printf("%-10s %10d %8d %12.1f %10.2f %10.2f %10.2f%n",
+                    r.mode(), r.requests(), r.errors(), r.throughput(), r.p50(), r.p99(), r.max());
+        }
+    }
+
+    private static Result run(String mode, int concurrency, long latency, Duration warmup, Duration duration, String path)
+            throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApplication.class, SimulatedLatency.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                        "spring.profiles.active=" + ("reactive".equals(mode) ? "reactive" : "default"),
+                        "library.cache.enabled=false",
+                        "loadtest.latency-ms=" + latency,
+                        "logging.level.root=WARN")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + path);
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            List<Samples> latencies = new ArrayList<>();
+            AtomicLong errors = new AtomicLong();
+
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < concurrency; i++) {
+                    Samples samples = new Samples();
+                    latencies.add(samples);
+                    clients.submit(() -> {
+                        long now = System.nanoTime();
+                        while (now < end) {
+                            boolean ok;
+                            try {
+                                ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                            } catch (Exception e) {
+                                ok = false;
+                            }
+                            long done = System.nanoTime();
+                            if (now >= measureFrom) {
+                                if (ok) {
+                                    samples.add(done - now);
+                                } else {
+                                    errors.incrementAndGet();
+                                }
+                            }
+                            now = done;
+                        }
+                        return null;
+                    });
+                }
+            }
+
+            long[] all = latencies.stream()
+                    .flatMapToLong(Samples::stream)
+                    .sorted()
+                    .toArray();
+            double seconds = duration.toNanos() / 1e9;
+            return new Result(mode, all.length, errors.get(), all.length / seconds,
+                    percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,62 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.books.BooksMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BooksMapper#entityToDTO(Book)} over a listing of {@code size} books having {@code authors} authors each, as
+ * done by the list endpoints when {@code library.json.direct=false}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    @Param({"1", "3"})
+    int authors;
+
+    private final BooksMapper booksMapper = new BooksMapperImpl();
+    private List<Book> books;
+
+    @Setup
+    public void setup() {
+        Catalogue catalogue = Catalogue.generate(size);
+        books = catalogue.books;
+        for (int i = 0; i < books.size(); i++) {
+            for (int a = 1; a < authors; a++) {
+                Author coAuthor = catalogue.authors.get((i + a) % catalogue.authors.size());
+                books.get(i).addAuthor(coAuthor);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<BookDTO> entityToDTO() {
+        return books.stream()
+                .map(booksMapper::entityToDTO)
+                .toList();
+    }
+}
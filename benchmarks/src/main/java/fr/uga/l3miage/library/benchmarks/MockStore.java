@@ -0,0 +1,82 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The mock services loaded with a {@link Catalogue} of {@code size} books, shared by all the threads of a benchmark.
+ * <p>
+ * The mock store is static: JMH runs each parameter combination in its own fork, so every trial starts from a fresh
+ * store.
+ */
+@State(Scope.Benchmark)
+public class MockStore {
+
+    private static final AtomicLong nextIsbn = new AtomicLong();
+
+    @Param({"10000", "100000"})
+    int size;
+
+    final AuthorService authorService = new AuthorServiceMockImpl();
+    final BookService bookService = new BookServiceMockImpl(authorService);
+
+    Catalogue catalogue;
+    /** a vocabulary word, matching about {@code 3 * size / VOCABULARY} titles */
+    String query;
+    /** an author whose first book is co-authored, so that it cannot be deleted */
+    Long coAuthor;
+
+    @Setup
+    public void load() throws EntityNotFoundException {
+        catalogue = Catalogue.generate(size);
+        authorService.saveAll(catalogue.authors);
+        bookService.saveAll(catalogue.books);
+        query = catalogue.words.get(Catalogue.VOCABULARY - 1);
+
+        Author author = catalogue.authors.get(0);
+        Book book = catalogue.books.get(0);
+        if (book.getAuthors().contains(author)) {
+            author = catalogue.authors.get(1);
+        }
+        bookService.addAuthor(book.getId(), author.getId());
+        coAuthor = author.getId();
+    }
+
+    /**
+     * @param i any number
+     * @return the id of an author of the catalogue
+     */
+    Long authorId(int i) {
+        return catalogue.authors.get(Math.floorMod(i, catalogue.authors.size())).getId();
+    }
+
+    /**
+     * @param i any number
+     * @return the id of a book of the catalogue
+     */
+    Long bookId(int i) {
+        return catalogue.books.get(Math.floorMod(i, catalogue.books.size())).getId();
+    }
+
+    static Book newBook(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        // ISBNs are unique, these come after the ones of the catalogue
+        book.setIsbn(9_781_000_000_000L + nextIsbn.getAndIncrement());
+        book.setPublisher("Dunod");
+        book.setYear((short) 2023);
+        book.setLanguage(Book.Language.FRENCH);
+        return book;
+    }
+}
@@ -0,0 +1,77 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Readers and writers hitting the mock store at the same time, reported per thread role.
+ * <p>
+ * {@code readMostly} runs 7 readers for 1 writer, {@code writeHeavy} 2 for 2; other mixes can be run with
+ * {@code -tg readers,writers}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ReadWriteMixBenchmark {
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(7)
+    public Book readMostlyGet(MockStore store, Cursor cursor) throws EntityNotFoundException {
+        return get(store, cursor);
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public Book readMostlyWrite(MockStore store, Cursor cursor) throws EntityNotFoundException {
+        return write(store, cursor);
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(2)
+    public Collection<Book> writeHeavySearch(MockStore store) {
+        return store.bookService.findByTitle(store.query);
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(2)
+    public Book writeHeavyWrite(MockStore store, Cursor cursor) throws EntityNotFoundException {
+        return write(store, cursor);
+    }
+
+    private static Book get(MockStore store, Cursor cursor) throws EntityNotFoundException {
+        return store.bookService.get(store.bookId(cursor.next++));
+    }
+
+    // a book is added to an existing author then removed, so that the store keeps its size
+    private static Book write(MockStore store, Cursor cursor) throws EntityNotFoundException {
+        Book book = store.bookService.save(store.authorId(cursor.next++), MockStore.newBook("Concurrent " + store.query));
+        store.bookService.delete(book.getId());
+        return book;
+    }
+}
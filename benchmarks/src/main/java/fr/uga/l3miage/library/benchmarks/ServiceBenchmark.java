@@ -0,0 +1,71 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the mock services behind the controllers, single-threaded.
+ * <p>
+ * Writes are paired with the delete that undoes them so that the store keeps its size during the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ServiceBenchmark {
+
+    private int next;
+
+    @Benchmark
+    public Collection<Book> findByTitle(MockStore store) {
+        return store.bookService.findByTitle(store.query);
+    }
+
+    @Benchmark
+    public Collection<Author> searchByName(MockStore store) {
+        return store.authorService.searchByName(store.query);
+    }
+
+    @Benchmark
+    public Book saveThenDeleteBook(MockStore store) throws EntityNotFoundException {
+        Book book = store.bookService.save(store.authorId(next++), MockStore.newBook("Benchmark book"));
+        store.bookService.delete(book.getId());
+        return book;
+    }
+
+    @Benchmark
+    public Author saveThenDeleteAuthor(MockStore store) throws EntityNotFoundException, DeleteAuthorException {
+        Author author = new Author();
+        author.setFullName("Benchmark author");
+        store.authorService.save(author);
+        store.bookService.save(author.getId(), MockStore.newBook("Benchmark book"));
+        store.authorService.delete(author.getId());
+        return author;
+    }
+
+    @Benchmark
+    public boolean deleteCoAuthoredIsRejected(MockStore store) throws EntityNotFoundException {
+        try {
+            store.authorService.delete(store.coAuthor);
+            throw new IllegalStateException("co-authored author was deleted");
+        } catch (DeleteAuthorException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.metrics.TimedBookService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the timing decorator on the cheapest call of the mock book service, a get by id, and on a title search
+ * whose result size is recorded too, against the same calls made directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ServiceTimingBenchmark {
+
+    private BookService timed;
+    private int next;
+
+    @Setup
+    public void wrap(MockStore store) {
+        timed = new TimedBookService(store.bookService, new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    @Benchmark
+    public Book get(MockStore store) throws EntityNotFoundException {
+        return store.bookService.get(store.bookId(next++));
+    }
+
+    @Benchmark
+    public Book getTimed(MockStore store) throws EntityNotFoundException {
+        return timed.get(store.bookId(next++));
+    }
+
+    @Benchmark
+    public Collection<Book> findByTitle(MockStore store) {
+        return store.bookService.findByTitle(store.query);
+    }
+
+    @Benchmark
+    public Collection<Book> findByTitleTimed(MockStore store) {
+        return timed.findByTitle(store.query);
+    }
+}
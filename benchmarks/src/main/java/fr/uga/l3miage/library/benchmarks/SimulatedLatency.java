@@ -0,0 +1,73 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ReactiveBookService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+/**
+ * Delays every {@link BookService} and {@link ReactiveBookService} call by {@code loadtest.latency-ms}, as a call to a
+ * remote database would, since the mock store itself never waits: the blocking service sleeps, the reactive one
+ * delays its signals without holding a thread.
+ * <p>
+ * Registered explicitly by {@link LoadTest}, not picked by component scanning.
+ */
+class SimulatedLatency {
+
+    @Bean
+    static BeanPostProcessor slowBookService(Environment environment) {
+        Duration latency = Duration.ofMillis(environment.getProperty("loadtest.latency-ms", Long.class, 0L));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (latency.isZero()) {
+                    return bean;
+                }
+                if (bean instanceof BookService) {
+                    return proxy(BookService.class, (proxy, method, args) -> {
+                        Thread.sleep(latency);
+                        return invoke(bean, method, args);
+                    });
+                }
+                if (bean instanceof ReactiveBookService) {
+                    return proxy(ReactiveBookService.class, (proxy, method, args) -> {
+                        if (Flux.class.equals(method.getReturnType())) {
+                            return Mono.delay(latency).thenMany(Flux.defer(() -> (Flux<?>) invokeUnchecked(bean, method, args)));
+                        }
+                        return Mono.delay(latency).then(Mono.defer(() -> (Mono<?>) invokeUnchecked(bean, method, args)));
+                    });
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Object proxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object bean, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(bean, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object invokeUnchecked(Object bean, Method method, Object[] args) {
+        try {
+            return method.invoke(bean, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.MockPersistence;
+import fr.uga.l3miage.library.service.mock.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time taken to decode a snapshot of {@code size} books of the synthetic {@link Catalogue}, then by the mock store to
+ * restore it on startup, entities, associations and search indexes included.
+ * <pre>
+ * java -cp benchmarks.jar fr.uga.l3miage.library.benchmarks.SnapshotLoad 1000000
+ * </pre>
+ */
+public final class SnapshotLoad {
+
+    private SnapshotLoad() {
+        // to hide the public one
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = Files.createTempDirectory("mock-store");
+        try {
+            write(directory.resolve("snapshot.bin"), size);
+            for (int run = 1; run <= 5; run++) {
+                // as on startup, the heap does not hold another catalogue
+                System.gc();
+                long start = System.nanoTime();
+                Counter counter = new Counter();
+                SnapshotFile.read(directory.resolve("snapshot.bin"), author -> counter.authors++,
+                        book -> counter.books++);
+                System.out.printf("run %d: decoded %,d authors and %,d books in %d ms%n", run, counter.authors,
+                        counter.books, millisSince(start));
+
+                System.gc();
+                start = System.nanoTime();
+                new MockPersistence(directory, Long.MAX_VALUE);
+                long elapsed = millisSince(start);
+                int books = new BookServiceMockImpl(new AuthorServiceMockImpl()).list().size();
+                System.out.printf("run %d: restored %,d books in %d ms%n", run, books, elapsed);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void write(Path file, int size) throws IOException {
+        Catalogue catalogue = Catalogue.generate(size);
+        long start = System.nanoTime();
+        SnapshotFile.write(file, 0, catalogue.authors, catalogue.books);
+        System.out.printf("wrote %,d books, %,d bytes in %d ms%n", size, Files.size(file), millisSince(start));
+    }
+
+    private static final class Counter {
+        int authors;
+        int books;
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,71 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.mock.NGramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former full scan of {@code findByTitle} with the trigram index now used by the mock store.
+ * <p>
+ * {@code word} looks for a whole vocabulary word (selective), {@code short} for two letters, which the index answers
+ * by scanning its normalized keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class TitleSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    @Param({"word", "short"})
+    String queryKind;
+
+    private final Map<Long, Book> books = new HashMap<>();
+    private final NGramIndex index = new NGramIndex();
+    private String query;
+
+    @Setup
+    public void setup() {
+        Catalogue catalogue = Catalogue.generate(size);
+        for (Book book : catalogue.books) {
+            books.put(book.getId(), book);
+            index.put(book.getId(), book.getTitle());
+        }
+        query = "word".equals(queryKind) ? catalogue.words.get(Catalogue.VOCABULARY - 1).toUpperCase() : "Ka";
+    }
+
+    @Benchmark
+    public Collection<Book> scan() {
+        return books.values().stream()
+                .filter(book -> book.getTitle().toLowerCase().contains(query.toLowerCase()))
+                .toList();
+    }
+
+    @Benchmark
+    public Collection<Book> index() {
+        return index.search(query).stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -1,12 +1,28 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
+
 import java.util.HashSet;
 import java.util.Set;
 
+@Entity
 public class Author {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
     private Long id;
     private String fullName;
+    @ManyToMany(mappedBy = "authors")
     private Set<Book> books;
+    // bumped by every change, see the ETags of the API
+    @Version
+    private long version;
 
     public Long getId() {
         return id;
@@ -16,6 +32,14 @@ public class Author {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getFullName() {
         return fullName;
     }
@@ -1,17 +1,57 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Basic;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+
 import java.util.HashSet;
 import java.util.Set;
 
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Book.UNIQUE_ISBN, columnNames = "isbn"))
 public class Book {
 
+    /**
+     * Name of the unique constraint on the ISBNs, 0 being stored as NULL
+     */
+    public static final String UNIQUE_ISBN = "book_isbn";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     private String title;
+    // nullable although primitive, no ISBN being stored as NULL
+    @Basic(optional = true)
+    @Convert(converter = IsbnConverter.class)
     private long isbn;
     private String publisher;
+    // year is a reserved word in several SQL dialects
+    @Column(name = "publication_year")
     private short year;
+    @Enumerated(EnumType.STRING)
     private Language language;
+    @ManyToMany
+    @JoinTable(name = "book_author",
+            joinColumns = @JoinColumn(name = "book_id"),
+            inverseJoinColumns = @JoinColumn(name = "author_id"))
     private Set<Author> authors;
+    // bumped by every change, see the ETags of the API
+    @Version
+    private long version;
 
     public Long getId() {
         return id;
@@ -21,6 +61,14 @@ public class Book {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
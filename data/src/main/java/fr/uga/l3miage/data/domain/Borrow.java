@@ -1,14 +1,48 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
 import java.util.Date;
 import java.util.Set;
 
+@Entity
+@Table(indexes = @Index(name = "borrow_end_date", columnList = "end_date"))
 public class Borrow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_seq")
+    @SequenceGenerator(name = "borrow_seq", sequenceName = "borrow_seq", allocationSize = 50)
     private Long id;
+    @ManyToMany
+    @JoinTable(name = "borrow_book")
     private Set<Book> books;
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "start_date")
     private Date start;
+    // end is a reserved word in SQL
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "end_date")
     private Date end;
+    // null until the books are given back
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "returned_date")
+    private Date returned;
+    // set once the borrow has been found overdue while the books were out
+    private boolean overdue;
+    @ManyToOne
     private Borrower borrower;
+    @ManyToOne
     private Librarian librarian;
 
     public Long getId() {
@@ -43,6 +77,22 @@ public class Borrow {
         this.end = end;
     }
 
+    public Date getReturned() {
+        return returned;
+    }
+
+    public void setReturned(Date returned) {
+        this.returned = returned;
+    }
+
+    public boolean isOverdue() {
+        return overdue;
+    }
+
+    public void setOverdue(boolean overdue) {
+        this.overdue = overdue;
+    }
+
     public Borrower getBorrower() {
         return borrower;
     }
@@ -1,8 +1,14 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
 import java.util.Date;
 
+@Entity
 public class Borrower extends Person {
+    @Temporal(TemporalType.DATE)
     private Date registered;
     private float lateRatio;
 
@@ -0,0 +1,22 @@
+package fr.uga.l3miage.data.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores the ISBN 0 of a book without ISBN as NULL, so that the unique constraint on the ISBNs, which ignores NULLs,
+ * allows any number of them
+ */
+@Converter
+public class IsbnConverter implements AttributeConverter<Long, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Long isbn) {
+        return isbn == null || isbn == 0 ? null : isbn;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(Long isbn) {
+        return isbn == null ? 0 : isbn;
+    }
+}
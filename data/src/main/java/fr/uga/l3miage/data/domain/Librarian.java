@@ -1,7 +1,12 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.ManyToOne;
+
+@Entity
 public class Librarian extends Person {
 
+    @ManyToOne
     private Librarian manager;
 
     public Librarian getManager() {
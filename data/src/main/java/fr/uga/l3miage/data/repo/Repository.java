@@ -1,9 +1,17 @@
 package fr.uga.l3miage.data.repo;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * A base repository contract for CRUD operations on entities.
+ * <p>
+ * This is the storage SPI: a storage engine implements the single-entity operations, {@link #getAll()} and
+ * {@link #findAfter(Object, int)}, the batch and streaming variants fall back on them and are overridden by the engines
+ * able to do them in bulk, such as one query for {@link #findAllById(Collection)} or one JDBC batch for
+ * {@link #saveAll(Collection)}.
  *
  * @param <T> the entity type
  * @param <I> the id type
@@ -11,11 +19,23 @@ import java.util.List;
 public interface Repository<T, I> {
 
     /**
-     * Save or update an entity.
+     * Save or update an entity, a new one is given its id.
      *
      * @param entity the entity to save
+     * @return the entity stored, the one given or a copy of it for the engines which merge it
      */
-    void save(T entity);
+    T save(T entity);
+
+    /**
+     * Save or update several entities.
+     *
+     * @param entities the entities to save
+     */
+    default void saveAll(Collection<? extends T> entities) {
+        for (T entity : entities) {
+            save(entity);
+        }
+    }
 
     /**
      * Delete an entity.
@@ -32,6 +52,40 @@ public interface Repository<T, I> {
      */
     T findById(I id);
 
+    /**
+     * @param id id of an entity, may be null
+     * @return whether an entity is stored under this id
+     */
+    default boolean existsById(I id) {
+        return id != null && findById(id) != null;
+    }
+
+    /**
+     * Retrieve several entities by id.
+     *
+     * @param ids ids of the entities
+     * @return the entities found, in no particular order, the ids without entity are skipped
+     */
+    default List<T> findAllById(Collection<I> ids) {
+        List<T> found = new ArrayList<>(ids.size());
+        for (I id : ids) {
+            T entity = findById(id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Retrieve a page of entities, ordered by id.
+     *
+     * @param after id after which the page starts, excluded, null for the first page
+     * @param limit maximum size of the page
+     * @return the entities of the page
+     */
+    List<T> findAfter(I after, int limit);
+
     /**
      * Retrieve all entities of a given type.
      *
@@ -39,4 +93,13 @@ public interface Repository<T, I> {
      */
     List<T> getAll();
 
+    /**
+     * Retrieve all entities of a given type, read as the stream is consumed when the engine can.
+     *
+     * @return all entities of a given type, the stream must be closed when the engine holds a resource for it
+     */
+    default Stream<T> stream() {
+        return getAll().stream();
+    }
+
 }
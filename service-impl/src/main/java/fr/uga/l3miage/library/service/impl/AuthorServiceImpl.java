@@ -0,0 +1,142 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Lookup;
+import fr.uga.l3miage.library.service.impl.repo.AuthorRepository;
+import fr.uga.l3miage.library.service.impl.repo.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class AuthorServiceImpl implements AuthorService {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public AuthorServiceImpl(AuthorRepository authorRepository, BookRepository bookRepository) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+    }
+
+    @Override
+    public Author save(Author author) {
+        return authorRepository.save(author);
+    }
+
+    @Override
+    public Collection<Author> saveAll(Collection<Author> authors) {
+        List<Author> saved = authorRepository.saveAll(authors);
+        detach();
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Author> searchByName(String name) {
+        return authorRepository.findByFullNameContainingIgnoreCase(name);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Author> searchByName(String name, Long after, int limit) {
+        return authorRepository.findByFullNameContainingIgnoreCaseAndIdGreaterThanOrderById(name, first(after), PageRequest.ofSize(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Author get(Long id) throws EntityNotFoundException {
+        return authorRepository.findWithBooksById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Lookup<Author, Long> getAll(Collection<Long> ids) {
+        Map<Long, Author> found = ids.isEmpty() ? Map.of() : authorRepository.findAllWithBooksByIdIn(ids).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        return Lookup.of(ids, found::get);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean exists(Long id) {
+        return authorRepository.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Author> list() {
+        return authorRepository.findAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Author> list(Long after, int limit) {
+        return authorRepository.findByIdGreaterThanOrderById(first(after), PageRequest.ofSize(limit));
+    }
+
+    @Override
+    @Transactional(rollbackFor = ConcurrentUpdateException.class)
+    public Author update(Author author) throws EntityNotFoundException, ConcurrentUpdateException {
+        Author current = author.getId() == null ? null : authorRepository.findById(author.getId()).orElse(null);
+        if (current == null) {
+            throw new EntityNotFoundException("Cannot find author with id: " + author.getId());
+        }
+        if (current.getVersion() != author.getVersion()) {
+            throw new ConcurrentUpdateException("Author " + author.getId() + " is at version " + current.getVersion()
+                    + ", not " + author.getVersion());
+        }
+        // the instance loaded may be the one the request read, and shared by a cache: the update is merged into a new one
+        entityManager.detach(current);
+        try {
+            // flushed now, so that an update committed in between fails here rather than on commit
+            return authorRepository.saveAndFlush(author);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConcurrentUpdateException("Author " + author.getId() + " was updated concurrently", e);
+        }
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        Author author = get(id);
+        if (authorRepository.countCoAuthoredBooks(id) > 0) {
+            throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+        }
+        bookRepository.deleteAll(bookRepository.findByAuthorWithAuthors(id));
+        authorRepository.delete(author);
+    }
+
+    static Long first(Long after) {
+        return after == null ? Long.MIN_VALUE : after;
+    }
+
+    /**
+     * Writes the batch and empties the persistence context: it may be shared by a whole request (open session in view),
+     * and every entity it holds would otherwise be dirty-checked again by each following batch.
+     */
+    private void detach() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+}
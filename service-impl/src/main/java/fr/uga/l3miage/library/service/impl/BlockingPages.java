@@ -0,0 +1,53 @@
+package fr.uga.l3miage.library.service.impl;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Runs the blocking JPA services off the caller's thread for their reactive counterparts.
+ */
+final class BlockingPages {
+
+    static final Scheduler SCHEDULER = Schedulers.boundedElastic();
+    private static final int PAGE = 500;
+
+    private BlockingPages() {
+        // to hide the public one
+    }
+
+    @FunctionalInterface
+    interface PageReader<O> {
+        Collection<O> read(Long after, int limit);
+    }
+
+    static <T> Mono<T> call(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(SCHEDULER);
+    }
+
+    /**
+     * @param reader reads one page after a cursor, ordered by id
+     * @param after  id after which to start, excluded, may be null
+     * @param id     id of an element, used as the cursor of the next page
+     * @return all the elements after the cursor, the next page being read once the previous one is requested
+     */
+    static <O> Flux<O> stream(PageReader<O> reader, Long after, Function<O, Long> id) {
+        return call(() -> reader.read(after, PAGE))
+                .flatMapMany(page -> {
+                    Flux<O> current = Flux.fromIterable(page);
+                    if (page.size() < PAGE) {
+                        return current;
+                    }
+                    Long last = null;
+                    for (O element : page) {
+                        last = id.apply(element);
+                    }
+                    return current.concatWith(stream(reader, last, id));
+                });
+    }
+}
@@ -0,0 +1,280 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
+import fr.uga.l3miage.library.service.impl.repo.AuthorRepository;
+import fr.uga.l3miage.library.service.impl.repo.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class BookServiceImpl implements BookService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        Author author = getAuthor(authorId);
+        // only the owning side is written, the inverse collection of the author is not loaded for nothing
+        book.addAuthor(author);
+        Book saved = bookRepository.save(book);
+        // flushed now to check the ISBN is unique, unless the caller's transaction writes it with the rest on commit
+        if (TransactionAspectSupport.currentTransactionStatus().isNewTransaction()) {
+            flush(book);
+        }
+        return saved;
+    }
+
+    @Override
+    public Collection<Book> saveAll(Collection<Book> books) throws EntityNotFoundException {
+        Set<Long> authorIds = new HashSet<>();
+        for (Book book : books) {
+            if (book.getAuthors() == null || book.getAuthors().isEmpty()) {
+                throw new IllegalArgumentException("a book must have at least one author");
+            }
+            book.getAuthors().forEach(author -> authorIds.add(author.getId()));
+        }
+        // a single query for all the authors of the batch
+        Map<Long, Author> authors = authorRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        for (Book book : books) {
+            Set<Author> managed = new HashSet<>();
+            for (Author author : book.getAuthors()) {
+                Author found = authors.get(author.getId());
+                if (found == null) {
+                    throw new EntityNotFoundException("Cannot find author with id: " + author.getId());
+                }
+                managed.add(found);
+            }
+            book.setAuthors(managed);
+        }
+        List<Book> saved = bookRepository.saveAll(books);
+        try {
+            detach();
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // rolled back, the books are saved anew if given again
+            books.forEach(book -> book.setId(null));
+            throw translate(e);
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book get(Long id) throws EntityNotFoundException {
+        return bookRepository.findWithAuthorsById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return bookRepository.findWithAuthorsByIsbn(isbn)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with isbn: " + isbn));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Lookup<Book, Long> getAll(Collection<Long> ids) {
+        // one query for the whole batch, the authors fetched along
+        Map<Long, Book> found = ids.isEmpty() ? Map.of() : bookRepository.findAllWithAuthorsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return Lookup.of(ids, found::get);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean exists(Long id) {
+        return bookRepository.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> list() {
+        return bookRepository.findAllWithAuthors();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> list(Long after, int limit) {
+        return withAuthors(bookRepository.findIdsAfter(AuthorServiceImpl.first(after), PageRequest.ofSize(limit)));
+    }
+
+    @Override
+    @Transactional(rollbackFor = ConcurrentUpdateException.class)
+    public Book update(Book book) throws EntityNotFoundException, ConcurrentUpdateException {
+        Book current = book.getId() == null ? null : bookRepository.findById(book.getId()).orElse(null);
+        if (current == null) {
+            throw new EntityNotFoundException("Cannot find book with id: " + book.getId());
+        }
+        if (current.getVersion() != book.getVersion()) {
+            throw new ConcurrentUpdateException("Book " + book.getId() + " is at version " + current.getVersion()
+                    + ", not " + book.getVersion());
+        }
+        // the instance loaded may be the one the request read, and shared by a cache: the update is merged into a new one
+        entityManager.detach(current);
+        try {
+            // flushed now, so that an update committed in between fails here rather than on commit
+            return bookRepository.saveAndFlush(book);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConcurrentUpdateException("Book " + book.getId() + " was updated concurrently", e);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        Book book = get(bookId);
+        book.addAuthor(getAuthor(authorId));
+        return book;
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        bookRepository.delete(get(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByTitle(String title) {
+        return bookRepository.findByTitleWithAuthors(title);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByTitle(String title, Long after, int limit) {
+        return withAuthors(bookRepository.findIdsByTitleAfter(title, AuthorServiceImpl.first(after), PageRequest.ofSize(limit)));
+    }
+
+    /**
+     * One query for the page, one for the total and one grouped query per facet, each facet counted with the filters
+     * of the others
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FacetedBooks findByFacets(BookFilter filter, Long after, int limit) {
+        Collection<Book> books = withAuthors(bookRepository.findIdsByFilterAfter(filter, AuthorServiceImpl.first(after), PageRequest.ofSize(limit)));
+        long total = bookRepository.countByFilter(filter);
+
+        Map<String, Long> publishers = new TreeMap<>();
+        BookFilter otherThanPublisher = new BookFilter(filter.title(), null, filter.fromYear(), filter.toYear(), filter.language());
+        for (Object[] row : bookRepository.countPublishersByFilter(otherThanPublisher)) {
+            publishers.put((String) row[0], (Long) row[1]);
+        }
+        Map<Book.Language, Long> languages = new EnumMap<>(Book.Language.class);
+        BookFilter otherThanLanguage = new BookFilter(filter.title(), filter.publisher(), filter.fromYear(), filter.toYear(), null);
+        for (Object[] row : bookRepository.countLanguagesByFilter(otherThanLanguage)) {
+            languages.put((Book.Language) row[0], (Long) row[1]);
+        }
+        Map<Integer, Long> decades = new TreeMap<>();
+        BookFilter otherThanYears = new BookFilter(filter.title(), filter.publisher(), null, null, filter.language());
+        for (Object[] row : bookRepository.countYearsByFilter(otherThanYears)) {
+            decades.merge(FacetedBooks.decade((Short) row[0]), (Long) row[1], Long::sum);
+        }
+        return new FacetedBooks(books, total, publishers, languages, decades);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> getByAuthor(Long authorId) throws EntityNotFoundException {
+        checkAuthor(authorId);
+        return bookRepository.findByAuthorWithAuthors(authorId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByAuthor(Long authorId, String title) throws EntityNotFoundException {
+        checkAuthor(authorId);
+        return bookRepository.findByAuthorAndTitleWithAuthors(authorId, title);
+    }
+
+    private Collection<Book> withAuthors(List<Long> ids) {
+        return ids.isEmpty() ? List.of() : bookRepository.findAllWithAuthorsByIdIn(ids);
+    }
+
+    private Author getAuthor(Long authorId) throws EntityNotFoundException {
+        return authorRepository.findById(authorId)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + authorId));
+    }
+
+    private void checkAuthor(Long authorId) throws EntityNotFoundException {
+        if (!authorRepository.existsById(authorId)) {
+            throw new EntityNotFoundException("Cannot find author with id: " + authorId);
+        }
+    }
+
+    /**
+     * Writes the book saved, its id reset if it is refused so that it is saved anew if given again.
+     */
+    private void flush(Book book) {
+        try {
+            entityManager.flush();
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            book.setId(null);
+            throw translate(e);
+        }
+    }
+
+    /**
+     * @param e a failure to write books, translated by Spring or not
+     * @return a {@link DuplicateIsbnException} if it violates the unique constraint on the ISBNs, else the failure
+     */
+    private static RuntimeException translate(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Book.UNIQUE_ISBN)) {
+                return new DuplicateIsbnException("Another book already has this isbn", e);
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Writes the batch and empties the persistence context: it may be shared by a whole request (open session in view),
+     * and every entity it holds would otherwise be dirty-checked again by each following batch.
+     */
+    private void detach() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+}
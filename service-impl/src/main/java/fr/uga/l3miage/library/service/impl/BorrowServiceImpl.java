@@ -0,0 +1,175 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowEvent;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.impl.repo.BookRepository;
+import fr.uga.l3miage.library.service.impl.repo.BorrowRepository;
+import fr.uga.l3miage.library.service.impl.repo.BorrowerRepository;
+import fr.uga.l3miage.library.service.impl.repo.LibrarianRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A borrow locks the rows of its books only, in id order, then checks that none of them is held by an open borrow:
+ * borrows of disjoint sets of books never wait for each other.
+ * <p>
+ * Events are published within the transaction, listeners that must only see committed borrows use
+ * {@code @TransactionalEventListener}.
+ */
+@Service
+@Transactional
+public class BorrowServiceImpl implements BorrowService {
+
+    private final BorrowRepository borrowRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final LibrarianRepository librarianRepository;
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher events;
+
+    @Autowired
+    public BorrowServiceImpl(BorrowRepository borrowRepository, BorrowerRepository borrowerRepository,
+                             LibrarianRepository librarianRepository, BookRepository bookRepository,
+                             ApplicationEventPublisher events) {
+        this.borrowRepository = borrowRepository;
+        this.borrowerRepository = borrowerRepository;
+        this.librarianRepository = librarianRepository;
+        this.bookRepository = bookRepository;
+        this.events = events;
+    }
+
+    @Override
+    public Borrow borrow(Long borrowerId, Long librarianId, Collection<Long> bookIds, Date end)
+            throws EntityNotFoundException, BookUnavailableException {
+        if (bookIds == null || bookIds.isEmpty()) {
+            throw new IllegalArgumentException("a borrow must have at least one book");
+        }
+        Objects.requireNonNull(end, "a borrow must have an end date");
+        Borrow borrow = new Borrow();
+        borrow.setBorrower(borrowerRepository.findById(borrowerId)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrower with id: " + borrowerId)));
+        borrow.setLibrarian(librarianRepository.findById(librarianId)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find librarian with id: " + librarianId)));
+
+        Set<Long> ids = new TreeSet<>(bookIds);
+        List<Book> books = bookRepository.lockAllById(ids);
+        if (books.size() != ids.size()) {
+            books.forEach(book -> ids.remove(book.getId()));
+            throw new EntityNotFoundException("Cannot find book with id: " + ids.iterator().next());
+        }
+        List<Long> borrowed = borrowRepository.findBorrowedBookIds(ids);
+        if (!borrowed.isEmpty()) {
+            throw new BookUnavailableException("Book " + borrowed.get(0) + " is already borrowed");
+        }
+        borrow.setBooks(new HashSet<>(books));
+        borrow.setStart(new Date());
+        borrow.setEnd(end);
+        Borrow saved = borrowRepository.save(borrow);
+        events.publishEvent(new BorrowEvent(BorrowEvent.Type.CREATED, saved.getId(), borrowerId, end, null, false));
+        return saved;
+    }
+
+    @Override
+    public Borrow giveBack(Long id) throws EntityNotFoundException {
+        Borrow borrow = borrowRepository.lockById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + id));
+        if (borrow.getReturned() != null) {
+            throw new IllegalStateException("Borrow " + id + " was already returned");
+        }
+        borrow.setReturned(new Date());
+        events.publishEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, id, borrow.getBorrower().getId(), borrow.getEnd(),
+                borrow.getReturned(), borrow.isOverdue()));
+        return borrow;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isAvailable(Long bookId) {
+        return !borrowRepository.isBorrowed(bookId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrow> findOverdue(Date now) {
+        return borrowRepository.findOverdue(now);
+    }
+
+    @Override
+    public Collection<Borrow> flagOverdue(Date now) {
+        List<Long> flagged = new ArrayList<>();
+        for (Long id : borrowRepository.findNewlyOverdueIds(now)) {
+            if (borrowRepository.flagOverdue(id) == 1) {
+                flagged.add(id);
+            }
+        }
+        if (flagged.isEmpty()) {
+            return List.of();
+        }
+        List<Borrow> borrows = borrowRepository.findAllWithBooksByIdIn(flagged);
+        for (Borrow borrow : borrows) {
+            events.publishEvent(new BorrowEvent(BorrowEvent.Type.OVERDUE, borrow.getId(), borrow.getBorrower().getId(),
+                    borrow.getEnd(), null, true));
+        }
+        return borrows;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrow> findByBorrower(Long borrowerId) throws EntityNotFoundException {
+        if (!borrowerRepository.existsById(borrowerId)) {
+            throw new EntityNotFoundException("Cannot find borrower with id: " + borrowerId);
+        }
+        return borrowRepository.findByBorrower(borrowerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Borrow get(Long id) throws EntityNotFoundException {
+        return borrowRepository.findWithBooksById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean exists(Long id) {
+        return borrowRepository.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrow> list() {
+        return borrowRepository.findAllWithBooks();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrow> list(Long after, int limit) {
+        List<Long> ids = borrowRepository.findIdsAfter(AuthorServiceImpl.first(after), PageRequest.ofSize(limit));
+        return ids.isEmpty() ? List.of() : borrowRepository.findAllWithBooksByIdIn(ids);
+    }
+
+    @Override
+    public Borrow update(Borrow borrow) throws EntityNotFoundException {
+        Borrow current = borrowRepository.findById(borrow.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + borrow.getId()));
+        // books and dates are only changed through borrow() and giveBack(), which check availability
+        current.setBorrower(borrow.getBorrower());
+        current.setLibrarian(borrow.getLibrarian());
+        return current;
+    }
+}
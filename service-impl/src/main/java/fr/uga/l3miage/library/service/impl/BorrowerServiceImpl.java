@@ -0,0 +1,62 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.repo.Repository;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Service
+@Transactional
+public class BorrowerServiceImpl implements BorrowerService {
+
+    private final Repository<Borrower, Long> borrowers;
+
+    @Autowired
+    public BorrowerServiceImpl(Repository<Borrower, Long> borrowers) {
+        this.borrowers = borrowers;
+    }
+
+    @Override
+    public Borrower save(Borrower borrower) {
+        return borrowers.save(borrower);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Borrower get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(borrowers.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrower with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean exists(Long id) {
+        return borrowers.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrower> list() {
+        return borrowers.getAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrower> list(Long after, int limit) {
+        return borrowers.findAfter(after, limit);
+    }
+
+    @Override
+    public Borrower update(Borrower borrower) throws EntityNotFoundException {
+        if (!borrowers.existsById(borrower.getId())) {
+            throw new EntityNotFoundException("Cannot find borrower with id: " + borrower.getId());
+        }
+        return borrowers.save(borrower);
+    }
+}
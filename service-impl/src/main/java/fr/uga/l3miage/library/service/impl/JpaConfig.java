@@ -0,0 +1,38 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.data.repo.Repository;
+import fr.uga.l3miage.library.service.impl.repo.BookRepository;
+import fr.uga.l3miage.library.service.impl.repo.BorrowerRepository;
+import fr.uga.l3miage.library.service.impl.repo.JpaEntityRepository;
+import fr.uga.l3miage.library.service.impl.repo.LibrarianRepository;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Registers the domain entities and the repositories of this module, whatever the package of the application using it.
+ * Defaults (H2 datasource, JDBC batching) are in {@code library-jpa.properties} and can be overridden by the application.
+ * <p>
+ * The entities stored through the {@link Repository} SPI get the JDBC engine, {@link JpaEntityRepository}.
+ */
+@Configuration
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class)
+@PropertySource("classpath:library-jpa.properties")
+public class JpaConfig {
+
+    @Bean
+    Repository<Borrower, Long> borrowers(BorrowerRepository repository) {
+        return new JpaEntityRepository<>(repository, repository::findByIdGreaterThanOrderById);
+    }
+
+    @Bean
+    Repository<Librarian, Long> librarians(LibrarianRepository repository) {
+        return new JpaEntityRepository<>(repository, repository::findByIdGreaterThanOrderById);
+    }
+}
@@ -0,0 +1,62 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.data.repo.Repository;
+import fr.uga.l3miage.library.service.LibrarianService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Service
+@Transactional
+public class LibrarianServiceImpl implements LibrarianService {
+
+    private final Repository<Librarian, Long> librarians;
+
+    @Autowired
+    public LibrarianServiceImpl(Repository<Librarian, Long> librarians) {
+        this.librarians = librarians;
+    }
+
+    @Override
+    public Librarian save(Librarian librarian) {
+        return librarians.save(librarian);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Librarian get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(librarians.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find librarian with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean exists(Long id) {
+        return librarians.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Librarian> list() {
+        return librarians.getAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Librarian> list(Long after, int limit) {
+        return librarians.findAfter(after, limit);
+    }
+
+    @Override
+    public Librarian update(Librarian librarian) throws EntityNotFoundException {
+        if (!librarians.existsById(librarian.getId())) {
+            throw new EntityNotFoundException("Cannot find librarian with id: " + librarian.getId());
+        }
+        return librarians.save(librarian);
+    }
+}
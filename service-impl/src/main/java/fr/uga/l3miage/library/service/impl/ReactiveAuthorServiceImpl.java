@@ -0,0 +1,58 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ReactiveAuthorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveAuthorServiceImpl implements ReactiveAuthorService {
+
+    private final AuthorService authorService;
+
+    @Autowired
+    public ReactiveAuthorServiceImpl(AuthorService authorService) {
+        this.authorService = authorService;
+    }
+
+    @Override
+    public Mono<Author> save(Author author) {
+        return BlockingPages.call(() -> authorService.save(author));
+    }
+
+    @Override
+    public Flux<Author> searchByName(String name, Long after) {
+        return BlockingPages.stream((cursor, limit) -> authorService.searchByName(name, cursor, limit), after, Author::getId);
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        return BlockingPages.call(() -> {
+            authorService.delete(id);
+            return null;
+        }).then();
+    }
+
+    @Override
+    public Mono<Author> get(Long id) {
+        return BlockingPages.call(() -> authorService.get(id));
+    }
+
+    @Override
+    public Mono<Boolean> exists(Long id) {
+        return BlockingPages.call(() -> authorService.exists(id));
+    }
+
+    @Override
+    public Flux<Author> list(Long after) {
+        return BlockingPages.stream(authorService::list, after, Author::getId);
+    }
+
+    @Override
+    public Mono<Author> update(Author author) {
+        return BlockingPages.call(() -> authorService.update(author));
+    }
+}
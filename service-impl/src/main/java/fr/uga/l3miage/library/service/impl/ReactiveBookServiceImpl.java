@@ -0,0 +1,69 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ReactiveBookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private final BookService bookService;
+
+    @Autowired
+    public ReactiveBookServiceImpl(BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    @Override
+    public Mono<Book> save(Long authorId, Book book) {
+        return BlockingPages.call(() -> bookService.save(authorId, book));
+    }
+
+    @Override
+    public Flux<Book> findByTitle(String title, Long after) {
+        return BlockingPages.stream((cursor, limit) -> bookService.findByTitle(title, cursor, limit), after, Book::getId);
+    }
+
+    @Override
+    public Flux<Book> getByAuthor(Long id) {
+        return BlockingPages.call(() -> bookService.getByAuthor(id))
+                .flatMapIterable(books -> books);
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        return BlockingPages.call(() -> {
+            bookService.delete(id);
+            return null;
+        }).then();
+    }
+
+    @Override
+    public Mono<Book> addAuthor(Long bookId, Long authorId) {
+        return BlockingPages.call(() -> bookService.addAuthor(bookId, authorId));
+    }
+
+    @Override
+    public Mono<Book> get(Long id) {
+        return BlockingPages.call(() -> bookService.get(id));
+    }
+
+    @Override
+    public Mono<Boolean> exists(Long id) {
+        return BlockingPages.call(() -> bookService.exists(id));
+    }
+
+    @Override
+    public Flux<Book> list(Long after) {
+        return BlockingPages.stream(bookService::list, after, Book::getId);
+    }
+
+    @Override
+    public Mono<Book> update(Book book) {
+        return BlockingPages.call(() -> bookService.update(book));
+    }
+}
@@ -0,0 +1,41 @@
+package fr.uga.l3miage.library.service.impl.repo;
+
+import fr.uga.l3miage.data.domain.Author;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AuthorRepository extends JpaRepository<Author, Long> {
+
+    /**
+     * @param id author's id
+     * @return the author with its books and their authors, so that it can be used once detached
+     */
+    @Query("select distinct a from Author a left join fetch a.books b left join fetch b.authors where a.id = :id")
+    Optional<Author> findWithBooksById(@Param("id") Long id);
+
+    /**
+     * @param ids authors' ids
+     * @return the authors found, fetched like {@link #findWithBooksById(Long)} in a single query
+     */
+    @Query("select distinct a from Author a left join fetch a.books b left join fetch b.authors where a.id in :ids")
+    List<Author> findAllWithBooksByIdIn(@Param("ids") Collection<Long> ids);
+
+    List<Author> findByFullNameContainingIgnoreCase(String fullName);
+
+    List<Author> findByIdGreaterThanOrderById(Long after, Pageable page);
+
+    List<Author> findByFullNameContainingIgnoreCaseAndIdGreaterThanOrderById(String fullName, Long after, Pageable page);
+
+    /**
+     * @param id author's id
+     * @return the number of books of this author that have at least another author
+     */
+    @Query("select count(distinct b) from Book b join b.authors a join b.authors other where a.id = :id and other.id <> :id")
+    long countCoAuthoredBooks(@Param("id") Long id);
+}
@@ -0,0 +1,101 @@
+package fr.uga.l3miage.library.service.impl.repo;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every read fetches the authors along with the books: they are always mapped to the response, so loading them lazily
+ * would cost one query per book. Pages are read in two steps, ids first then books by ids, because a fetch join cannot
+ * be limited in SQL.
+ * <p>
+ * The faceted searches take a {@link BookFilter} whose null filters keep every book.
+ */
+public interface BookRepository extends JpaRepository<Book, Long> {
+
+    String FILTER = """
+            (:#{#filter.title()} is null or lower(b.title) like lower(concat('%', :#{#filter.title()}, '%')))
+            and (:#{#filter.publisher()} is null or b.publisher = :#{#filter.publisher()})
+            and (:#{#filter.fromYear()} is null or b.year >= :#{#filter.fromYear()})
+            and (:#{#filter.toYear()} is null or b.year <= :#{#filter.toYear()})
+            and (:#{#filter.language()} is null or b.language = :#{#filter.language()})
+            """;
+
+    @Query("select b from Book b left join fetch b.authors where b.id = :id")
+    Optional<Book> findWithAuthorsById(@Param("id") Long id);
+
+    @Query("select b from Book b left join fetch b.authors where b.isbn = :isbn")
+    Optional<Book> findWithAuthorsByIsbn(@Param("isbn") long isbn);
+
+    @Query("select distinct b from Book b left join fetch b.authors")
+    List<Book> findAllWithAuthors();
+
+    @Query("select distinct b from Book b left join fetch b.authors where b.id in :ids order by b.id")
+    List<Book> findAllWithAuthorsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.id from Book b where b.id > :after order by b.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable page);
+
+    @Query("select b.id from Book b where b.id > :after and lower(b.title) like lower(concat('%', :title, '%')) order by b.id")
+    List<Long> findIdsByTitleAfter(@Param("title") String title, @Param("after") Long after, Pageable page);
+
+    @Query("select b.id from Book b where b.id > :after and " + FILTER + " order by b.id")
+    List<Long> findIdsByFilterAfter(@Param("filter") BookFilter filter, @Param("after") Long after, Pageable page);
+
+    @Query("select count(b) from Book b where " + FILTER)
+    long countByFilter(@Param("filter") BookFilter filter);
+
+    /**
+     * @return publisher and number of books, for each publisher of the books passing the filter
+     */
+    @Query("select b.publisher, count(b) from Book b where b.publisher is not null and " + FILTER + " group by b.publisher")
+    List<Object[]> countPublishersByFilter(@Param("filter") BookFilter filter);
+
+    /**
+     * @return language and number of books, for each language of the books passing the filter
+     */
+    @Query("select b.language, count(b) from Book b where b.language is not null and " + FILTER + " group by b.language")
+    List<Object[]> countLanguagesByFilter(@Param("filter") BookFilter filter);
+
+    /**
+     * @return year and number of books, for each year of the books passing the filter
+     */
+    @Query("select b.year, count(b) from Book b where " + FILTER + " group by b.year")
+    List<Object[]> countYearsByFilter(@Param("filter") BookFilter filter);
+
+    @Query("select distinct b from Book b left join fetch b.authors where lower(b.title) like lower(concat('%', :title, '%'))")
+    List<Book> findByTitleWithAuthors(@Param("title") String title);
+
+    @Query("""
+            select distinct b from Book b left join fetch b.authors
+            where b.id in (select ab.id from Author a join a.books ab where a.id = :authorId)
+            """)
+    List<Book> findByAuthorWithAuthors(@Param("authorId") Long authorId);
+
+    @Query("""
+            select distinct b from Book b left join fetch b.authors
+            where b.id in (select ab.id from Author a join a.books ab where a.id = :authorId)
+            and lower(b.title) like lower(concat('%', :title, '%'))
+            """)
+    List<Book> findByAuthorAndTitleWithAuthors(@Param("authorId") Long authorId, @Param("title") String title);
+
+    /**
+     * Locks the rows of the books until the end of the transaction, in id order so that two transactions locking
+     * overlapping sets cannot deadlock
+     *
+     * @param ids ids of the books
+     * @return the books found, without their authors
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id in :ids order by b.id")
+    List<Book> lockAllById(@Param("ids") Collection<Long> ids);
+}
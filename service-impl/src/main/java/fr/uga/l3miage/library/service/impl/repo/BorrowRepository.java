@@ -0,0 +1,80 @@
+package fr.uga.l3miage.library.service.impl.repo;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A borrow is open until its returned date is set. Reads fetch the books, which are always mapped to the response.
+ */
+public interface BorrowRepository extends JpaRepository<Borrow, Long> {
+
+    @Query("select distinct br from Borrow br left join fetch br.books where br.id = :id")
+    Optional<Borrow> findWithBooksById(@Param("id") Long id);
+
+    /**
+     * @param id borrow's id
+     * @return the borrow, its row locked until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select br from Borrow br where br.id = :id")
+    Optional<Borrow> lockById(@Param("id") Long id);
+
+    /**
+     * @param bookIds ids of books
+     * @return the ids among them that are held by an open borrow
+     */
+    @Query("select b.id from Borrow br join br.books b where br.returned is null and b.id in :bookIds")
+    List<Long> findBorrowedBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select count(br) > 0 from Borrow br join br.books b where br.returned is null and b.id = :bookId")
+    boolean isBorrowed(@Param("bookId") Long bookId);
+
+    /**
+     * Range scan on the end_date index
+     *
+     * @param now the current date
+     * @return the open borrows ending before now, by end date
+     */
+    @Query("select distinct br from Borrow br left join fetch br.books where br.returned is null and br.end < :now order by br.end")
+    List<Borrow> findOverdue(@Param("now") Date now);
+
+    /**
+     * @param now the current date
+     * @return ids of the open borrows ending before now that are not flagged overdue yet
+     */
+    @Query("select br.id from Borrow br where br.returned is null and br.overdue = false and br.end < :now")
+    List<Long> findNewlyOverdueIds(@Param("now") Date now);
+
+    /**
+     * Conditional update, evaluated against the row once locked, so that it loses to a concurrent return
+     *
+     * @param id borrow's id
+     * @return 1 if the borrow was flagged, 0 if it was returned or flagged in the meantime
+     */
+    @Modifying
+    @Query("update Borrow br set br.overdue = true where br.id = :id and br.returned is null and br.overdue = false")
+    int flagOverdue(@Param("id") Long id);
+
+    @Query("select distinct br from Borrow br left join fetch br.books where br.borrower.id = :borrowerId order by br.id")
+    List<Borrow> findByBorrower(@Param("borrowerId") Long borrowerId);
+
+    @Query("select distinct br from Borrow br left join fetch br.books order by br.id")
+    List<Borrow> findAllWithBooks();
+
+    @Query("select br.id from Borrow br where br.id > :after order by br.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable page);
+
+    @Query("select distinct br from Borrow br left join fetch br.books where br.id in :ids order by br.id")
+    List<Borrow> findAllWithBooksByIdIn(@Param("ids") Collection<Long> ids);
+}
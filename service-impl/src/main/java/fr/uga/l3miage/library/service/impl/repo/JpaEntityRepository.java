@@ -0,0 +1,79 @@
+package fr.uga.l3miage.library.service.impl.repo;
+
+import fr.uga.l3miage.data.repo.Repository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * JDBC storage engine: a {@link Repository} over a Spring Data repository, to be used within a transaction.
+ * <p>
+ * The batch variants are done in bulk: {@link #findAllById(Collection)} is a single {@code in} query and
+ * {@link #saveAll(Collection)} is flushed in JDBC batches of {@code hibernate.jdbc.batch_size} statements.
+ *
+ * @param <T> type of the entities
+ */
+public class JpaEntityRepository<T> implements Repository<T, Long> {
+
+    private final JpaRepository<T, Long> repository;
+    private final BiFunction<Long, Pageable, List<T>> findAfter;
+
+    /**
+     * @param repository the Spring Data repository of the entities
+     * @param findAfter  its query of the entities with an id greater than the one given, ordered by id
+     */
+    public JpaEntityRepository(JpaRepository<T, Long> repository, BiFunction<Long, Pageable, List<T>> findAfter) {
+        this.repository = repository;
+        this.findAfter = findAfter;
+    }
+
+    /**
+     * Persists a new entity, whose id is then set, or merges the state of a detached one into a copy
+     */
+    @Override
+    public T save(T entity) {
+        return repository.save(entity);
+    }
+
+    @Override
+    public void saveAll(Collection<? extends T> entities) {
+        repository.saveAll(entities);
+    }
+
+    @Override
+    public void delete(T entity) {
+        repository.delete(entity);
+    }
+
+    @Override
+    public T findById(Long id) {
+        return id == null ? null : repository.findById(id).orElse(null);
+    }
+
+    /**
+     * Without loading the entity
+     */
+    @Override
+    public boolean existsById(Long id) {
+        return id != null && repository.existsById(id);
+    }
+
+    @Override
+    public List<T> findAllById(Collection<Long> ids) {
+        return ids.isEmpty() ? List.of() : repository.findAllById(ids);
+    }
+
+    @Override
+    public List<T> findAfter(Long after, int limit) {
+        return findAfter.apply(after == null ? Long.MIN_VALUE : after, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    public List<T> getAll() {
+        return repository.findAll();
+    }
+}
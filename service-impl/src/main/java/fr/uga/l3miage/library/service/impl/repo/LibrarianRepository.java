@@ -0,0 +1,12 @@
+package fr.uga.l3miage.library.service.impl.repo;
+
+import fr.uga.l3miage.data.domain.Librarian;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface LibrarianRepository extends JpaRepository<Librarian, Long> {
+
+    List<Librarian> findByIdGreaterThanOrderById(Long after, Pageable page);
+}
@@ -0,0 +1,4 @@
+-- same seed as the mock store
+insert into author (id, full_name, version) values (-1, 'Benoit Bordigoni', 0);
+insert into book (id, title, isbn, publisher, publication_year, language, version) values (-1, 'The Art of JPA', 2145673168735453, 'Dunod', 2023, 'ENGLISH', 0);
+insert into book_author (book_id, author_id) values (-1, -1);
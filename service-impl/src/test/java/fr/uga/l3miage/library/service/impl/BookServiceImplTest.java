@@ -0,0 +1,301 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Asserts the number of SQL statements issued by the service calls behind each endpoint: it must not depend on the
+ * number of books nor on the number of authors per book.
+ */
+@SpringBootTest(classes = TestApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookServiceImplTest {
+
+    private static final int BOOKS = 20;
+    // far enough apart for the increments of concurrentUpdatesAreNotLost
+    private static final AtomicLong nextIsbn = new AtomicLong(9782266199261L);
+
+    @Autowired
+    AuthorService authorService;
+    @Autowired
+    BookService bookService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Author victor;
+    Author alexandre;
+    Book coAuthored;
+
+    @BeforeAll
+    void populate() throws EntityNotFoundException {
+        victor = authorService.save(author("Victor Hugo"));
+        alexandre = authorService.save(author("Alexandre Dumas"));
+        for (int i = 0; i < BOOKS; i++) {
+            bookService.save(i % 2 == 0 ? victor.getId() : alexandre.getId(), book("Tome " + i));
+        }
+        coAuthored = bookService.save(victor.getId(), book("Ecrit a quatre mains"));
+        bookService.addAuthor(coAuthored.getId(), alexandre.getId());
+    }
+
+    @Test
+    void listIsASingleStatement() {
+        SqlStatementCounter.reset();
+        Collection<Book> books = bookService.list();
+        books.forEach(b -> b.getAuthors().forEach(Author::getFullName));
+
+        assertThat(books).hasSizeGreaterThan(BOOKS);
+        assertThat(SqlStatementCounter.statements()).hasSize(1);
+    }
+
+    @Test
+    void getIsASingleStatement() throws EntityNotFoundException {
+        SqlStatementCounter.reset();
+        Book book = bookService.get(coAuthored.getId());
+
+        assertThat(book.getAuthors()).hasSize(2);
+        assertThat(SqlStatementCounter.statements()).hasSize(1);
+    }
+
+    @Test
+    void findByTitleIsASingleStatement() {
+        SqlStatementCounter.reset();
+        Collection<Book> books = bookService.findByTitle("tome");
+        books.forEach(b -> b.getAuthors().forEach(Author::getFullName));
+
+        assertThat(books).hasSize(BOOKS);
+        assertThat(SqlStatementCounter.statements()).hasSize(1);
+    }
+
+    @Test
+    void getByAuthorDoesNotDependOnBookCount() throws EntityNotFoundException {
+        SqlStatementCounter.reset();
+        Collection<Book> books = bookService.getByAuthor(victor.getId());
+        books.forEach(b -> b.getAuthors().forEach(Author::getFullName));
+
+        assertThat(books).hasSize(BOOKS / 2 + 1);
+        // author existence check + books with their authors
+        assertThat(SqlStatementCounter.statements()).hasSize(2);
+    }
+
+    @Test
+    void findByAuthorDoesNotDependOnBookCount() throws EntityNotFoundException {
+        SqlStatementCounter.reset();
+        Collection<Book> books = bookService.findByAuthor(alexandre.getId(), "MAINS");
+        books.forEach(b -> b.getAuthors().forEach(Author::getFullName));
+
+        assertThat(books).hasSize(1);
+        assertThat(SqlStatementCounter.statements()).hasSize(2);
+    }
+
+    @Test
+    void searchByNameIsASingleStatement() {
+        SqlStatementCounter.reset();
+        assertThat(authorService.searchByName("hugo")).hasSize(1);
+        assertThat(SqlStatementCounter.statements()).hasSize(1);
+    }
+
+    @Test
+    void saveIsBatchedWithinATransaction() throws EntityNotFoundException {
+        Author author = authorService.save(author("Jules Verne"));
+        SqlStatementCounter.reset();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                for (int i = 0; i < 30; i++) {
+                    bookService.save(author.getId(), book("Voyage " + i));
+                }
+            } catch (EntityNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(SqlStatementCounter.count("insert into book ")).isEqualTo(1);
+        assertThat(SqlStatementCounter.count("insert into book_author ")).isEqualTo(1);
+        // pooled optimizer: at most one sequence call for 30 ids
+        assertThat(SqlStatementCounter.statements()).filteredOn(sql -> sql.contains("book_seq")).hasSizeLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void deleteCoAuthorIsRejected() {
+        assertThatThrownBy(() -> authorService.delete(alexandre.getId())).isInstanceOf(DeleteAuthorException.class);
+    }
+
+    @Test
+    void deleteAuthorRemovesItsBooks() throws EntityNotFoundException, DeleteAuthorException {
+        Author author = authorService.save(author("Emile Zola"));
+        Book book = bookService.save(author.getId(), book("Germinal"));
+
+        authorService.delete(author.getId());
+
+        assertThatThrownBy(() -> bookService.get(book.getId())).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> authorService.get(author.getId())).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void staleUpdateIsRejected() throws Exception {
+        Author author = authorService.save(author("Pierre Loti"));
+        Book book = bookService.save(author.getId(), book("Pêcheur d'Islande"));
+        Book first = bookService.get(book.getId());
+        Book second = bookService.get(book.getId());
+
+        first.setTitle("Pêcheur d'Islande, tome 1");
+        assertThat(bookService.update(first).getVersion()).isEqualTo(book.getVersion() + 1);
+        second.setTitle("Pêcheur d'Islande, tome 2");
+        assertThatThrownBy(() -> bookService.update(second)).isInstanceOf(ConcurrentUpdateException.class);
+        assertThat(bookService.get(book.getId()).getTitle()).isEqualTo("Pêcheur d'Islande, tome 1");
+    }
+
+    @Test
+    void concurrentUpdatesAreNotLost() throws Exception {
+        Author author = authorService.save(author("Guy de Maupassant"));
+        Book book = bookService.save(author.getId(), book("Bel-Ami"));
+        long isbn = book.getIsbn();
+        int threads = 4;
+        int increments = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        // read, change a copy, retry from the new version when another update went first
+                        while (true) {
+                            Book current = bookService.get(book.getId());
+                            current.setIsbn(current.getIsbn() + 1);
+                            try {
+                                bookService.update(current);
+                                break;
+                            } catch (ConcurrentUpdateException e) {
+                                // retried
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Book updated = bookService.get(book.getId());
+        assertThat(updated.getIsbn()).isEqualTo(isbn + threads * increments);
+        assertThat(updated.getVersion()).isEqualTo(book.getVersion() + threads * increments);
+        assertThat(updated.getAuthors()).extracting(Author::getId).containsExactly(author.getId());
+    }
+
+    @Test
+    void duplicateIsbnsAreRejected() throws Exception {
+        Author author = authorService.save(author("Emile Zola"));
+        Book germinal = bookService.save(author.getId(), book("Germinal"));
+        Book nana = book("Nana");
+        nana.setIsbn(germinal.getIsbn());
+        assertThatThrownBy(() -> bookService.save(author.getId(), nana)).isInstanceOf(DuplicateIsbnException.class);
+
+        Book assommoir = bookService.save(author.getId(), book("L'Assommoir"));
+        assommoir.setIsbn(germinal.getIsbn());
+        assertThatThrownBy(() -> bookService.update(assommoir)).isInstanceOf(DuplicateIsbnException.class);
+
+        Book first = book("La Curée");
+        Book second = book("La Bête humaine");
+        second.setIsbn(first.getIsbn());
+        first.addAuthor(author);
+        second.addAuthor(author);
+        assertThatThrownBy(() -> bookService.saveAll(List.of(first, second)))
+                .isInstanceOf(DuplicateIsbnException.class);
+        assertThat(bookService.findByTitle("curée")).isEmpty();
+
+        SqlStatementCounter.reset();
+        assertThat(bookService.getByIsbn(germinal.getIsbn()).getTitle()).isEqualTo("Germinal");
+        assertThat(SqlStatementCounter.statements()).hasSize(1);
+        assertThatThrownBy(() -> bookService.getByIsbn(1)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void booksWithoutIsbnAreNotDuplicates() throws EntityNotFoundException {
+        Author author = authorService.save(author("Anonyme"));
+        Book first = book("Le Roman de Renart");
+        first.setIsbn(0);
+        Book second = book("La Chanson de Roland");
+        second.setIsbn(0);
+        bookService.save(author.getId(), first);
+        bookService.save(author.getId(), second);
+
+        assertThat(bookService.get(second.getId()).getIsbn()).isZero();
+        assertThatThrownBy(() -> bookService.getByIsbn(0)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void facetsAreCountedWithTheOtherFilters() throws EntityNotFoundException {
+        Author author = authorService.save(author("Amin Maalouf"));
+        Book leon = bookService.save(author.getId(), book("Léon l'Africain", "Lattès", 1986, Book.Language.FRENCH));
+        Book samarcande = bookService.save(author.getId(), book("Samarcande", "Lattès", 1988, Book.Language.FRENCH));
+        Book rock = bookService.save(author.getId(), book("The Rock of Tanios", "Lattès", 1993, Book.Language.ENGLISH));
+
+        FacetedBooks english = bookService.findByFacets(
+                new BookFilter(null, "Lattès", null, null, Book.Language.ENGLISH), null, 10);
+        assertThat(english.books()).extracting(Book::getId).containsExactly(rock.getId());
+        assertThat(english.total()).isEqualTo(1);
+        assertThat(english.languages()).containsEntry(Book.Language.FRENCH, 2L).containsEntry(Book.Language.ENGLISH, 1L);
+        assertThat(english.decades()).containsExactly(Map.entry(1990, 1L));
+        assertThat(english.publishers()).containsEntry("Lattès", 1L);
+
+        BookFilter eighties = new BookFilter("A", "Lattès", (short) 1980, (short) 1989, null);
+        assertThat(bookService.findByFacets(eighties, null, 10).books()).extracting(Book::getId)
+                .containsExactly(leon.getId(), samarcande.getId());
+        assertThat(bookService.findByFacets(eighties, leon.getId(), 10).books()).extracting(Book::getId)
+                .containsExactly(samarcande.getId());
+    }
+
+    private static Author author(String fullName) {
+        Author author = new Author();
+        author.setFullName(fullName);
+        return author;
+    }
+
+    private static Book book(String title, String publisher, int year, Book.Language language) {
+        Book book = book(title);
+        book.setPublisher(publisher);
+        book.setYear((short) year);
+        book.setLanguage(language);
+        return book;
+    }
+
+    private static Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(nextIsbn.getAndAdd(1000));
+        book.setPublisher("Pocket");
+        book.setYear((short) 1862);
+        book.setLanguage(Book.Language.FRENCH);
+        return book;
+    }
+}
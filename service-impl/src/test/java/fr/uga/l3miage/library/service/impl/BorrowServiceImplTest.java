@@ -0,0 +1,142 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.LibrarianService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = TestApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BorrowServiceImplTest {
+
+    @Autowired
+    AuthorService authorService;
+    @Autowired
+    BookService bookService;
+    @Autowired
+    BorrowerService borrowerService;
+    @Autowired
+    LibrarianService librarianService;
+    @Autowired
+    BorrowService borrowService;
+
+    Long borrower;
+    Long librarian;
+    List<Long> books = new ArrayList<>();
+
+    @BeforeAll
+    void populate() throws EntityNotFoundException {
+        Borrower b = new Borrower();
+        b.setFirstName("Jane");
+        b.setLastName("Doe");
+        borrower = borrowerService.save(b).getId();
+        Librarian l = new Librarian();
+        l.setFirstName("John");
+        l.setLastName("Smith");
+        librarian = librarianService.save(l).getId();
+
+        Author author = new Author();
+        author.setFullName("Jules Verne");
+        author = authorService.save(author);
+        for (int i = 0; i < 4; i++) {
+            Book book = new Book();
+            book.setTitle("Voyage " + i);
+            book.setLanguage(Book.Language.FRENCH);
+            books.add(bookService.save(author.getId(), book).getId());
+        }
+    }
+
+    @Test
+    void borrowIsAllOrNothing() throws Exception {
+        Borrow first = borrowService.borrow(borrower, librarian, List.of(books.get(1)), tomorrow());
+
+        assertThatThrownBy(() -> borrowService.borrow(borrower, librarian, books.subList(0, 2), tomorrow()))
+                .isInstanceOf(BookUnavailableException.class);
+        assertThat(borrowService.isAvailable(books.get(0))).isTrue();
+
+        borrowService.giveBack(first.getId());
+        assertThat(borrowService.isAvailable(books.get(1))).isTrue();
+        assertThatThrownBy(() -> borrowService.giveBack(first.getId())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void overdueIsReadFromTheEndDate() throws Exception {
+        Date now = new Date();
+        Borrow late = borrowService.borrow(borrower, librarian, List.of(books.get(2)), new Date(now.getTime() - 1000));
+
+        assertThat(borrowService.findOverdue(now)).extracting(Borrow::getId).contains(late.getId());
+        borrowService.giveBack(late.getId());
+        assertThat(borrowService.findOverdue(now)).extracting(Borrow::getId).doesNotContain(late.getId());
+    }
+
+    @Test
+    void overdueIsFlaggedOnce() throws Exception {
+        Date now = new Date();
+        Borrow late = borrowService.borrow(borrower, librarian, List.of(books.get(0)), new Date(now.getTime() - 1000));
+
+        assertThat(borrowService.flagOverdue(now)).extracting(Borrow::getId).contains(late.getId());
+        assertThat(borrowService.flagOverdue(now)).extracting(Borrow::getId).doesNotContain(late.getId());
+        assertThat(borrowService.giveBack(late.getId()).isOverdue()).isTrue();
+    }
+
+    @Test
+    void concurrentBorrowsOfTheSameBookHaveASingleWinner() throws Exception {
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Borrow>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return borrowService.borrow(borrower, librarian, List.of(books.get(3)), tomorrow());
+                    } catch (BookUnavailableException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+
+            // every borrow is settled before giving back, or a borrow still waiting for the lock could win as well
+            List<Borrow> winners = new ArrayList<>();
+            for (Future<Borrow> result : results) {
+                if (result.get() != null) {
+                    winners.add(result.get());
+                }
+            }
+            assertThat(winners).hasSize(1);
+            borrowService.giveBack(winners.get(0).getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Date tomorrow() {
+        return new Date(System.currentTimeMillis() + 24 * 3600 * 1000);
+    }
+}
@@ -0,0 +1,32 @@
+package fr.uga.l3miage.library.service.impl;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records every SQL statement prepared by Hibernate, a batched statement is prepared (and recorded) once per batch.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    static void reset() {
+        statements.clear();
+    }
+
+    static List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    static long count(String prefix) {
+        return statements.stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+}
@@ -0,0 +1,7 @@
+package fr.uga.l3miage.library.service.impl;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+class TestApplication {
+}
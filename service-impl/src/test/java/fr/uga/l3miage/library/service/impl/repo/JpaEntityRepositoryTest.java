@@ -0,0 +1,72 @@
+package fr.uga.l3miage.library.service.impl.repo;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.repo.Repository;
+import fr.uga.l3miage.library.service.impl.JpaConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The same contract as the in-memory engine, see {@code IdMapRepositoryTest} in service-mock. The database may hold
+ * borrowers of other tests, with lower ids: the pages are only checked from the ones saved here.
+ */
+@SpringBootTest(classes = {JpaConfig.class, JpaEntityRepositoryTest.Config.class})
+@Transactional
+class JpaEntityRepositoryTest {
+
+    @EnableAutoConfiguration
+    static class Config {
+    }
+
+    @Autowired
+    Repository<Borrower, Long> repository;
+
+    @Test
+    void newEntitiesAreGivenAnId() {
+        Borrower jane = repository.save(borrower("Jane"));
+        assertThat(jane.getId()).isNotNull();
+        assertThat(repository.findById(jane.getId())).isSameAs(jane);
+
+        Borrower renamed = borrower("Janet");
+        renamed.setId(jane.getId());
+        repository.save(renamed);
+        assertThat(repository.findById(jane.getId()).getFirstName()).isEqualTo("Janet");
+        assertThat(repository.getAll()).filteredOn(b -> b.getId().equals(jane.getId())).hasSize(1);
+    }
+
+    @Test
+    void batchAndStreamingVariants() {
+        Borrower jane = borrower("Jane");
+        Borrower john = borrower("John");
+        Borrower joan = borrower("Joan");
+        repository.saveAll(List.of(jane, john, joan));
+
+        assertThat(repository.findAllById(List.of(joan.getId(), Long.MAX_VALUE, jane.getId())))
+                .containsExactlyInAnyOrder(jane, joan);
+        assertThat(repository.stream()).containsSubsequence(jane, john, joan);
+        assertThat(repository.getAll()).containsSubsequence(jane, john, joan);
+        assertThat(repository.findAfter(jane.getId(), 1)).containsExactly(john);
+        assertThat(repository.findAfter(john.getId(), 2)).startsWith(joan);
+
+        repository.delete(john);
+        assertThat(repository.findById(john.getId())).isNull();
+        assertThat(repository.existsById(john.getId())).isFalse();
+        assertThat(repository.findById(null)).isNull();
+        assertThat(repository.existsById(null)).isFalse();
+        assertThat(repository.existsById(joan.getId())).isTrue();
+        assertThat(repository.findAfter(jane.getId(), 10)).startsWith(joan);
+    }
+
+    private static Borrower borrower(String firstName) {
+        Borrower borrower = new Borrower();
+        borrower.setFirstName(firstName);
+        return borrower;
+    }
+}
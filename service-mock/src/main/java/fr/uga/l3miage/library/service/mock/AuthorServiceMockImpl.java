@@ -3,27 +3,39 @@ package fr.uga.l3miage.library.service.mock;
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
 import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Lookup;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class AuthorServiceMockImpl implements AuthorService {
 
     @Override
     public Collection<Author> searchByName(String name) {
-        return MockData.authors.values()
+        return MockData.authorNames.search(name)
                 .stream()
-                .filter(author -> author.getFullName().toLowerCase().contains(name.toLowerCase()))
+                .map(MockData.authors::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
 
+    @Override
+    public Collection<Author> searchByName(String name, Long after, int limit) {
+        return MockData.page(MockData.authors, MockData.authorNames.search(name), after, limit);
+    }
+
     @Override
     public Author save(Author author) {
         author.setId(MockData.getNextId(Author.class));
@@ -31,56 +43,132 @@ public class AuthorServiceMockImpl implements AuthorService {
         return author;
     }
 
+    @Override
+    public Collection<Author> saveAll(Collection<Author> authors) {
+        for (Author author : authors) {
+            author.setId(MockData.getNextId(Author.class));
+        }
+        // indexed first, so that an author deleted as soon as it is stored does not stay in the index
+        MockData.authorNames.putAll(authors, Author::getId, Author::getFullName);
+        authors.forEach(author -> MockData.authors.put(author.getId(), author));
+        return authors;
+    }
+
     @Override
     public Author get(Long id) throws EntityNotFoundException {
         return doGet(id);
     }
 
+    @Override
+    public Lookup<Author, Long> getAll(Collection<Long> ids) {
+        return Lookup.of(ids, MockData.authors::get);
+    }
+
     static Author doGet(Long id) throws EntityNotFoundException {
         return Optional.ofNullable(MockData.authors.get(id))
                 .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + id));
     }
 
+    @Override
+    public boolean exists(Long id) {
+        return MockData.authors.containsKey(id);
+    }
+
     @Override
     public Collection<Author> list() {
-        return MockData.authors.values().stream().toList();
+        return Collections.unmodifiableCollection(MockData.authors.values());
     }
 
     @Override
-    public Author update(Author author) throws EntityNotFoundException {
-        get(author.getId());
-        doUpdate(author);
-        return MockData.authors.get(author.getId());
+    public Collection<Author> list(Long after, int limit) {
+        return MockData.page(MockData.authors, after, limit);
     }
 
     @Override
-    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
-        Set<Book> books = get(id)
-                .getBooks();
-        if (books != null) {
-
-            Optional<Integer> bookWithManyAuthor = books.stream()
-                    .map(Book::getAuthors)
-                    .filter(Objects::nonNull)
-                    .map(Collection::size)
-                    .filter(s -> s > 1)
-                    .findFirst();
-
-            if (bookWithManyAuthor.isPresent()) {
-                throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+    public Author update(Author author) throws EntityNotFoundException, ConcurrentUpdateException {
+        ReentrantLock lock = MockData.lockAuthor(author.getId());
+        lock.lock();
+        try {
+            Author current = get(author.getId());
+            if (author.getVersion() != current.getVersion()) {
+                throw new ConcurrentUpdateException("Author " + author.getId() + " is at version "
+                        + current.getVersion() + ", not " + author.getVersion());
             }
+            // copy-on-write, the author given is left to the caller
+            Author updated = new Author();
+            updated.setId(current.getId());
+            updated.setFullName(author.getFullName());
+            updated.setBooks(current.getBooks());
+            updated.setVersion(current.getVersion() + 1);
+
+            // the books of the compact catalogue look their authors up, the others refer to the new one
+            Set<Book> books = current.getBooks() == null || current.getBooks() instanceof CompactCatalogue.AuthorBooks
+                    ? Set.of() : current.getBooks();
+            List<ReentrantLock> bookLocks = MockData.lockBooks(books.stream().map(Book::getId).toList());
+            bookLocks.forEach(ReentrantLock::lock);
+            try {
+                for (Book book : books) {
+                    Set<Author> authors = new HashSet<>(book.getAuthors());
+                    authors.remove(current);
+                    authors.add(updated);
+                    book.setAuthors(authors);
+                }
+                doUpdate(updated);
+            } finally {
+                bookLocks.forEach(ReentrantLock::unlock);
+            }
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            books.stream().map(Book::getId).forEach(MockData.books::remove);
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        ReentrantLock lock = MockData.lockAuthor(id);
+        lock.lock();
+        try {
+            Set<Book> books = get(id).getBooks();
+            checkNotCoAuthored(id);
+            List<Long> bookIds = books == null ? List.of() : books.stream().map(Book::getId).toList();
+            // the books cannot gain an author while their stripes are held, the books of the author are then all solo
+            List<ReentrantLock> bookLocks = MockData.lockBooks(bookIds);
+            bookLocks.forEach(ReentrantLock::lock);
+            try {
+                checkNotCoAuthored(id);
+                for (Long bookId : bookIds) {
+                    Book removed = MockData.books.remove(bookId);
+                    if (removed == null) {
+                        removed = MockData.catalogue.get(bookId);
+                    }
+                    if (removed != null) {
+                        MockData.releaseIsbn(removed);
+                    }
+                }
+                MockData.catalogue.removeAll(bookIds);
+                MockData.bookTitles.removeAll(bookIds);
+                MockData.bookFacets.removeAll(bookIds);
+            } finally {
+                bookLocks.forEach(ReentrantLock::unlock);
+            }
 
+            MockData.authors.remove(id);
+            MockData.authorNames.remove(id);
+        } finally {
+            lock.unlock();
         }
 
-        MockData.authors.remove(id);
-
+    }
 
+    private static void checkNotCoAuthored(Long id) throws DeleteAuthorException {
+        if (MockData.coAuthoredBooks(id) > 0) {
+            throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+        }
     }
 
     private static void doUpdate(Author author) {
         MockData.authors.put(author.getId(), author);
+        MockData.authorNames.put(author.getId(), author.getFullName());
     }
 
 }
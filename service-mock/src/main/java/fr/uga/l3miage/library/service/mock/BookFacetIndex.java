@@ -0,0 +1,242 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.FacetedBooks;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Incrementally maintained bitmap indexes of the publisher, year and language of the books, for faceted search.
+ * <p>
+ * Each value of a facet has the {@link IdBitmap} of the ids of its books, a year range is the union of the bitmaps of
+ * its years. A search intersects the bitmaps of the filters, and counts the books of each value of a facet as the
+ * cardinality of its bitmap and the other filters, so neither the books nor the ids are visited for the counts. The
+ * values each book was indexed with are kept so that it can be removed by id.
+ * <p>
+ * Searches share a read lock, writes take the write lock.
+ */
+public class BookFacetIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdMap<Facets> indexed = new IdMap<>();
+    private final IdBitmap all = new IdBitmap();
+    private final Map<String, IdBitmap> publishers = new HashMap<>();
+    private final Map<Book.Language, IdBitmap> languages = new EnumMap<>(Book.Language.class);
+    private final NavigableMap<Short, IdBitmap> years = new TreeMap<>();
+
+    private record Facets(String publisher, short year, Book.Language language) {
+    }
+
+    /**
+     * Index or re-index a book
+     *
+     * @param book the book, replacing any previous one with its id
+     */
+    public void put(Book book) {
+        putAll(List.of(book));
+    }
+
+    /**
+     * @param books the books to index or re-index, all at once
+     */
+    public void putAll(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            for (Book book : books) {
+                index(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id id of the book to remove from the index
+     */
+    public void remove(Long id) {
+        removeAll(List.of(id));
+    }
+
+    /**
+     * @param ids ids of the books to remove from the index, all at once
+     */
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                Facets previous = indexed.remove(id);
+                if (previous != null) {
+                    unlink(id, previous);
+                    all.remove(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the index at once
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (Long id : all.page(null, Integer.MAX_VALUE)) {
+                indexed.remove(id);
+            }
+            all.clear();
+            publishers.clear();
+            languages.clear();
+            years.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param filter the filters, the title one excepted
+     * @param titled ids of the books whose title matches the title filter, null when there is none
+     * @param after  id of the last book of the previous page, excluded, or null for the first page
+     * @param limit  maximum number of books in the page
+     * @param books  gives the book of an id, or null when it was deleted since the search
+     * @return books passing every filter ordered by id, their number and the facet counts
+     */
+    public FacetedBooks search(BookFilter filter, Collection<Long> titled, Long after, int limit,
+                               Function<Long, Book> books) {
+        IdBitmap title = titled == null ? null : IdBitmap.of(titled);
+        List<Long> page;
+        long total;
+        Map<String, Long> publisherCounts = new TreeMap<>();
+        Map<Book.Language, Long> languageCounts = new EnumMap<>(Book.Language.class);
+        Map<Integer, Long> decadeCounts = new TreeMap<>();
+        lock.readLock().lock();
+        try {
+            // the titles are indexed apart, a book may have been deleted since
+            title = title == null ? null : title.and(all);
+            IdBitmap publisher = filter.publisher() == null ? null : bitmap(publishers.get(filter.publisher()));
+            IdBitmap language = filter.language() == null ? null : bitmap(languages.get(filter.language()));
+            IdBitmap year = filter.fromYear() == null && filter.toYear() == null ? null
+                    : yearsBetween(filter.fromYear(), filter.toYear());
+
+            // each facet is counted with the filters of the others only
+            count(publishers, and(title, year, language), publisherCounts);
+            count(languages, and(title, publisher, year), languageCounts);
+            IdBitmap decadesBase = and(title, publisher, language);
+            for (Map.Entry<Short, IdBitmap> entry : years.entrySet()) {
+                long count = cardinality(decadesBase, entry.getValue());
+                if (count > 0) {
+                    decadeCounts.merge(FacetedBooks.decade(entry.getKey()), count, Long::sum);
+                }
+            }
+
+            IdBitmap found = and(title, publisher, year, language);
+            page = found.page(after, limit);
+            total = found.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Book> found = page.stream()
+                .map(books)
+                .filter(Objects::nonNull)
+                .toList();
+        return new FacetedBooks(found, total, publisherCounts, languageCounts, decadeCounts);
+    }
+
+    /**
+     * @return the number of indexed books
+     */
+    public int size() {
+        return indexed.size();
+    }
+
+    private void index(Book book) {
+        Facets facets = new Facets(book.getPublisher(), book.getYear(), book.getLanguage());
+        Facets previous = indexed.put(book.getId(), facets);
+        if (facets.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            unlink(book.getId(), previous);
+        }
+        all.add(book.getId());
+        if (facets.publisher() != null) {
+            publishers.computeIfAbsent(facets.publisher(), p -> new IdBitmap()).add(book.getId());
+        }
+        if (facets.language() != null) {
+            languages.computeIfAbsent(facets.language(), l -> new IdBitmap()).add(book.getId());
+        }
+        years.computeIfAbsent(facets.year(), y -> new IdBitmap()).add(book.getId());
+    }
+
+    private void unlink(Long id, Facets facets) {
+        if (facets.publisher() != null) {
+            removeFrom(publishers, facets.publisher(), id);
+        }
+        if (facets.language() != null) {
+            removeFrom(languages, facets.language(), id);
+        }
+        removeFrom(years, facets.year(), id);
+    }
+
+    private static <K> void removeFrom(Map<K, IdBitmap> bitmaps, K value, Long id) {
+        IdBitmap bitmap = bitmaps.get(value);
+        if (bitmap != null && bitmap.remove(id) && bitmap.isEmpty()) {
+            bitmaps.remove(value);
+        }
+    }
+
+    private IdBitmap yearsBetween(Short from, Short to) {
+        short first = from == null ? Short.MIN_VALUE : from;
+        short last = to == null ? Short.MAX_VALUE : to;
+        IdBitmap union = new IdBitmap();
+        if (first > last) {
+            return union;
+        }
+        for (IdBitmap bitmap : years.subMap(first, true, last, true).values()) {
+            union = union.or(bitmap);
+        }
+        return union;
+    }
+
+    /**
+     * @param filters bitmaps of the filters, null for a facet not filtered
+     * @return their intersection, all the books when no facet is filtered
+     */
+    private IdBitmap and(IdBitmap... filters) {
+        IdBitmap and = null;
+        for (IdBitmap filter : filters) {
+            if (filter != null) {
+                and = and == null ? filter : and.and(filter);
+            }
+        }
+        return and == null ? all : and;
+    }
+
+    private <K> void count(Map<K, IdBitmap> bitmaps, IdBitmap base, Map<K, Long> counts) {
+        for (Map.Entry<K, IdBitmap> entry : bitmaps.entrySet()) {
+            long count = cardinality(base, entry.getValue());
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+    }
+
+    private long cardinality(IdBitmap base, IdBitmap bitmap) {
+        return base == all ? bitmap.cardinality() : base.andCardinality(bitmap);
+    }
+
+    private static IdBitmap bitmap(IdBitmap bitmap) {
+        return bitmap == null ? new IdBitmap() : bitmap;
+    }
+}
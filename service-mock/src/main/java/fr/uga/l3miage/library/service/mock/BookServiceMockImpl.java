@@ -3,15 +3,31 @@ package fr.uga.l3miage.library.service.mock;
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
 import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookFilter;
 import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
+@Profile("!compact")
 public class BookServiceMockImpl implements BookService {
 
     private final AuthorService authorService;
@@ -23,15 +39,96 @@ public class BookServiceMockImpl implements BookService {
 
     @Override
     public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        // resolved before the isbn is claimed, a missing author leaves nothing behind
+        AuthorServiceMockImpl.doGet(authorId);
         book.setId(MockData.getNextId(Book.class));
+        MockData.claimIsbn(book);
         doSave(book);
 
-        Author author = bind(authorId, book);
+        try {
+            return bind(authorId, book.getId());
+        } catch (EntityNotFoundException e) {
+            // the author was deleted since it was resolved
+            MockData.books.remove(book.getId());
+            MockData.bookTitles.remove(book.getId());
+            MockData.bookFacets.remove(book.getId());
+            MockData.releaseIsbn(book);
+            throw e;
+        }
+    }
+
+
+    @Override
+    public Collection<Book> saveAll(Collection<Book> books) throws EntityNotFoundException {
+        // resolve every author before writing anything
+        Map<Author, List<Book>> booksByAuthor = new LinkedHashMap<>();
+        List<Set<Author>> authorsByBook = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (book.getAuthors() == null || book.getAuthors().isEmpty()) {
+                throw new IllegalArgumentException("a book must have at least one author");
+            }
+            Set<Author> authors = new HashSet<>();
+            for (Author reference : book.getAuthors()) {
+                Author author = authorService.get(reference.getId());
+                authors.add(author);
+                booksByAuthor.computeIfAbsent(author, a -> new ArrayList<>()).add(book);
+            }
+            authorsByBook.add(authors);
+        }
 
-        authorService.update(author);
-        return book;
+        Iterator<Set<Author>> authors = authorsByBook.iterator();
+        List<Book> claimed = new ArrayList<>(books.size());
+        // every stripe is taken before anything is linked, so that no author can be deleted half way through
+        List<ReentrantLock> locks = MockData.lockAuthors(booksByAuthor.keySet().stream().map(Author::getId).toList());
+        try {
+            for (Book book : books) {
+                book.setId(MockData.getNextId(Book.class));
+                book.setAuthors(authors.next());
+                MockData.claimIsbn(book);
+                claimed.add(book);
+            }
+            locks.forEach(ReentrantLock::lock);
+            try {
+                link(booksByAuthor);
+                doSaveAll(books);
+            } finally {
+                locks.forEach(ReentrantLock::unlock);
+            }
+        } catch (EntityNotFoundException | RuntimeException e) {
+            claimed.forEach(MockData::releaseIsbn);
+            throw e;
+        }
+        return books;
     }
 
+    /**
+     * Checks that every author is still in the store, then adds the books to them, under the stripes of all the
+     * authors so that either all of them are linked or none is
+     */
+    private static void link(Map<Author, List<Book>> booksByAuthor) throws EntityNotFoundException {
+        Map<Author, Author> currents = new LinkedHashMap<>();
+        for (Author author : booksByAuthor.keySet()) {
+            Author current = MockData.authors.get(author.getId());
+            if (current == null) {
+                throw new EntityNotFoundException("Cannot find author with id: " + author.getId());
+            }
+            currents.put(author, current);
+        }
+        // one copy of the association per author rather than one per book
+        for (Map.Entry<Author, List<Book>> entry : booksByAuthor.entrySet()) {
+            Author author = entry.getKey();
+            Author current = currents.get(author);
+            if (current != author) {
+                // updated since it was resolved, the books refer to the one which replaced it
+                replaceAuthor(entry.getValue(), author, current);
+            }
+            current.setBooks(copyWith(current.getBooks(), entry.getValue()));
+            int coAuthored = (int) entry.getValue().stream().filter(book -> book.getAuthors().size() > 1).count();
+            if (coAuthored > 0) {
+                MockData.addCoAuthored(author.getId(), coAuthored);
+            }
+        }
+    }
 
     @Override
     public Book get(Long id) throws EntityNotFoundException {
@@ -39,33 +136,116 @@ public class BookServiceMockImpl implements BookService {
                 .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
     }
 
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return MockData.getByIsbn(isbn, MockData.books::get);
+    }
+
+    @Override
+    public Lookup<Book, Long> getAll(Collection<Long> ids) {
+        // a lock-free read of the map per id
+        return Lookup.of(ids, MockData.books::get);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return MockData.books.containsKey(id);
+    }
+
     @Override
     public Collection<Book> list() {
-        return MockData.books.values().stream().toList();
+        return Collections.unmodifiableCollection(MockData.books.values());
     }
 
     @Override
-    public Book update(Book book) throws EntityNotFoundException {
-        get(book.getId());
-        doSave(book);
-        return MockData.books.get(book.getId());
+    public Collection<Book> list(Long after, int limit) {
+        return MockData.page(MockData.books, after, limit);
+    }
+
+    /**
+     * Replaces the book by a copy of the one given, but for its authors which are changed with
+     * {@link #addAuthor(Long, Long)}
+     */
+    @Override
+    public Book update(Book book) throws EntityNotFoundException, ConcurrentUpdateException {
+        while (true) {
+            Book current = get(book.getId());
+            Set<Author> authors = current.getAuthors();
+            List<ReentrantLock> locks = new ArrayList<>(
+                    MockData.lockAuthors(authors == null ? List.of() : authors.stream().map(Author::getId).toList()));
+            locks.add(MockData.lockBook(book.getId()));
+            locks.forEach(ReentrantLock::lock);
+            try {
+                // the book or its authors changed before the stripes were taken, they may not be the right ones
+                if (MockData.books.get(book.getId()) == current && current.getAuthors() == authors) {
+                    return replace(current, book);
+                }
+            } finally {
+                locks.forEach(ReentrantLock::unlock);
+            }
+        }
     }
 
     public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
-        var book = get(bookId);
-        bind(authorId, book);
-        return book;
+        return bind(authorId, bookId);
     }
 
+    /**
+     * Unlinks the book from its authors then removes it, under the stripes of its authors then of the book, in the
+     * order of {@link #addAuthor(Long, Long)}
+     */
     @Override
     public void delete(Long id) throws EntityNotFoundException {
-        get(id);
-        MockData.books.remove(id);
+        while (true) {
+            Book current = get(id);
+            Set<Author> authors = current.getAuthors();
+            List<ReentrantLock> locks = new ArrayList<>(
+                    MockData.lockAuthors(authors == null ? List.of() : authors.stream().map(Author::getId).toList()));
+            locks.add(MockData.lockBook(id));
+            locks.forEach(ReentrantLock::lock);
+            try {
+                // the book or its authors changed before the stripes were taken, they may not be the right ones
+                if (MockData.books.get(id) != current || current.getAuthors() != authors) {
+                    continue;
+                }
+                if (authors != null) {
+                    for (Author author : authors) {
+                        // the current one, the updates replace it
+                        Author linked = MockData.authors.get(author.getId());
+                        if (linked != null && linked.getBooks() != null) {
+                            linked.setBooks(copyWithout(linked.getBooks(), id));
+                        }
+                    }
+                }
+                MockData.books.remove(id);
+                MockData.coAuthorsChanged(authors, null);
+                MockData.releaseIsbn(current);
+                MockData.bookTitles.remove(id);
+                MockData.bookFacets.remove(id);
+                return;
+            } finally {
+                locks.forEach(ReentrantLock::unlock);
+            }
+        }
     }
 
     @Override
     public Collection<Book> findByTitle(String title) {
-        return filterBooks(MockData.books.values(), title);
+        return MockData.bookTitles.search(title)
+                .stream()
+                .map(MockData.books::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title, Long after, int limit) {
+        return MockData.page(MockData.books, MockData.bookTitles.search(title), after, limit);
+    }
+
+    @Override
+    public FacetedBooks findByFacets(BookFilter filter, Long after, int limit) {
+        return MockData.findByFacets(filter, after, limit, MockData.books::get);
     }
 
     @Override
@@ -80,20 +260,118 @@ public class BookServiceMockImpl implements BookService {
     }
 
 
-    private Author bind(Long authorId, Book book) throws EntityNotFoundException {
-        Author author = authorService.get(authorId);
-        author.addBook(book);
-        book.addAuthor(author);
-        return author;
+    private Book bind(Long authorId, Long bookId) throws EntityNotFoundException {
+        ReentrantLock authorLock = MockData.lockAuthor(authorId);
+        ReentrantLock bookLock = MockData.lockBook(bookId);
+        authorLock.lock();
+        bookLock.lock();
+        try {
+            // the current ones, the updates replace them
+            Author author = AuthorServiceMockImpl.doGet(authorId);
+            Book book = get(bookId);
+            // copy-on-write so that readers iterating the association never see it being modified
+            author.setBooks(copyWith(author.getBooks(), List.of(book)));
+            boolean added = book.getAuthors() == null || !book.getAuthors().contains(author);
+            Set<Author> authors = copyWith(book.getAuthors(), List.of(author));
+            MockData.coAuthorsChanged(book.getAuthors(), authors);
+            book.setAuthors(authors);
+            if (added) {
+                book.setVersion(book.getVersion() + 1);
+            }
+            return book;
+        } finally {
+            bookLock.unlock();
+            authorLock.unlock();
+        }
+    }
+
+    /**
+     * @param current the book as it is in the store, its stripe and the ones of its authors held
+     * @param book    the book given to update it
+     * @return the copy of the book given which replaced the current one
+     */
+    private static Book replace(Book current, Book book) throws ConcurrentUpdateException {
+        if (book.getVersion() != current.getVersion()) {
+            throw new ConcurrentUpdateException("Book " + book.getId() + " is at version " + current.getVersion()
+                    + ", not " + book.getVersion());
+        }
+        Book updated = new Book();
+        updated.setId(current.getId());
+        updated.setTitle(book.getTitle());
+        updated.setIsbn(book.getIsbn());
+        updated.setPublisher(book.getPublisher());
+        updated.setYear(book.getYear());
+        updated.setLanguage(book.getLanguage());
+        updated.setAuthors(current.getAuthors());
+        updated.setVersion(current.getVersion() + 1);
+        // claimed before the book is replaced, released once it is
+        boolean isbnChanged = updated.getIsbn() != current.getIsbn();
+        if (isbnChanged) {
+            MockData.claimIsbn(updated);
+        }
+        doSave(updated);
+        if (isbnChanged) {
+            MockData.releaseIsbn(current);
+        }
+        if (current.getAuthors() != null) {
+            for (Author author : current.getAuthors()) {
+                Set<Book> books = new HashSet<>(author.getBooks());
+                // unless a deletion already unlinked it
+                if (books.remove(current)) {
+                    books.add(updated);
+                    author.setBooks(books);
+                }
+            }
+        }
+        return updated;
+    }
+
+    private static void replaceAuthor(Collection<Book> books, Author previous, Author current) {
+        List<ReentrantLock> locks = MockData.lockBooks(books.stream().map(Book::getId).toList());
+        locks.forEach(ReentrantLock::lock);
+        try {
+            for (Book book : books) {
+                Set<Author> authors = new HashSet<>(book.getAuthors());
+                authors.remove(previous);
+                authors.add(current);
+                book.setAuthors(authors);
+            }
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    private static <T> Set<T> copyWith(Set<T> set, Collection<T> elements) {
+        Set<T> copy = set == null ? new HashSet<>() : new HashSet<>(set);
+        copy.addAll(elements);
+        return copy;
+    }
+
+    private static Set<Book> copyWithout(Set<Book> books, Long bookId) {
+        Set<Book> copy = new HashSet<>(books);
+        copy.removeIf(book -> book.getId().equals(bookId));
+        return copy;
     }
 
     private static void doSave(Book book) {
         MockData.books.put(book.getId(), book);
+        MockData.bookTitles.put(book.getId(), book.getTitle());
+        MockData.bookFacets.put(book);
+    }
+
+    private static void doSaveAll(Collection<Book> books) {
+        // indexed first, so that a book deleted as soon as it is stored does not stay in the index
+        MockData.bookTitles.putAll(books, Book::getId, Book::getTitle);
+        for (Book book : books) {
+            MockData.books.put(book.getId(), book);
+            MockData.bookFacets.put(book);
+        }
     }
 
     private static Collection<Book> filterBooks(Collection<Book> books, String title) {
+        String query = NGramIndex.normalize(title);
         return books.stream()
-                .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
+                .filter(book -> MockData.bookTitles.matches(book.getId(), query))
                 .toList();
     }
 
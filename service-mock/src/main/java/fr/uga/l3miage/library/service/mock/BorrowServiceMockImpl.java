@@ -0,0 +1,177 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowEvent;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.LibrarianService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Books are claimed one at a time in {@link MockData#loans} with {@code putIfAbsent}, so two borrows only contend when
+ * they ask for the same book, and no lock is ever held. A borrow that fails on its n-th book releases the n-1 it
+ * already claimed before throwing, so that it is all or nothing. Such a failing borrow may briefly hold a book and make
+ * a concurrent borrow of it fail too: claims are made in book id order, so that some borrow of a contended set still
+ * always succeeds.
+ */
+@Component
+public class BorrowServiceMockImpl implements BorrowService {
+
+    private final BorrowerService borrowerService;
+    private final LibrarianService librarianService;
+    private final BookService bookService;
+    private final ApplicationEventPublisher events;
+
+    @Autowired
+    public BorrowServiceMockImpl(BorrowerService borrowerService, LibrarianService librarianService, BookService bookService,
+                                 ApplicationEventPublisher events) {
+        this.borrowerService = borrowerService;
+        this.librarianService = librarianService;
+        this.bookService = bookService;
+        this.events = events;
+    }
+
+    @Override
+    public Borrow borrow(Long borrowerId, Long librarianId, Collection<Long> bookIds, Date end)
+            throws EntityNotFoundException, BookUnavailableException {
+        if (bookIds == null || bookIds.isEmpty()) {
+            throw new IllegalArgumentException("a borrow must have at least one book");
+        }
+        Objects.requireNonNull(end, "a borrow must have an end date");
+        Borrower borrower = borrowerService.get(borrowerId);
+        Librarian librarian = librarianService.get(librarianId);
+        Set<Book> books = new HashSet<>();
+        for (Long bookId : bookIds) {
+            books.add(bookService.get(bookId));
+        }
+
+        Borrow borrow = new Borrow();
+        borrow.setId(MockData.getNextId(Borrow.class));
+        borrow.setBorrower(borrower);
+        borrow.setLibrarian(librarian);
+        borrow.setBooks(books);
+        borrow.setStart(new Date());
+        borrow.setEnd(end);
+
+        List<Long> claimed = new ArrayList<>(books.size());
+        for (Long bookId : new TreeSet<>(bookIds)) {
+            Long holder = MockData.loans.putIfAbsent(bookId, borrow.getId());
+            if (holder != null) {
+                claimed.forEach(id -> MockData.loans.remove(id, borrow.getId()));
+                throw new BookUnavailableException("Book " + bookId + " is already borrowed by borrow " + holder);
+            }
+            claimed.add(bookId);
+        }
+        MockData.borrows.put(borrow.getId(), borrow);
+        MockData.outstanding.put(borrow.getId(), false);
+        MockData.dues.add(new MockData.Due(borrow));
+        events.publishEvent(new BorrowEvent(BorrowEvent.Type.CREATED, borrow.getId(), borrowerId, end, null, false));
+        return borrow;
+    }
+
+    @Override
+    public Borrow giveBack(Long id) throws EntityNotFoundException {
+        Borrow borrow = get(id);
+        // the borrow leaves outstanding exactly once, which makes concurrent returns of the same borrow safe
+        Boolean overdue = MockData.outstanding.remove(id);
+        if (overdue == null) {
+            throw new IllegalStateException("Borrow " + id + " was already returned");
+        }
+        MockData.dues.remove(new MockData.Due(borrow));
+        borrow.setReturned(new Date());
+        for (Book book : borrow.getBooks()) {
+            MockData.loans.remove(book.getId(), id);
+        }
+        events.publishEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, id, borrow.getBorrower().getId(), borrow.getEnd(),
+                borrow.getReturned(), overdue));
+        return borrow;
+    }
+
+    @Override
+    public boolean isAvailable(Long bookId) {
+        return !MockData.loans.containsKey(bookId);
+    }
+
+    @Override
+    public Collection<Borrow> findOverdue(Date now) {
+        return MockData.dues.headSet(new MockData.Due(now.getTime(), Long.MIN_VALUE))
+                .stream()
+                .map(due -> MockData.borrows.get(due.borrowId()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public Collection<Borrow> flagOverdue(Date now) {
+        List<Borrow> flagged = new ArrayList<>();
+        for (MockData.Due due : MockData.dues.headSet(new MockData.Due(now.getTime(), Long.MIN_VALUE))) {
+            // fails if the borrow was flagged by a previous call or returned in the meantime
+            if (MockData.outstanding.replace(due.borrowId(), false, true)) {
+                Borrow borrow = MockData.borrows.get(due.borrowId());
+                borrow.setOverdue(true);
+                flagged.add(borrow);
+                events.publishEvent(new BorrowEvent(BorrowEvent.Type.OVERDUE, borrow.getId(), borrow.getBorrower().getId(),
+                        borrow.getEnd(), null, true));
+            }
+        }
+        return flagged;
+    }
+
+    @Override
+    public Collection<Borrow> findByBorrower(Long borrowerId) throws EntityNotFoundException {
+        borrowerService.get(borrowerId);
+        return MockData.borrows.values()
+                .stream()
+                .filter(borrow -> borrowerId.equals(borrow.getBorrower().getId()))
+                .toList();
+    }
+
+    @Override
+    public Borrow get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(MockData.borrows.get(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + id));
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return MockData.borrows.containsKey(id);
+    }
+
+    @Override
+    public Collection<Borrow> list() {
+        return Collections.unmodifiableCollection(MockData.borrows.values());
+    }
+
+    @Override
+    public Collection<Borrow> list(Long after, int limit) {
+        return MockData.page(MockData.borrows, after, limit);
+    }
+
+    @Override
+    public Borrow update(Borrow borrow) throws EntityNotFoundException {
+        Borrow current = get(borrow.getId());
+        // books and dates are only changed through borrow() and giveBack(), which keep loans and dues consistent
+        current.setBorrower(borrow.getBorrower());
+        current.setLibrarian(borrow.getLibrarian());
+        return current;
+    }
+}
@@ -0,0 +1,56 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.repo.Repository;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Component
+public class BorrowerServiceMockImpl implements BorrowerService {
+
+    private final Repository<Borrower, Long> borrowers;
+
+    @Autowired
+    public BorrowerServiceMockImpl(Repository<Borrower, Long> borrowers) {
+        this.borrowers = borrowers;
+    }
+
+    @Override
+    public Borrower save(Borrower borrower) {
+        // always a new one, given its id by the engine
+        borrower.setId(null);
+        return borrowers.save(borrower);
+    }
+
+    @Override
+    public Borrower get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(borrowers.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrower with id: " + id));
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return borrowers.existsById(id);
+    }
+
+    @Override
+    public Collection<Borrower> list() {
+        return borrowers.getAll();
+    }
+
+    @Override
+    public Collection<Borrower> list(Long after, int limit) {
+        return borrowers.findAfter(after, limit);
+    }
+
+    @Override
+    public Borrower update(Borrower borrower) throws EntityNotFoundException {
+        get(borrower.getId());
+        return borrowers.save(borrower);
+    }
+}
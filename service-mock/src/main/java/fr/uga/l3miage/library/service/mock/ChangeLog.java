@@ -0,0 +1,222 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the changes made to the mock store since the last {@link SnapshotFile}, see
+ * {@link MockPersistence}.
+ * <pre>
+ * header: int magic "LLOG", short version, short 0
+ * change: int length of the payload, int crc32 of the payload, payload: long sequence, byte type, then the author or
+ *         book encoded by {@link StoreRecords} for a put, or the id for a delete
+ * </pre>
+ * A change records the state of the entity after it, so that replaying changes is idempotent. The log is replayed
+ * through a memory mapping up to the first change that is incomplete or does not match its checksum, the tail of a
+ * write cut short by a crash, and the file is truncated there before new changes are appended.
+ * <p>
+ * Changes are written to the file but not forced to the disk: they survive the process but not the machine crashing.
+ */
+final class ChangeLog implements Closeable {
+
+    static final int MAGIC = 0x4C4C4F47;
+    static final short VERSION = StoreRecords.VERSIONED;
+    static final int HEADER = 8;
+    private static final int FRAME = 2 * Integer.BYTES;
+
+    private static final byte PUT_AUTHOR = 1;
+    private static final byte DELETE_AUTHOR = 2;
+    private static final byte PUT_BOOK = 3;
+    private static final byte DELETE_BOOK = 4;
+
+    private final FileChannel channel;
+    private short version;
+    private long lastSequence;
+    private long changes;
+
+    private ChangeLog(FileChannel channel, short version, long lastSequence, long changes) {
+        this.channel = channel;
+        this.version = version;
+        this.lastSequence = lastSequence;
+        this.changes = changes;
+    }
+
+    /**
+     * Opens the log, creating it if needed, and replays the changes made after a snapshot
+     *
+     * @param file   path of the log
+     * @param after  sequence of the last change included in the snapshot, the changes up to it are skipped
+     * @param replay receives the changes made after the snapshot, in order
+     * @return the log, ready to append changes after the last complete one
+     * @throws IOException if the file cannot be read or is not a change log of a supported version
+     */
+    static ChangeLog open(Path file, long after, Replay replay) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER) {
+                writeHeader(channel);
+                return new ChangeLog(channel, VERSION, after, 0);
+            }
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("change log too large, a snapshot is needed: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt() != MAGIC) {
+                throw new IOException("not a change log: " + file);
+            }
+            short version = mapped.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("unsupported change log version " + version + ": " + file);
+            }
+            mapped.getShort();
+
+            long lastSequence = after;
+            long changes = 0;
+            CRC32 crc = new CRC32();
+            while (mapped.remaining() >= FRAME) {
+                int length = mapped.getInt(mapped.position());
+                int checksum = mapped.getInt(mapped.position() + Integer.BYTES);
+                if (length < Long.BYTES + 1 || length > mapped.remaining() - FRAME) {
+                    break;
+                }
+                ByteBuffer payload = mapped.slice(mapped.position() + FRAME, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                long sequence = payload.getLong();
+                if (sequence > after) {
+                    apply(payload, version, replay);
+                    lastSequence = sequence;
+                    changes++;
+                }
+                mapped.position(mapped.position() + FRAME + length);
+            }
+            if (mapped.hasRemaining()) {
+                // drops the incomplete tail
+                channel.truncate(mapped.position());
+            }
+            channel.position(mapped.position());
+            return new ChangeLog(channel, version, lastSequence, changes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the version of the file, changes can only be appended to a log of the current {@link #VERSION}
+     */
+    short version() {
+        return version;
+    }
+
+    /**
+     * @return the sequence of the last change, replayed or appended
+     */
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return the number of changes in the log after the snapshot
+     */
+    long changes() {
+        return changes;
+    }
+
+    void putAuthor(Author author) throws IOException {
+        append(PUT_AUTHOR, StoreRecords.encode(author));
+    }
+
+    void deleteAuthor(long id) throws IOException {
+        append(DELETE_AUTHOR, ByteBuffer.allocate(Long.BYTES).putLong(id).flip());
+    }
+
+    void putBook(Book book) throws IOException {
+        append(PUT_BOOK, StoreRecords.encode(book));
+    }
+
+    void deleteBook(long id) throws IOException {
+        append(DELETE_BOOK, ByteBuffer.allocate(Long.BYTES).putLong(id).flip());
+    }
+
+    /**
+     * Empties the log once a snapshot including all of its changes is written, it is then of the current version
+     */
+    void clear() throws IOException {
+        writeHeader(channel);
+        channel.force(false);
+        version = VERSION;
+        changes = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void append(byte type, ByteBuffer data) throws IOException {
+        if (version != VERSION) {
+            throw new IllegalStateException("change log of version " + version + ", a snapshot is needed first");
+        }
+        long sequence = lastSequence + 1;
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + 1 + data.remaining())
+                .putLong(sequence)
+                .put(type)
+                .put(data)
+                .flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer frame = ByteBuffer.allocate(FRAME).putInt(payload.remaining()).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] buffers = {frame, payload};
+        while (payload.hasRemaining()) {
+            channel.write(buffers);
+        }
+        lastSequence = sequence;
+        changes++;
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putShort(VERSION).putShort((short) 0).flip();
+        channel.truncate(0);
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.position(HEADER);
+    }
+
+    private static void apply(ByteBuffer payload, short version, Replay replay) {
+        switch (payload.get()) {
+            case PUT_AUTHOR -> replay.putAuthor(StoreRecords.decodeAuthor(payload, version));
+            case DELETE_AUTHOR -> replay.deleteAuthor(payload.getLong());
+            case PUT_BOOK -> replay.putBook(StoreRecords.decodeBook(payload, version));
+            case DELETE_BOOK -> replay.deleteBook(payload.getLong());
+            default -> throw new IllegalStateException("unknown change type");
+        }
+    }
+
+    /**
+     * Receives the changes replayed from the log
+     */
+    interface Replay {
+        void putAuthor(Author author);
+
+        void deleteAuthor(long id);
+
+        void putBook(Book book);
+
+        void deleteBook(long id);
+    }
+}
@@ -0,0 +1,260 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mock {@link BookService} keeping the books in the {@link CompactCatalogue} of the store instead of {@link Book}
+ * objects, deployed with the {@code compact} profile ({@code --spring.profiles.active=compact}).
+ * <p>
+ * Books returned are copies materialized from the catalogue, and the books of an author are a view of the catalogue.
+ * Only the blocking API is served this way, the reactive mock is not deployed with this profile.
+ */
+@Component
+@Profile("compact")
+public class CompactBookServiceMockImpl implements BookService {
+
+    private final AuthorService authorService;
+
+    @Autowired
+    public CompactBookServiceMockImpl(AuthorService authorService) {
+        this.authorService = authorService;
+        // the seed data is made of objects, moved to the catalogue
+        for (Book book : List.copyOf(MockData.books.values())) {
+            MockData.catalogue.append(book);
+            MockData.books.remove(book.getId());
+        }
+        for (Author author : MockData.authors.values()) {
+            author.setBooks(MockData.catalogue.booksOf(author.getId()));
+        }
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        Author author = authorService.get(authorId);
+        book.addAuthor(author);
+        return saveAll(List.of(book)).iterator().next();
+    }
+
+    @Override
+    public Collection<Book> saveAll(Collection<Book> books) throws EntityNotFoundException {
+        // resolve every author before writing anything
+        for (Book book : books) {
+            if (book.getAuthors() == null || book.getAuthors().isEmpty()) {
+                throw new IllegalArgumentException("a book must have at least one author");
+            }
+            for (Author reference : book.getAuthors()) {
+                authorService.get(reference.getId());
+            }
+        }
+        MockData.catalogue.addAll(books, CompactBookServiceMockImpl::claimIsbns);
+        MockData.bookTitles.putAll(books, Book::getId, Book::getTitle);
+        for (Book book : books) {
+            for (Author author : book.getAuthors()) {
+                linkBooks(author.getId());
+            }
+            MockData.coAuthorsChanged(null, book.getAuthors());
+            MockData.bookFacets.put(book);
+        }
+        return books;
+    }
+
+    @Override
+    public Book get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(MockData.catalogue.get(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
+    }
+
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return MockData.getByIsbn(isbn, MockData.catalogue::get);
+    }
+
+    @Override
+    public Lookup<Book, Long> getAll(Collection<Long> ids) {
+        return MockData.catalogue.getAll(ids);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return MockData.catalogue.contains(id);
+    }
+
+    @Override
+    public Collection<Book> list() {
+        return MockData.catalogue.values();
+    }
+
+    @Override
+    public Collection<Book> list(Long after, int limit) {
+        return MockData.catalogue.valuesAfter(after)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException, ConcurrentUpdateException {
+        ReentrantLock lock = MockData.lockBook(book.getId());
+        lock.lock();
+        try {
+            Book current = MockData.catalogue.get(book.getId());
+            if (current == null) {
+                throw new EntityNotFoundException("Cannot find book with id: " + book.getId());
+            }
+            // the stripe is held, the book keeps its ISBN until it is updated
+            boolean isbnChanged = book.getIsbn() != current.getIsbn();
+            if (isbnChanged) {
+                MockData.claimIsbn(book);
+            }
+            Book updated = MockData.catalogue.update(book);
+            if (updated == null || updated.getVersion() != book.getVersion() + 1) {
+                if (isbnChanged) {
+                    MockData.releaseIsbn(book);
+                }
+                if (updated == null) {
+                    throw new EntityNotFoundException("Cannot find book with id: " + book.getId());
+                }
+                throw new ConcurrentUpdateException("Book " + book.getId() + " is at version " + updated.getVersion()
+                        + ", not " + book.getVersion());
+            }
+            if (isbnChanged) {
+                MockData.releaseIsbn(current);
+            }
+            // under the stripe, so that the index follows the updates in order
+            MockData.bookTitles.put(book.getId(), book.getTitle());
+            MockData.bookFacets.put(updated);
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        ReentrantLock authorLock = MockData.lockAuthor(authorId);
+        ReentrantLock bookLock = MockData.lockBook(bookId);
+        authorLock.lock();
+        bookLock.lock();
+        try {
+            // the current one, an update may have replaced it
+            AuthorServiceMockImpl.doGet(authorId);
+            Book before = MockData.catalogue.get(bookId);
+            Book book = before == null ? null : MockData.catalogue.addAuthor(bookId, authorId);
+            if (book == null) {
+                throw new EntityNotFoundException("Cannot find book with id: " + bookId);
+            }
+            MockData.coAuthorsChanged(before.getAuthors(), book.getAuthors());
+            linkBooks(authorId);
+            return book;
+        } finally {
+            bookLock.unlock();
+            authorLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        ReentrantLock lock = MockData.lockBook(id);
+        lock.lock();
+        try {
+            Book book = MockData.catalogue.get(id);
+            if (book == null || !MockData.catalogue.remove(id)) {
+                throw new EntityNotFoundException("Cannot find book with id: " + id);
+            }
+            MockData.coAuthorsChanged(book.getAuthors(), null);
+            MockData.releaseIsbn(book);
+            MockData.bookTitles.remove(id);
+            MockData.bookFacets.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title) {
+        return MockData.bookTitles.search(title)
+                .stream()
+                .map(MockData.catalogue::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title, Long after, int limit) {
+        return MockData.bookTitles.search(title)
+                .stream()
+                .filter(id -> after == null || id > after)
+                .sorted()
+                .map(MockData.catalogue::get)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public FacetedBooks findByFacets(BookFilter filter, Long after, int limit) {
+        return MockData.findByFacets(filter, after, limit, MockData.catalogue::get);
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long authorId) throws EntityNotFoundException {
+        AuthorServiceMockImpl.doGet(authorId);
+        return MockData.catalogue.booksOf(authorId);
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long authorId, String title) throws EntityNotFoundException {
+        AuthorServiceMockImpl.doGet(authorId);
+        String query = NGramIndex.normalize(title);
+        return MockData.catalogue.booksOf(authorId)
+                .stream()
+                .filter(book -> MockData.bookTitles.matches(book.getId(), query))
+                .toList();
+    }
+
+    /**
+     * Makes the books of an author a view of the catalogue, for the authors created after this service
+     */
+    private static void linkBooks(Long authorId) {
+        Author author = MockData.authors.get(authorId);
+        if (author != null && !(author.getBooks() instanceof CompactCatalogue.AuthorBooks)) {
+            author.setBooks(MockData.catalogue.booksOf(authorId));
+        }
+    }
+
+    /**
+     * @param books books about to be added to the catalogue, their id set
+     * @throws DuplicateIsbnException if another book has the ISBN of one of them, then none is claimed
+     */
+    private static void claimIsbns(Collection<Book> books) {
+        List<Book> claimed = new ArrayList<>(books.size());
+        try {
+            for (Book book : books) {
+                MockData.claimIsbn(book);
+                claimed.add(book);
+            }
+        } catch (DuplicateIsbnException e) {
+            claimed.forEach(MockData::releaseIsbn);
+            throw e;
+        }
+    }
+
+}
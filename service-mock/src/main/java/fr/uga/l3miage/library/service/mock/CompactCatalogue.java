@@ -0,0 +1,589 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.base.Lookup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Books kept as columns of primitives rather than one {@link Book} object each, for the compact profile of the mock,
+ * see {@link CompactBookServiceMockImpl}.
+ * <p>
+ * Rows are appended in id order: a book is found by a binary search of the id column, and deleting it leaves a
+ * tombstone. Publishers and languages are small ids into dictionaries, titles are UTF-8 in one shared byte buffer and
+ * authors are author ids in one shared adjacency array (CSR), each row pointing to its slice of both. Changing the
+ * title or the authors of a book appends a new slice and leaves the old one unused. Once the tombstones, or the unused
+ * bytes of either buffer, are over half of it, the catalogue is compacted under the write lock: the live rows and
+ * slices are moved down, so that the columns grow with the live books and not with the writes. Rows move then, which is
+ * why books are iterated by id.
+ * <p>
+ * {@link Book}s are materialized when read, as detached copies: changing one changes nothing until it is given to
+ * {@link #update(Book)}. Reads are optimistic reads of a {@link StampedLock}, done again under its read lock when a
+ * write got in between, so that readers never block each other. Writes are serialized.
+ */
+public final class CompactCatalogue {
+
+    private static final Book.Language[] LANGUAGES = Book.Language.values();
+    private static final byte NO_LANGUAGE = 0;
+    private static final byte DELETED = -1;
+    private static final int NO_PUBLISHER = -1;
+    private static final int NO_TITLE = -1;
+    private static final long[] NONE = {};
+    // below which the unused rows, title bytes or author ids are not worth a compaction
+    private static final int COMPACT_MIN = 1024;
+
+    private final LongSupplier nextId;
+    private final LongFunction<Author> authors;
+    private final StampedLock lock = new StampedLock();
+
+    // one entry per row
+    private long[] ids = new long[16];
+    private long[] isbns = new long[16];
+    private short[] years = new short[16];
+    // ordinal + 1, NO_LANGUAGE or DELETED
+    private byte[] languages = new byte[16];
+    private int[] publishers = new int[16];
+    private int[] titleOffsets = new int[16];
+    private int[] titleLengths = new int[16];
+    private int[] authorOffsets = new int[16];
+    private short[] authorCounts = new short[16];
+    private long[] versions = new long[16];
+    private int rows;
+    private int live;
+
+    private byte[] titles = new byte[1024];
+    private int titlesEnd;
+    private int unusedTitleBytes;
+    private long[] authorIds = new long[16];
+    private int authorIdsEnd;
+    private int unusedAuthorIds;
+    private String[] publisherNames = new String[8];
+    // only read by writers
+    private final Map<String, Integer> publisherIds = new HashMap<>();
+
+    // author id -> ids of its books in ascending order, replaced on every change
+    private final IdMap<long[]> byAuthor = new IdMap<>();
+
+    /**
+     * @param nextId  id generator of the books
+     * @param authors finds the author of an id, to materialize the authors of the books
+     */
+    public CompactCatalogue(LongSupplier nextId, LongFunction<Author> authors) {
+        this.nextId = nextId;
+        this.authors = authors;
+    }
+
+    /**
+     * Adds books with new ids, greater than the ids of every book already in the catalogue. Only the ids of the authors
+     * of the books are kept.
+     *
+     * @param books the books to add
+     * @return the books with an id set, in the same order
+     */
+    public Collection<Book> addAll(Collection<Book> books) {
+        return addAll(books, added -> {
+        });
+    }
+
+    /**
+     * Adds books with new ids, as {@link #addAll(Collection)}, once they are admitted
+     *
+     * @param books the books to add
+     * @param admit given the books with their id set before any is added, throws to add none of them
+     * @return the books with an id set, in the same order
+     */
+    public Collection<Book> addAll(Collection<Book> books, Consumer<Collection<Book>> admit) {
+        long stamp = lock.writeLock();
+        try {
+            for (Book book : books) {
+                book.setId(nextId.getAsLong());
+            }
+            admit.accept(books);
+            for (Book book : books) {
+                appendRow(book);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return books;
+    }
+
+    /**
+     * Adds a book keeping its id, to load books created elsewhere
+     *
+     * @param book a book with an id greater than the ids of every book already in the catalogue
+     * @throws IllegalArgumentException if the id of the book is not greater than the last one
+     */
+    public void append(Book book) {
+        long stamp = lock.writeLock();
+        try {
+            appendRow(book);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param id id of a book
+     * @return a copy of the book, or null if there is none with this id
+     */
+    public Book get(long id) {
+        return read(() -> {
+            int row = row(id);
+            return row < 0 ? null : materialize(row);
+        });
+    }
+
+    /**
+     * @param ids ids of books
+     * @return copies of the books found, read from the same state of the catalogue, and the ids without book
+     */
+    public Lookup<Book, Long> getAll(Collection<Long> ids) {
+        return read(() -> Lookup.of(ids, id -> {
+            int row = row(id);
+            return row < 0 ? null : materialize(row);
+        }));
+    }
+
+    public boolean contains(long id) {
+        return read(() -> row(id) >= 0);
+    }
+
+    public int size() {
+        return read(() -> live);
+    }
+
+    /**
+     * @return the books in id order, materialized as they are iterated
+     */
+    public Collection<Book> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Book> iterator() {
+                return valuesAfter(null).iterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactCatalogue.this.size();
+            }
+        };
+    }
+
+    /**
+     * @param after id after which to start, excluded, null to start from the first one
+     * @return the books in id order, materialized as the stream is consumed
+     */
+    public Stream<Book> valuesAfter(Long after) {
+        // from the id of the previous book rather than from its row, rows move when the catalogue is compacted
+        return Stream.iterate(next(after), Objects::nonNull, book -> next(book.getId()));
+    }
+
+    /**
+     * @param authorId id of an author
+     * @return the books of the author, materialized as the set is iterated: it follows the books being added to or
+     * removed from the author, so that it can be kept as the books of the {@link Author}
+     */
+    public Set<Book> booksOf(long authorId) {
+        return new AuthorBooks(authorId);
+    }
+
+    /**
+     * @param authorId id of an author
+     * @return the ids of the books of the author, in ascending order
+     */
+    long[] bookIdsOf(long authorId) {
+        long[] bookIds = byAuthor.get(authorId);
+        return bookIds == null ? NONE : bookIds;
+    }
+
+    /**
+     * @return the rows, tombstones included, and the title bytes and author ids, unused ones included, that the
+     * catalogue holds
+     */
+    long[] held() {
+        return read(() -> new long[]{rows, titlesEnd, authorIdsEnd});
+    }
+
+    /**
+     * Replaces the title, isbn, publisher, year and language of a book, but not its authors, and bumps its version,
+     * provided it still is at the version of the book given
+     *
+     * @param book the book, with its id and the version it was read at
+     * @return a copy of the book updated, or of the current one if it is at another version, or null if there is none
+     * with this id
+     */
+    public Book update(Book book) {
+        long stamp = lock.writeLock();
+        try {
+            int row = row(book.getId());
+            if (row < 0) {
+                return null;
+            }
+            if (versions[row] != book.getVersion()) {
+                return materialize(row);
+            }
+            unusedTitleBytes += Math.max(titleLengths[row], 0);
+            writeColumns(row, book);
+            versions[row]++;
+            Book updated = materialize(row);
+            compactIfWasteful();
+            return updated;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param bookId   id of a book
+     * @param authorId id of the author to add to the book, which bumps its version unless it already is an author
+     * @return a copy of the book updated, or null if there is none with this id
+     */
+    public Book addAuthor(long bookId, long authorId) {
+        long stamp = lock.writeLock();
+        try {
+            int row = row(bookId);
+            if (row < 0) {
+                return null;
+            }
+            long[] current = authorsOf(row);
+            int position = Arrays.binarySearch(current, authorId);
+            if (position < 0) {
+                writeAuthors(row, current, insert(current, -position - 1, authorId));
+                versions[row]++;
+            }
+            Book updated = materialize(row);
+            compactIfWasteful();
+            return updated;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param id id of a book
+     * @return whether there was a book with this id
+     */
+    public boolean remove(long id) {
+        return removeAll(List.of(id)) > 0;
+    }
+
+    /**
+     * @param ids ids of books, removed under a single write lock
+     * @return the number of books removed
+     */
+    public int removeAll(Collection<Long> ids) {
+        long stamp = lock.writeLock();
+        try {
+            int removed = 0;
+            for (Long id : ids) {
+                int row = row(id);
+                if (row >= 0) {
+                    writeAuthors(row, authorsOf(row), NONE);
+                    unusedTitleBytes += Math.max(titleLengths[row], 0);
+                    languages[row] = DELETED;
+                    live--;
+                    removed++;
+                }
+            }
+            compactIfWasteful();
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private <R> R read(Supplier<R> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // a concurrent write may have left the columns inconsistent, then the read is simply done again
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int row(long id) {
+        int row = Arrays.binarySearch(ids, 0, rows, id);
+        return row >= 0 && languages[row] != DELETED ? row : -1;
+    }
+
+    private int firstRowAfter(long id) {
+        int row = Arrays.binarySearch(ids, 0, rows, id);
+        return row >= 0 ? row + 1 : -row - 1;
+    }
+
+    /**
+     * @param after id after which to look, excluded, null to start from the first one
+     * @return a copy of the first book after this id, or null if there is none
+     */
+    private Book next(Long after) {
+        return read(() -> {
+            for (int row = after == null ? 0 : firstRowAfter(after); row < rows; row++) {
+                if (languages[row] != DELETED) {
+                    return materialize(row);
+                }
+            }
+            return null;
+        });
+    }
+
+    private Book materialize(int row) {
+        Book book = new Book();
+        book.setId(ids[row]);
+        book.setVersion(versions[row]);
+        int length = titleLengths[row];
+        book.setTitle(length == NO_TITLE ? null : new String(titles, titleOffsets[row], length, StandardCharsets.UTF_8));
+        book.setIsbn(isbns[row]);
+        int publisher = publishers[row];
+        book.setPublisher(publisher == NO_PUBLISHER ? null : publisherNames[publisher]);
+        book.setYear(years[row]);
+        byte language = languages[row];
+        book.setLanguage(language == NO_LANGUAGE ? null : LANGUAGES[language - 1]);
+        int from = authorOffsets[row];
+        for (int i = from; i < from + authorCounts[row]; i++) {
+            Author author = authors.apply(authorIds[i]);
+            if (author != null) {
+                book.addAuthor(author);
+            }
+        }
+        return book;
+    }
+
+    private long[] authorsOf(int row) {
+        int from = authorOffsets[row];
+        return Arrays.copyOfRange(authorIds, from, from + authorCounts[row]);
+    }
+
+    private void appendRow(Book book) {
+        long id = book.getId();
+        if (rows > 0 && id <= ids[rows - 1]) {
+            throw new IllegalArgumentException("book " + id + " is not after the last book " + ids[rows - 1]);
+        }
+        if (rows == ids.length) {
+            growRows();
+        }
+        long[] bookAuthors = book.getAuthors() == null ? NONE : book.getAuthors()
+                .stream()
+                .mapToLong(Author::getId)
+                .distinct()
+                .sorted()
+                .toArray();
+        ids[rows] = id;
+        versions[rows] = book.getVersion();
+        writeColumns(rows, book);
+        writeAuthors(rows, NONE, bookAuthors);
+        rows++;
+        live++;
+    }
+
+    private void writeColumns(int row, Book book) {
+        isbns[row] = book.getIsbn();
+        years[row] = book.getYear();
+        languages[row] = book.getLanguage() == null ? NO_LANGUAGE : (byte) (book.getLanguage().ordinal() + 1);
+        publishers[row] = book.getPublisher() == null ? NO_PUBLISHER : publisherId(book.getPublisher());
+        if (book.getTitle() == null) {
+            titleLengths[row] = NO_TITLE;
+        } else {
+            byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+            if (titlesEnd + title.length > titles.length) {
+                titles = Arrays.copyOf(titles, grownLength(titles.length, titlesEnd + title.length));
+            }
+            System.arraycopy(title, 0, titles, titlesEnd, title.length);
+            titleOffsets[row] = titlesEnd;
+            titleLengths[row] = title.length;
+            titlesEnd += title.length;
+        }
+    }
+
+    private void writeAuthors(int row, long[] previous, long[] current) {
+        if (current.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("a book cannot have more than " + Short.MAX_VALUE + " authors");
+        }
+        if (authorIdsEnd + current.length > authorIds.length) {
+            authorIds = Arrays.copyOf(authorIds, grownLength(authorIds.length, authorIdsEnd + current.length));
+        }
+        System.arraycopy(current, 0, authorIds, authorIdsEnd, current.length);
+        authorOffsets[row] = authorIdsEnd;
+        authorCounts[row] = (short) current.length;
+        authorIdsEnd += current.length;
+        unusedAuthorIds += previous.length;
+
+        long bookId = ids[row];
+        for (long authorId : previous) {
+            if (Arrays.binarySearch(current, authorId) < 0) {
+                long[] books = bookIdsOf(authorId);
+                int position = Arrays.binarySearch(books, bookId);
+                if (position >= 0 && books.length == 1) {
+                    byAuthor.remove(authorId);
+                } else if (position >= 0) {
+                    byAuthor.put(authorId, remove(books, position));
+                }
+            }
+        }
+        for (long authorId : current) {
+            long[] books = bookIdsOf(authorId);
+            int position = Arrays.binarySearch(books, bookId);
+            if (position < 0) {
+                byAuthor.put(authorId, insert(books, -position - 1, bookId));
+            }
+        }
+    }
+
+    private void compactIfWasteful() {
+        if (isWasteful(rows - live, rows) || isWasteful(unusedTitleBytes, titlesEnd)
+                || isWasteful(unusedAuthorIds, authorIdsEnd)) {
+            compact();
+        }
+    }
+
+    private static boolean isWasteful(int unused, int used) {
+        return unused >= COMPACT_MIN && unused * 2L > used;
+    }
+
+    /**
+     * Moves the live rows down over the tombstones, in place as a row only ever moves to a lower one, and their slices
+     * to new buffers, as the slices are not in row order. Optimistic readers see the columns change and read again.
+     */
+    private void compact() {
+        byte[] liveTitles = new byte[Math.max(1024, titlesEnd - unusedTitleBytes)];
+        int liveTitlesEnd = 0;
+        long[] liveAuthorIds = new long[Math.max(16, authorIdsEnd - unusedAuthorIds)];
+        int liveAuthorIdsEnd = 0;
+        int to = 0;
+        for (int row = 0; row < rows; row++) {
+            if (languages[row] == DELETED) {
+                continue;
+            }
+            ids[to] = ids[row];
+            isbns[to] = isbns[row];
+            years[to] = years[row];
+            languages[to] = languages[row];
+            publishers[to] = publishers[row];
+            versions[to] = versions[row];
+            int length = titleLengths[row];
+            if (length != NO_TITLE) {
+                System.arraycopy(titles, titleOffsets[row], liveTitles, liveTitlesEnd, length);
+                titleOffsets[to] = liveTitlesEnd;
+                liveTitlesEnd += length;
+            }
+            titleLengths[to] = length;
+            int count = authorCounts[row];
+            System.arraycopy(authorIds, authorOffsets[row], liveAuthorIds, liveAuthorIdsEnd, count);
+            authorOffsets[to] = liveAuthorIdsEnd;
+            authorCounts[to] = (short) count;
+            liveAuthorIdsEnd += count;
+            to++;
+        }
+        rows = to;
+        titles = liveTitles;
+        titlesEnd = liveTitlesEnd;
+        unusedTitleBytes = 0;
+        authorIds = liveAuthorIds;
+        authorIdsEnd = liveAuthorIdsEnd;
+        unusedAuthorIds = 0;
+    }
+
+    private int publisherId(String publisher) {
+        return publisherIds.computeIfAbsent(publisher, name -> {
+            int id = publisherIds.size();
+            if (id == publisherNames.length) {
+                publisherNames = Arrays.copyOf(publisherNames, 2 * id);
+            }
+            publisherNames[id] = name;
+            return id;
+        });
+    }
+
+    private void growRows() {
+        int length = 2 * ids.length;
+        ids = Arrays.copyOf(ids, length);
+        isbns = Arrays.copyOf(isbns, length);
+        years = Arrays.copyOf(years, length);
+        languages = Arrays.copyOf(languages, length);
+        publishers = Arrays.copyOf(publishers, length);
+        titleOffsets = Arrays.copyOf(titleOffsets, length);
+        titleLengths = Arrays.copyOf(titleLengths, length);
+        authorOffsets = Arrays.copyOf(authorOffsets, length);
+        authorCounts = Arrays.copyOf(authorCounts, length);
+        versions = Arrays.copyOf(versions, length);
+    }
+
+    private static int grownLength(int length, int needed) {
+        if (needed < 0) {
+            throw new IllegalStateException("the catalogue is full");
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L * length));
+    }
+
+    private static long[] insert(long[] array, int position, long value) {
+        long[] copy = new long[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, position);
+        copy[position] = value;
+        System.arraycopy(array, position, copy, position + 1, array.length - position);
+        return copy;
+    }
+
+    private static long[] remove(long[] array, int position) {
+        long[] copy = new long[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, position);
+        System.arraycopy(array, position + 1, copy, position, copy.length - position);
+        return copy;
+    }
+
+    /**
+     * Books of an author, looked up in the catalogue every time it is read
+     */
+    final class AuthorBooks extends AbstractSet<Book> {
+
+        private final long authorId;
+
+        AuthorBooks(long authorId) {
+            this.authorId = authorId;
+        }
+
+        @Override
+        public Iterator<Book> iterator() {
+            return LongStream.of(bookIdsOf(authorId))
+                    .mapToObj(CompactCatalogue.this::get)
+                    .filter(Objects::nonNull)
+                    .iterator();
+        }
+
+        @Override
+        public int size() {
+            return bookIdsOf(authorId).length;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compressed set of ids, laid out like a RoaringBitmap, for the ids handed out by a counter.
+ * <p>
+ * An id is split in its 16 high bits, the key of a container, and its 16 low bits, stored in the container. A container
+ * holding at most 4096 values is a sorted {@code char[]}, a fuller one is a bitmap of 65536 bits, so that a container
+ * never takes more than 8 KB and a set of sparse ids does not cost a bit per possible id. Intersections go container by
+ * container, word by word between two bitmaps, and their cardinality is counted without building them.
+ * <p>
+ * Ids must fit in an {@code int}, as do the dense ids of {@link IdMap}; negative ids such as those of the seed data are
+ * ordered before the others. Not thread-safe, the bitmaps returned by {@link #and(IdBitmap)}, {@link #or(IdBitmap)},
+ * {@link #with(long)} and {@link #without(long)} may share containers with their operands and must not be modified.
+ * Sets that are only ever replaced by such copies can be read concurrently once published.
+ */
+public final class IdBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1 << 10;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    /**
+     * @param ids the ids
+     * @return a new bitmap of the ids
+     */
+    public static IdBitmap of(Collection<Long> ids) {
+        IdBitmap bitmap = new IdBitmap();
+        for (Long id : ids) {
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param id id to add
+     * @return true if it was not in the set
+     * @throws ArithmeticException if the id does not fit in an int
+     */
+    public boolean add(long id) {
+        int key = key(Math.toIntExact(id));
+        char high = (char) (key >>> 16);
+        // ids added in ascending order go to the last container
+        int index = size > 0 && keys[size - 1] == high ? size - 1 : Arrays.binarySearch(keys, 0, size, high);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, high, new Container());
+        }
+        return containers[index].add((char) key);
+    }
+
+    /**
+     * @param id id to remove
+     * @return true if it was in the set
+     */
+    public boolean remove(long id) {
+        if (id != (int) id) {
+            return false;
+        }
+        int key = key((int) id);
+        int index = Arrays.binarySearch(keys, 0, size, (char) (key >>> 16));
+        if (index < 0 || !containers[index].remove((char) key)) {
+            return false;
+        }
+        if (containers[index].cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        }
+        return true;
+    }
+
+    /**
+     * @param id id to add
+     * @return a copy of the set with the id, sharing every container but the one of the id
+     * @throws ArithmeticException if the id does not fit in an int
+     */
+    public IdBitmap with(long id) {
+        int key = key(Math.toIntExact(id));
+        char high = (char) (key >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        IdBitmap copy = shallowCopy(index < 0 ? 1 : 0);
+        if (index < 0) {
+            copy.insert(-index - 1, high, new Container());
+            index = -index - 1;
+        } else {
+            copy.containers[index] = containers[index].copy();
+        }
+        copy.containers[index].add((char) key);
+        return copy;
+    }
+
+    /**
+     * @param id id to remove
+     * @return a copy of the set without the id, sharing every container but the one of the id, or this set if the id
+     * is not in it
+     */
+    public IdBitmap without(long id) {
+        if (!contains(id)) {
+            return this;
+        }
+        int key = key((int) id);
+        int index = Arrays.binarySearch(keys, 0, size, (char) (key >>> 16));
+        IdBitmap copy = shallowCopy(0);
+        copy.containers[index] = containers[index].copy();
+        copy.remove(id);
+        return copy;
+    }
+
+    public boolean contains(long id) {
+        if (id != (int) id) {
+            return false;
+        }
+        int key = key((int) id);
+        int index = Arrays.binarySearch(keys, 0, size, (char) (key >>> 16));
+        return index >= 0 && containers[index].contains((char) key);
+    }
+
+    /**
+     * Removes every id
+     */
+    public void clear() {
+        keys = new char[0];
+        containers = new Container[0];
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of ids in the set
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * @param other another set
+     * @return the ids in both sets
+     */
+    public IdBitmap and(IdBitmap other) {
+        IdBitmap and = new IdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality > 0) {
+                    and.insert(and.size, keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return and;
+    }
+
+    /**
+     * @param other another set
+     * @return the number of ids in both sets, without building their intersection
+     */
+    public long andCardinality(IdBitmap other) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * @param other another set
+     * @return the ids in either set
+     */
+    public IdBitmap or(IdBitmap other) {
+        IdBitmap or = new IdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || i < size && keys[i] < other.keys[j]) {
+                or.insert(or.size, keys[i], containers[i]);
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                or.insert(or.size, other.keys[j], other.containers[j]);
+                j++;
+            } else {
+                or.insert(or.size, keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return or;
+    }
+
+    /**
+     * @param after id after which the page starts, excluded, null for the first page
+     * @param limit maximum size of the page
+     * @return at most limit ids greater than after, in ascending order
+     */
+    public List<Long> page(Long after, int limit) {
+        List<Long> page = new ArrayList<>(Math.min(limit, 1024));
+        if (after != null && after >= Integer.MAX_VALUE) {
+            return page;
+        }
+        int key = key(after == null || after < Integer.MIN_VALUE ? Integer.MIN_VALUE : (int) (after + 1));
+        int index = Arrays.binarySearch(keys, 0, size, (char) (key >>> 16));
+        int from = key & 0xFFFF;
+        if (index < 0) {
+            index = -index - 1;
+            from = 0;
+        }
+        for (; index < size && page.size() < limit; index++, from = 0) {
+            int high = keys[index] << 16;
+            Container container = containers[index];
+            for (int low = container.next(from); low >= 0 && page.size() < limit; low = container.next(low + 1)) {
+                page.add((long) ((high | low) ^ Integer.MIN_VALUE));
+            }
+        }
+        return page;
+    }
+
+    private IdBitmap shallowCopy(int extra) {
+        IdBitmap copy = new IdBitmap();
+        copy.keys = Arrays.copyOf(keys, size + extra);
+        copy.containers = Arrays.copyOf(containers, size + extra);
+        copy.size = size;
+        return copy;
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            int grown = Math.max(4, 2 * size);
+            keys = Arrays.copyOf(keys, grown);
+            containers = Arrays.copyOf(containers, grown);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    // flips the sign bit, so that the unsigned order of the keys is the order of the ids
+    private static int key(int id) {
+        return id ^ Integer.MIN_VALUE;
+    }
+
+    /**
+     * Low 16 bits of the ids sharing a key, as a sorted array or as a bitmap
+     */
+    private static final class Container {
+
+        private char[] values = new char[4];
+        // null while the values fit in the array
+        private long[] words;
+        private int cardinality;
+
+        Container copy() {
+            Container copy = new Container();
+            copy.cardinality = cardinality;
+            if (words != null) {
+                copy.words = words.clone();
+                copy.values = null;
+            } else {
+                copy.values = Arrays.copyOf(values, Math.max(4, cardinality + 1));
+            }
+            return copy;
+        }
+
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        boolean add(char value) {
+            if (words == null) {
+                int index = cardinality == 0 || value > values[cardinality - 1] ? -cardinality - 1
+                        : Arrays.binarySearch(values, 0, cardinality, value);
+                if (index >= 0) {
+                    return false;
+                }
+                if (cardinality < ARRAY_MAX) {
+                    index = -index - 1;
+                    if (cardinality == values.length) {
+                        values = Arrays.copyOf(values, Math.min(ARRAY_MAX, 2 * cardinality));
+                    }
+                    System.arraycopy(values, index, values, index + 1, cardinality - index);
+                    values[index] = value;
+                    cardinality++;
+                    return true;
+                }
+                toWords();
+            }
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                return false;
+            }
+            words[value >>> 6] |= bit;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char value) {
+            if (words == null) {
+                int index = Arrays.binarySearch(values, 0, cardinality, value);
+                if (index < 0) {
+                    return false;
+                }
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+                return true;
+            }
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                return false;
+            }
+            words[value >>> 6] &= ~bit;
+            if (--cardinality <= ARRAY_MAX) {
+                toValues();
+            }
+            return true;
+        }
+
+        Container and(Container other) {
+            Container and = new Container();
+            if (words != null && other.words != null) {
+                long[] anded = new long[WORDS];
+                int cardinality = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    anded[i] = words[i] & other.words[i];
+                    cardinality += Long.bitCount(anded[i]);
+                }
+                and.words = anded;
+                and.cardinality = cardinality;
+                if (cardinality <= ARRAY_MAX) {
+                    and.toValues();
+                }
+                return and;
+            }
+            Container sparse = words == null ? this : other;
+            Container probed = sparse == this ? other : this;
+            and.values = new char[Math.max(4, sparse.cardinality)];
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (probed.contains(sparse.values[i])) {
+                    and.values[and.cardinality++] = sparse.values[i];
+                }
+            }
+            return and;
+        }
+
+        int andCardinality(Container other) {
+            int cardinality = 0;
+            if (words != null && other.words != null) {
+                for (int i = 0; i < WORDS; i++) {
+                    cardinality += Long.bitCount(words[i] & other.words[i]);
+                }
+                return cardinality;
+            }
+            Container sparse = words == null ? this : other;
+            Container probed = sparse == this ? other : this;
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (probed.contains(sparse.values[i])) {
+                    cardinality++;
+                }
+            }
+            return cardinality;
+        }
+
+        Container or(Container other) {
+            Container or = new Container();
+            if (words == null && other.words == null && cardinality + other.cardinality <= ARRAY_MAX) {
+                or.values = new char[Math.max(4, cardinality + other.cardinality)];
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    char next;
+                    if (j == other.cardinality || i < cardinality && values[i] < other.values[j]) {
+                        next = values[i++];
+                    } else if (i == cardinality || values[i] > other.values[j]) {
+                        next = other.values[j++];
+                    } else {
+                        next = values[i++];
+                        j++;
+                    }
+                    or.values[or.cardinality++] = next;
+                }
+                return or;
+            }
+            or.words = new long[WORDS];
+            for (Container operand : List.of(this, other)) {
+                if (operand.words != null) {
+                    for (int i = 0; i < WORDS; i++) {
+                        or.words[i] |= operand.words[i];
+                    }
+                } else {
+                    for (int i = 0; i < operand.cardinality; i++) {
+                        or.words[operand.values[i] >>> 6] |= 1L << operand.values[i];
+                    }
+                }
+            }
+            for (long word : or.words) {
+                or.cardinality += Long.bitCount(word);
+            }
+            if (or.cardinality <= ARRAY_MAX) {
+                or.toValues();
+            }
+            return or;
+        }
+
+        /**
+         * @param from lowest value wanted, up to 65536
+         * @return the lowest value in the container greater than or equal to from, or -1 if there is none
+         */
+        int next(int from) {
+            if (from > 0xFFFF) {
+                return -1;
+            }
+            if (words == null) {
+                int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+                if (index < 0) {
+                    index = -index - 1;
+                }
+                return index < cardinality ? values[index] : -1;
+            }
+            int index = from >>> 6;
+            long word = words[index] & (-1L << from);
+            while (word == 0) {
+                if (++index == WORDS) {
+                    return -1;
+                }
+                word = words[index];
+            }
+            return (index << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        private void toWords() {
+            words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            values = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            words = null;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent map from {@code long} ids to entities, iterated in id order, for ids handed out by a counter.
+ * <p>
+ * Ids from 0 to 2^31 are slots of an array, split in chunks of 4096 allocated as ids reach them: an entity costs one
+ * reference instead of a skip list node, its index nodes and a boxed {@code Long}, and a lookup is two array reads
+ * without boxing. Other ids, such as the negative ids of the seed data, go to a {@link ConcurrentSkipListMap}.
+ * <p>
+ * Like the concurrent maps, reads never lock and iteration is weakly consistent. Writes only lock to add a chunk.
+ *
+ * @param <T> type of the entities
+ */
+public final class IdMap<T> {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final long DENSE_LIMIT = 1L << 31;
+
+    // replaced, never modified in place except for the chunks being set, so that readers need no lock
+    private volatile AtomicReferenceArray<AtomicReferenceArray<T>> chunks = new AtomicReferenceArray<>(0);
+    private final NavigableMap<Long, T> sparse = new ConcurrentSkipListMap<>();
+    private final LongAdder size = new LongAdder();
+    private final Collection<T> values = new Values();
+
+    /**
+     * @param id id of the entity
+     * @return the entity, or null if there is none with this id
+     */
+    public T get(long id) {
+        if (!isDense(id)) {
+            return sparse.get(id);
+        }
+        AtomicReferenceArray<T> chunk = chunk(id);
+        return chunk == null ? null : chunk.get(slot(id));
+    }
+
+    public boolean containsKey(long id) {
+        return get(id) != null;
+    }
+
+    /**
+     * @param id     id of the entity
+     * @param entity the entity, not null
+     * @return the entity previously stored with this id, or null
+     */
+    public T put(long id, T entity) {
+        Objects.requireNonNull(entity);
+        T previous = isDense(id) ? chunkForWrite(id).getAndSet(slot(id), entity) : sparse.put(id, entity);
+        if (previous == null) {
+            size.increment();
+        }
+        return previous;
+    }
+
+    /**
+     * @param id id of the entity
+     * @return the entity removed, or null if there was none with this id
+     */
+    public T remove(long id) {
+        T previous;
+        if (isDense(id)) {
+            AtomicReferenceArray<T> chunk = chunk(id);
+            previous = chunk == null ? null : chunk.getAndSet(slot(id), null);
+        } else {
+            previous = sparse.remove(id);
+        }
+        if (previous != null) {
+            size.decrement();
+        }
+        return previous;
+    }
+
+    public int size() {
+        return (int) size.sum();
+    }
+
+    /**
+     * @return a view of the entities in id order, read-only
+     */
+    public Collection<T> values() {
+        return values;
+    }
+
+    /**
+     * @param after id after which to start, excluded, null to start from the first one
+     * @return the entities in id order, read lazily
+     */
+    public Stream<T> valuesAfter(Long after) {
+        long from = after == null ? Long.MIN_VALUE : after;
+        Stream<T> beyond = sparse.tailMap(Math.max(from, DENSE_LIMIT - 1), false).values().stream();
+        if (from >= DENSE_LIMIT - 1) {
+            return beyond;
+        }
+        Stream<T> dense = dense(Math.max(from + 1, 0));
+        if (from >= 0) {
+            return Stream.concat(dense, beyond);
+        }
+        Stream<T> negative = (after == null ? sparse.headMap(0L, false) : sparse.subMap(from, false, 0L, false))
+                .values()
+                .stream();
+        return Stream.of(negative, dense, beyond).flatMap(s -> s);
+    }
+
+    private Stream<T> dense(long from) {
+        AtomicReferenceArray<AtomicReferenceArray<T>> snapshot = chunks;
+        int firstChunk = (int) (from >>> CHUNK_BITS);
+        return IntStream.range(firstChunk, snapshot.length())
+                .boxed()
+                .flatMap(index -> {
+                    AtomicReferenceArray<T> chunk = snapshot.get(index);
+                    if (chunk == null) {
+                        return Stream.empty();
+                    }
+                    int first = index == firstChunk ? slot(from) : 0;
+                    return IntStream.range(first, CHUNK_SIZE).mapToObj(chunk::get).filter(Objects::nonNull);
+                });
+    }
+
+    private AtomicReferenceArray<T> chunk(long id) {
+        AtomicReferenceArray<AtomicReferenceArray<T>> current = chunks;
+        int index = (int) (id >>> CHUNK_BITS);
+        return index < current.length() ? current.get(index) : null;
+    }
+
+    private AtomicReferenceArray<T> chunkForWrite(long id) {
+        AtomicReferenceArray<T> chunk = chunk(id);
+        return chunk != null ? chunk : addChunk((int) (id >>> CHUNK_BITS));
+    }
+
+    private synchronized AtomicReferenceArray<T> addChunk(int index) {
+        AtomicReferenceArray<AtomicReferenceArray<T>> current = chunks;
+        if (index >= current.length()) {
+            // doubled so that ids handed out one by one only copy the directory a logarithmic number of times
+            AtomicReferenceArray<AtomicReferenceArray<T>> grown =
+                    new AtomicReferenceArray<>(Math.max(index + 1, 2 * current.length()));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            chunks = grown;
+            current = grown;
+        }
+        AtomicReferenceArray<T> chunk = current.get(index);
+        if (chunk == null) {
+            chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+            current.set(index, chunk);
+        }
+        return chunk;
+    }
+
+    private static boolean isDense(long id) {
+        return id >= 0 && id < DENSE_LIMIT;
+    }
+
+    private static int slot(long id) {
+        return (int) (id & CHUNK_MASK);
+    }
+
+    private final class Values extends AbstractCollection<T> {
+
+        @Override
+        public Iterator<T> iterator() {
+            return valuesAfter(null).iterator();
+        }
+
+        @Override
+        public Stream<T> stream() {
+            return valuesAfter(null);
+        }
+
+        @Override
+        public int size() {
+            return IdMap.this.size();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.repo.Repository;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory storage engine of the mock store: a {@link Repository} over an {@link IdMap}, concurrent and lock-free
+ * like the map.
+ * <p>
+ * Entities are stored as they are, saving an entity already stored under its id replaces it. {@link #stream()} reads the
+ * map lazily in id order, without copying it.
+ *
+ * @param <T> type of the entities
+ */
+public final class IdMapRepository<T> implements Repository<T, Long> {
+
+    private final IdMap<T> map;
+    private final Function<T, Long> id;
+    private final BiConsumer<T, Long> setId;
+    private final Supplier<Long> nextId;
+
+    /**
+     * @param map    the entities
+     * @param id     gives the id of an entity
+     * @param setId  sets the id of a new entity
+     * @param nextId gives the ids of the new entities
+     */
+    public IdMapRepository(IdMap<T> map, Function<T, Long> id, BiConsumer<T, Long> setId, Supplier<Long> nextId) {
+        this.map = map;
+        this.id = id;
+        this.setId = setId;
+        this.nextId = nextId;
+    }
+
+    @Override
+    public T save(T entity) {
+        if (id.apply(entity) == null) {
+            setId.accept(entity, nextId.get());
+        }
+        map.put(id.apply(entity), entity);
+        return entity;
+    }
+
+    @Override
+    public void delete(T entity) {
+        map.remove(id.apply(entity));
+    }
+
+    @Override
+    public T findById(Long id) {
+        return id == null ? null : map.get(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return id != null && map.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAfter(Long after, int limit) {
+        return map.valuesAfter(after).limit(limit).toList();
+    }
+
+    /**
+     * @return a copy of the entities in id order
+     */
+    @Override
+    public List<T> getAll() {
+        return map.valuesAfter(null).toList();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return map.valuesAfter(null);
+    }
+}
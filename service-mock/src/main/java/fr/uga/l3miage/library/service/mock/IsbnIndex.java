@@ -0,0 +1,162 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Unique index from the ISBN of the books to their id, on primitive {@code long}s.
+ * <p>
+ * ISBNs and ids are kept in two arrays of an open addressing table with linear probing, at most half full, so that a
+ * lookup is a hash and a few array reads without boxing, and an entry costs 32 bytes at most. ISBN 0 stands for a book
+ * without ISBN: it is never indexed, any number of books may have it, and it marks the free slots.
+ * <p>
+ * An ISBN is claimed by a book before the book is stored, and claiming fails if another book holds it, so that two
+ * books saved or updated concurrently with the same ISBN cannot both succeed. Lookups are optimistic reads of a
+ * {@link StampedLock}, done again under its read lock when a write got in between; writes are serialized.
+ */
+public final class IsbnIndex {
+
+    /**
+     * Returned by {@link #idOf(long)} for an ISBN no book holds, ids may be negative
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final long FREE = 0;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] isbns = new long[16];
+    private long[] ids = new long[16];
+    private int size;
+
+    /**
+     * @param isbn an ISBN
+     * @return the id of the book holding it, or {@link #NONE}
+     */
+    public long idOf(long isbn) {
+        if (isbn == FREE) {
+            return NONE;
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            long id = find(isbns, ids, isbn);
+            if (lock.validate(stamp)) {
+                return id;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(isbns, ids, isbn);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @param isbn ISBN of a book, 0 for none
+     * @param id   id of the book
+     * @return true if the book holds the ISBN, already or from now on, false if another book holds it
+     */
+    public boolean claim(long isbn, long id) {
+        if (isbn == FREE) {
+            return true;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = slot(isbns, isbn);
+            if (isbns[slot] == isbn) {
+                return ids[slot] == id;
+            }
+            isbns[slot] = isbn;
+            ids[slot] = id;
+            if (++size * 2 > isbns.length) {
+                grow();
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param isbn ISBN a book no longer holds, 0 for none
+     * @param id   id of the book, the ISBN is left alone if another book holds it
+     */
+    public void release(long isbn, long id) {
+        if (isbn == FREE) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = slot(isbns, isbn);
+            if (isbns[slot] != isbn || ids[slot] != id) {
+                return;
+            }
+            // backward shift, so that the entries probed past this slot stay reachable without tombstones
+            int mask = isbns.length - 1;
+            int free = slot;
+            for (int next = (free + 1) & mask; isbns[next] != FREE; next = (next + 1) & mask) {
+                int home = home(isbns[next], mask);
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    isbns[free] = isbns[next];
+                    ids[free] = ids[next];
+                    free = next;
+                }
+            }
+            isbns[free] = FREE;
+            size--;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the number of ISBNs held
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldIsbns = isbns;
+        long[] oldIds = ids;
+        long[] newIsbns = new long[oldIsbns.length * 2];
+        long[] newIds = new long[oldIsbns.length * 2];
+        for (int i = 0; i < oldIsbns.length; i++) {
+            if (oldIsbns[i] != FREE) {
+                int slot = slot(newIsbns, oldIsbns[i]);
+                newIsbns[slot] = oldIsbns[i];
+                newIds[slot] = oldIds[i];
+            }
+        }
+        ids = newIds;
+        isbns = newIsbns;
+    }
+
+    // bounded by the length of the table, the arrays read optimistically may be in the middle of a write
+    private static long find(long[] isbns, long[] ids, long isbn) {
+        int mask = isbns.length - 1;
+        int slot = home(isbn, mask);
+        for (int probes = 0; probes < isbns.length && isbns[slot] != FREE; probes++, slot = (slot + 1) & mask) {
+            if (isbns[slot] == isbn) {
+                return slot < ids.length ? ids[slot] : NONE;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the slot holding the ISBN, or the free slot where it goes
+     */
+    private static int slot(long[] isbns, long isbn) {
+        int mask = isbns.length - 1;
+        int slot = home(isbn, mask);
+        while (isbns[slot] != FREE && isbns[slot] != isbn) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int home(long isbn, int mask) {
+        long h = isbn * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
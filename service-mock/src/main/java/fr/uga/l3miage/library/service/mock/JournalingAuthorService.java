@@ -0,0 +1,92 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Lookup;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Logs the changes made by the mock {@link AuthorService} to the {@link MockPersistence}.
+ */
+class JournalingAuthorService implements AuthorService {
+
+    private final AuthorService delegate;
+    private final MockPersistence persistence;
+
+    JournalingAuthorService(AuthorService delegate, MockPersistence persistence) {
+        this.delegate = delegate;
+        this.persistence = persistence;
+    }
+
+    @Override
+    public Author save(Author author) {
+        Author saved = delegate.save(author);
+        persistence.authorChanged(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Collection<Author> saveAll(Collection<Author> authors) {
+        Collection<Author> saved = delegate.saveAll(authors);
+        saved.forEach(author -> persistence.authorChanged(author.getId()));
+        return saved;
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name) {
+        return delegate.searchByName(name);
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name, Long after, int limit) {
+        return delegate.searchByName(name, after, limit);
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        Collection<Book> books = delegate.get(id).getBooks();
+        List<Long> bookIds = books == null ? List.of() : books.stream().map(Book::getId).toList();
+        delegate.delete(id);
+        // the books of the author are deleted along with it
+        bookIds.forEach(persistence::bookChanged);
+        persistence.authorChanged(id);
+    }
+
+    @Override
+    public Author get(Long id) throws EntityNotFoundException {
+        return delegate.get(id);
+    }
+
+    @Override
+    public Lookup<Author, Long> getAll(Collection<Long> ids) {
+        return delegate.getAll(ids);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public Collection<Author> list() {
+        return delegate.list();
+    }
+
+    @Override
+    public Collection<Author> list(Long after, int limit) {
+        return delegate.list(after, limit);
+    }
+
+    @Override
+    public Author update(Author author) throws EntityNotFoundException, ConcurrentUpdateException {
+        Author updated = delegate.update(author);
+        persistence.authorChanged(author.getId());
+        return updated;
+    }
+}
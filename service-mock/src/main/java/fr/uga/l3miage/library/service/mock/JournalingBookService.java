@@ -0,0 +1,115 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
+
+import java.util.Collection;
+
+/**
+ * Logs the changes made by the mock {@link BookService} to the {@link MockPersistence}. The association is logged with
+ * the books, adding an author to a book is a change of the book.
+ */
+class JournalingBookService implements BookService {
+
+    private final BookService delegate;
+    private final MockPersistence persistence;
+
+    JournalingBookService(BookService delegate, MockPersistence persistence) {
+        this.delegate = delegate;
+        this.persistence = persistence;
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        Book saved = delegate.save(authorId, book);
+        persistence.bookChanged(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Collection<Book> saveAll(Collection<Book> books) throws EntityNotFoundException {
+        Collection<Book> saved = delegate.saveAll(books);
+        saved.forEach(book -> persistence.bookChanged(book.getId()));
+        return saved;
+    }
+
+    @Override
+    public Book get(Long id) throws EntityNotFoundException {
+        return delegate.get(id);
+    }
+
+    @Override
+    public Lookup<Book, Long> getAll(Collection<Long> ids) {
+        return delegate.getAll(ids);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public Collection<Book> list() {
+        return delegate.list();
+    }
+
+    @Override
+    public Collection<Book> list(Long after, int limit) {
+        return delegate.list(after, limit);
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException, ConcurrentUpdateException {
+        Book updated = delegate.update(book);
+        persistence.bookChanged(book.getId());
+        return updated;
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title) {
+        return delegate.findByTitle(title);
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title, Long after, int limit) {
+        return delegate.findByTitle(title, after, limit);
+    }
+
+    @Override
+    public FacetedBooks findByFacets(BookFilter filter, Long after, int limit) {
+        return delegate.findByFacets(filter, after, limit);
+    }
+
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return delegate.getByIsbn(isbn);
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        return delegate.getByAuthor(id);
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        return delegate.findByAuthor(id, title);
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        delegate.delete(id);
+        persistence.bookChanged(id);
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        Book book = delegate.addAuthor(bookId, authorId);
+        persistence.bookChanged(bookId);
+        return book;
+    }
+}
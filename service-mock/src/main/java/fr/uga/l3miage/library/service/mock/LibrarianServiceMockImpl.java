@@ -0,0 +1,56 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.data.repo.Repository;
+import fr.uga.l3miage.library.service.LibrarianService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Component
+public class LibrarianServiceMockImpl implements LibrarianService {
+
+    private final Repository<Librarian, Long> librarians;
+
+    @Autowired
+    public LibrarianServiceMockImpl(Repository<Librarian, Long> librarians) {
+        this.librarians = librarians;
+    }
+
+    @Override
+    public Librarian save(Librarian librarian) {
+        // always a new one, given its id by the engine
+        librarian.setId(null);
+        return librarians.save(librarian);
+    }
+
+    @Override
+    public Librarian get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(librarians.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find librarian with id: " + id));
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return librarians.existsById(id);
+    }
+
+    @Override
+    public Collection<Librarian> list() {
+        return librarians.getAll();
+    }
+
+    @Override
+    public Collection<Librarian> list(Long after, int limit) {
+        return librarians.findAfter(after, limit);
+    }
+
+    @Override
+    public Librarian update(Librarian librarian) throws EntityNotFoundException {
+        get(librarian.getId());
+        return librarians.save(librarian);
+    }
+}
@@ -2,28 +2,336 @@ package fr.uga.l3miage.library.service.mock;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * In-memory store shared by the mock services.
+ * <p>
+ * Entities live in one {@link IdMap} per type, iterated by id for keyset pagination, so that reads never take a lock.
+ * Ids come from atomic counters, which keeps them dense.
+ * Writes to the Author/Book association are guarded by striped locks, see {@link #lockAuthor(Long)} and
+ * {@link #lockBook(Long)}: when both are needed, the author stripes must always be taken before the book stripes, and
+ * several stripes are taken in the order of {@link #lockAuthors(Collection)} and {@link #lockBooks(Collection)}.
+ * Updates are copy-on-write: the entity updated replaces the current one, in its map and in the association, so that
+ * readers never see an entity half updated. The number of co-authored books of each author is kept in
+ * {@link #coAuthored}, updated along with the association, so that whether an author can be deleted is known without
+ * looking at its books.
+ * Author names and book titles are kept in {@link NGramIndex}es, and the publisher, year and language of the books in
+ * the {@link BookFacetIndex}, that the services update along with the maps. The ISBN of a book is claimed in the
+ * {@link IsbnIndex} before the book is stored, see {@link #claimIsbn(Book)}, and released once it no longer has it, so
+ * that no two books share an ISBN.
+ * With the compact profile, books are kept in the {@link CompactCatalogue} instead of their map.
+ * <p>
+ * Borrowed books are tracked in {@link #loans}, claimed one book at a time with {@code putIfAbsent}, and the borrows not
+ * yet returned are indexed by end date in {@link #dues} so that overdue ones are a head of the set. Their state is in
+ * {@link #outstanding}, where returning and flagging overdue are each a single atomic map operation.
+ */
 @Component
 public class MockData {
-    static Map<Long, Author> authors = new HashMap<>();
-    static Map<Long, Book> books = new HashMap<>();
-    private static long nextBookId;
-    private static long nextAuthorId;
+    static final IdMap<Author> authors = new IdMap<>();
+    static final IdMap<Book> books = new IdMap<>();
+    // only used with the compact profile, books are then kept here instead of in books
+    static final CompactCatalogue catalogue = new CompactCatalogue(() -> getNextId(Book.class), authors::get);
+    static final NGramIndex authorNames = new NGramIndex();
+    static final NGramIndex bookTitles = new NGramIndex();
+    static final BookFacetIndex bookFacets = new BookFacetIndex();
+    static final IsbnIndex isbns = new IsbnIndex();
+    // author id -> number of its books having other authors too, absent when none
+    static final ConcurrentMap<Long, Integer> coAuthored = new ConcurrentHashMap<>();
+    static final IdMap<Borrow> borrows = new IdMap<>();
+    static final IdMap<Borrower> borrowers = new IdMap<>();
+    static final IdMap<Librarian> librarians = new IdMap<>();
+    // book id -> id of the borrow holding it
+    static final ConcurrentMap<Long, Long> loans = new ConcurrentHashMap<>();
+    static final NavigableSet<Due> dues = new ConcurrentSkipListSet<>();
+    // id of a borrow not returned yet -> whether it was flagged overdue
+    static final ConcurrentMap<Long, Boolean> outstanding = new ConcurrentHashMap<>();
+    private static final AtomicLong nextBookId = new AtomicLong();
+    private static final AtomicLong nextAuthorId = new AtomicLong();
+    private static final AtomicLong nextBorrowId = new AtomicLong();
+    private static final AtomicLong nextPersonId = new AtomicLong();
+
+    // must stay equal to 2^6, see stripe()
+    private static final int STRIPES = 64;
+    private static final ReentrantLock[] authorLocks = newStripes();
+    private static final ReentrantLock[] bookLocks = newStripes();
 
     private MockData() {
         // to hide the public one
     }
 
     public static <T> long getNextId(Class<T> c) {
+        return counter(c).getAndIncrement();
+    }
+
+    /**
+     * @param c type of the entity
+     * @return the id the next entity of this type will get
+     */
+    static long peekNextId(Class<?> c) {
+        return counter(c).get();
+    }
+
+    /**
+     * Makes the next ids of a type greater than an id restored from disk
+     *
+     * @param c  type of the entity
+     * @param id id of an entity restored
+     */
+    static void reserveId(Class<?> c, long id) {
+        counter(c).accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * @param map   the entities
+     * @param after id after which the page starts, excluded, null for the first page
+     * @param limit maximum size of the page
+     * @return a page of entities ordered by id
+     */
+    static <T> Collection<T> page(IdMap<T> map, Long after, int limit) {
+        return map.valuesAfter(after)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * @param map   the entities
+     * @param ids   ids of the entities to return, in any order
+     * @param after id after which the page starts, excluded, null for the first page
+     * @param limit maximum size of the page
+     * @return a page of the given entities ordered by id
+     */
+    static <T> Collection<T> page(IdMap<T> map, Collection<Long> ids, Long after, int limit) {
+        return ids.stream()
+                .filter(id -> after == null || id > after)
+                .sorted()
+                .map(map::get)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * @param map   the entities
+     * @param after id after which to start, excluded, null to start from the first one
+     * @return the entities ordered by id, iterated from the map as the subscriber requests them
+     */
+    static <T> Flux<T> stream(IdMap<T> map, Long after) {
+        return Flux.defer(() -> Flux.fromStream(map.valuesAfter(after)));
+    }
+
+    /**
+     * @param map    the entities
+     * @param search ids of the entities to stream, in any order, evaluated on subscription
+     * @param after  id after which to start, excluded, null to start from the first one
+     * @return the given entities ordered by id, looked up as the subscriber requests them
+     */
+    static <T> Flux<T> stream(IdMap<T> map, Supplier<Collection<Long>> search, Long after) {
+        return Flux.defer(() -> Flux.fromStream(search.get().stream()
+                        .filter(id -> after == null || id > after)
+                        .sorted()))
+                .mapNotNull(map::get);
+    }
+
+    /**
+     * @param filter the filters
+     * @param after  id of the last book of the previous page, excluded, or null for the first page
+     * @param limit  maximum number of books in the page
+     * @param books  gives the book of an id, from its map or from the catalogue
+     * @return books passing every filter ordered by id, their number and the facet counts
+     */
+    static FacetedBooks findByFacets(BookFilter filter, Long after, int limit, Function<Long, Book> books) {
+        Collection<Long> titled = filter.title() == null ? null : bookTitles.search(filter.title());
+        return bookFacets.search(filter, titled, after, limit, books);
+    }
+
+    /**
+     * @param isbn  an ISBN
+     * @param books gives the book of an id, from its map or from the catalogue
+     * @return the book having this ISBN
+     * @throws EntityNotFoundException if no book has it
+     */
+    static Book getByIsbn(long isbn, Function<Long, Book> books) throws EntityNotFoundException {
+        long id = isbns.idOf(isbn);
+        Book book = id == IsbnIndex.NONE ? null : books.apply(id);
+        // the book may have changed its ISBN since the lookup
+        if (book == null || book.getIsbn() != isbn) {
+            throw new EntityNotFoundException("Cannot find book with isbn: " + isbn);
+        }
+        return book;
+    }
+
+    /**
+     * @param book a book about to be stored, its id set
+     * @throws DuplicateIsbnException if another book has its ISBN
+     */
+    static void claimIsbn(Book book) {
+        if (!isbns.claim(book.getIsbn(), book.getId())) {
+            throw new DuplicateIsbnException("Book " + isbns.idOf(book.getIsbn()) + " already has isbn: "
+                    + book.getIsbn());
+        }
+    }
+
+    /**
+     * @param book a book no longer stored, or no longer having its ISBN
+     */
+    static void releaseIsbn(Book book) {
+        isbns.release(book.getIsbn(), book.getId());
+    }
+
+    /**
+     * @param authorId id of the author about to be modified
+     * @return the lock of the stripe owning this author, not yet acquired
+     */
+    static ReentrantLock lockAuthor(Long authorId) {
+        return authorLocks[stripe(authorId)];
+    }
+
+    /**
+     * @param bookId id of the book about to be modified
+     * @return the lock of the stripe owning this book, not yet acquired
+     */
+    static ReentrantLock lockBook(Long bookId) {
+        return bookLocks[stripe(bookId)];
+    }
+
+    /**
+     * @param bookIds ids of the books about to be modified together
+     * @return the locks of the stripes owning these books, in the order they must be acquired, not yet acquired
+     */
+    static List<ReentrantLock> lockBooks(Collection<Long> bookIds) {
+        return ordered(bookLocks, bookIds);
+    }
+
+    /**
+     * @param authorIds ids of the authors about to be modified together
+     * @return the locks of the stripes owning these authors, in the order they must be acquired, not yet acquired
+     */
+    static List<ReentrantLock> lockAuthors(Collection<Long> authorIds) {
+        return ordered(authorLocks, authorIds);
+    }
+
+    /**
+     * @param authorId id of an author
+     * @return the number of books of the author having other authors too
+     */
+    static int coAuthoredBooks(Long authorId) {
+        return coAuthored.getOrDefault(authorId, 0);
+    }
+
+    /**
+     * Updates {@link #coAuthored} when the authors of a book change, under the lock of the stripe of the book if it is
+     * already in the store
+     *
+     * @param before authors of the book before the change, null or empty for a new book
+     * @param after  authors of the book after the change, null or empty for a deleted book
+     */
+    static void coAuthorsChanged(Collection<Author> before, Collection<Author> after) {
+        before = before == null ? List.of() : before;
+        after = after == null ? List.of() : after;
+        boolean wasCoAuthored = before.size() > 1;
+        boolean isCoAuthored = after.size() > 1;
+        for (Author author : before) {
+            if (wasCoAuthored && !(isCoAuthored && after.contains(author))) {
+                addCoAuthored(author.getId(), -1);
+            }
+        }
+        for (Author author : after) {
+            if (isCoAuthored && !(wasCoAuthored && before.contains(author))) {
+                addCoAuthored(author.getId(), 1);
+            }
+        }
+    }
+
+    /**
+     * @param authorId id of an author
+     * @param delta    number of co-authored books the author gained, or lost if negative
+     */
+    static void addCoAuthored(Long authorId, int delta) {
+        coAuthored.compute(authorId, (id, count) -> {
+            int updated = (count == null ? 0 : count) + delta;
+            return updated == 0 ? null : updated;
+        });
+    }
+
+    /**
+     * Entry of {@link #dues}, ordered by end date then borrow id
+     *
+     * @param end      end date of the borrow, in milliseconds
+     * @param borrowId id of the borrow
+     */
+    record Due(long end, long borrowId) implements Comparable<Due> {
+
+        Due(Borrow borrow) {
+            this(borrow.getEnd().getTime(), borrow.getId());
+        }
+
+        @Override
+        public int compareTo(Due other) {
+            int byEnd = Long.compare(end, other.end);
+            return byEnd != 0 ? byEnd : Long.compare(borrowId, other.borrowId);
+        }
+    }
+
+    private static AtomicLong counter(Class<?> c) {
         if (c.equals(Book.class)) {
-            return nextBookId++;
+            return nextBookId;
+        } else if (c.equals(Borrow.class)) {
+            return nextBorrowId;
+        } else if (c.equals(Borrower.class) || c.equals(Librarian.class)) {
+            // borrowers and librarians share person_seq in the database
+            return nextPersonId;
         } else {
-            return nextAuthorId++;
+            return nextAuthorId;
+        }
+    }
+
+    private static int stripe(Long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 58);
+    }
+
+    private static List<ReentrantLock> ordered(ReentrantLock[] stripes, Collection<Long> ids) {
+        boolean[] owned = new boolean[STRIPES];
+        for (Long id : ids) {
+            owned[stripe(id)] = true;
+        }
+        List<ReentrantLock> locks = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++) {
+            if (owned[i]) {
+                locks.add(stripes[i]);
+            }
+        }
+        return locks;
+    }
+
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
         }
+        return locks;
     }
 
     static {
@@ -45,6 +353,10 @@ public class MockData {
 
         authors.put(me.getId(), me);
         books.put(jpa.getId(), jpa);
+        authorNames.put(me.getId(), me.getFullName());
+        bookTitles.put(jpa.getId(), jpa.getTitle());
+        bookFacets.put(jpa);
+        isbns.claim(jpa.getIsbn(), jpa.getId());
 
     }
 
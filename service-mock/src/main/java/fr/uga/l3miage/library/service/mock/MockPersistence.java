@@ -0,0 +1,302 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the authors and books of the mock store, with their association, in a {@link SnapshotFile} and the
+ * {@link ChangeLog} of the changes made since, so that they survive a restart. Borrows and people are not kept.
+ * <p>
+ * The store is restored when this post processor is created, before the services: the snapshot is loaded, then the
+ * changes logged after it are replayed. The mock services are then wrapped so that each change they make is logged
+ * with the state of the entity after it. Changes are logged one at a time, and a new snapshot emptying the log is
+ * written every {@code snapshotEvery} changes and on shutdown.
+ */
+public class MockPersistence implements BeanPostProcessor, Ordered, DisposableBean, ChangeLog.Replay {
+
+    static final String SNAPSHOT = "snapshot.bin";
+    static final String CHANGES = "changes.log";
+
+    private final Path snapshot;
+    private final long snapshotEvery;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ChangeLog changeLog;
+    // publishers restored, shared by the books rather than one copy each
+    private final Map<String, String> publishers = new HashMap<>();
+
+    /**
+     * @param directory     directory of the snapshot and the log, created if needed
+     * @param snapshotEvery number of changes logged after which a snapshot is written
+     * @throws IOException if the files cannot be read or are corrupted, then the store is not restored
+     */
+    public MockPersistence(Path directory, long snapshotEvery) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshot = directory.resolve(SNAPSHOT);
+        this.snapshotEvery = snapshotEvery;
+        long sequence = 0;
+        if (Files.exists(snapshot)) {
+            // the snapshot replaces the seed data
+            clearStore();
+            sequence = load(snapshot);
+        }
+        changeLog = ChangeLog.open(directory.resolve(CHANGES), sequence, this);
+        publishers.clear();
+        if (changeLog.version() != ChangeLog.VERSION) {
+            // the log is rewritten in the current version, changes cannot be appended to the old one
+            snapshot();
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof AuthorServiceMockImpl authorService) {
+            return new JournalingAuthorService(authorService, this);
+        }
+        if (bean instanceof BookServiceMockImpl || bean instanceof CompactBookServiceMockImpl) {
+            return new JournalingBookService((BookService) bean, this);
+        }
+        return bean;
+    }
+
+    /**
+     * Runs first, so that the mock services are wrapped before the other decorators hide them
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /**
+     * Writes a snapshot of the store and empties the log
+     *
+     * @throws IOException if the snapshot cannot be written, then the log is kept
+     */
+    public void snapshot() throws IOException {
+        lock.lock();
+        try {
+            Stream<Book> books = Stream.concat(MockData.books.values().stream(), MockData.catalogue.values().stream());
+            SnapshotFile.write(snapshot, changeLog.lastSequence(), MockData.authors.values(), books::iterator);
+            changeLog.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        try {
+            snapshot();
+        } finally {
+            changeLog.close();
+        }
+    }
+
+    /**
+     * Logs the author as it is now in the store, or its deletion
+     *
+     * @param id id of the author changed
+     */
+    void authorChanged(Long id) {
+        append(() -> {
+            Author author = MockData.authors.get(id);
+            if (author == null) {
+                changeLog.deleteAuthor(id);
+            } else {
+                changeLog.putAuthor(author);
+            }
+        });
+    }
+
+    /**
+     * Logs the book as it is now in the store, or its deletion
+     *
+     * @param id id of the book changed
+     */
+    void bookChanged(Long id) {
+        append(() -> {
+            Book book = MockData.books.get(id);
+            if (book == null) {
+                book = MockData.catalogue.get(id);
+            }
+            if (book == null) {
+                changeLog.deleteBook(id);
+            } else {
+                changeLog.putBook(book);
+            }
+        });
+    }
+
+    @Override
+    public void putAuthor(Author author) {
+        storeAuthor(author);
+        MockData.authorNames.put(author.getId(), author.getFullName());
+    }
+
+    @Override
+    public void deleteAuthor(long id) {
+        MockData.authors.remove(id);
+        MockData.authorNames.remove(id);
+        MockData.reserveId(Author.class, id);
+    }
+
+    @Override
+    public void putBook(Book book) {
+        deleteBook(book.getId());
+        storeBook(book, true);
+        MockData.bookTitles.put(book.getId(), book.getTitle());
+        MockData.bookFacets.put(book);
+    }
+
+    @Override
+    public void deleteBook(long id) {
+        Book previous = MockData.books.remove(id);
+        if (previous != null && previous.getAuthors() != null) {
+            for (Author author : previous.getAuthors()) {
+                author.getBooks().remove(previous);
+            }
+            MockData.coAuthorsChanged(previous.getAuthors(), null);
+        }
+        if (previous != null) {
+            MockData.releaseIsbn(previous);
+        }
+        MockData.bookTitles.remove(id);
+        MockData.bookFacets.remove(id);
+        MockData.reserveId(Book.class, id);
+    }
+
+    /**
+     * Loads a snapshot in the emptied store, then links the books to their authors and builds the search indexes once
+     * for all of them rather than for each book, which would copy the posting lists of the indexes once per book
+     *
+     * @return the sequence of the last change included in the snapshot
+     */
+    private long load(Path snapshot) throws IOException {
+        List<Author> authors = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        long sequence = SnapshotFile.read(snapshot, author -> authors.add(storeAuthor(author)), book -> {
+            storeBook(book, false);
+            books.add(book);
+        });
+        linkAll(books);
+        MockData.authorNames.putAll(authors, Author::getId, Author::getFullName);
+        MockData.bookTitles.putAll(books, Book::getId, Book::getTitle);
+        MockData.bookFacets.putAll(books);
+        return sequence;
+    }
+
+    /**
+     * @return the author as it is now in the store, the one given or the one it updated
+     */
+    private static Author storeAuthor(Author author) {
+        Author current = MockData.authors.get(author.getId());
+        if (current == null) {
+            MockData.authors.put(author.getId(), author);
+            current = author;
+        } else {
+            current.setFullName(author.getFullName());
+            current.setVersion(author.getVersion());
+        }
+        MockData.reserveId(Author.class, author.getId());
+        return current;
+    }
+
+    /**
+     * Adds the books to their authors, in one set per author sized for all its books
+     */
+    private static void linkAll(List<Book> books) {
+        Map<Author, List<Book>> booksByAuthor = new IdentityHashMap<>();
+        for (Book book : books) {
+            for (Author author : book.getAuthors() == null ? Set.<Author>of() : book.getAuthors()) {
+                booksByAuthor.computeIfAbsent(author, a -> new ArrayList<>()).add(book);
+            }
+        }
+        booksByAuthor.forEach((author, authorBooks) -> {
+            if (author.getBooks() != null) {
+                authorBooks.addAll(author.getBooks());
+            }
+            author.setBooks(new HashSet<>(authorBooks));
+        });
+    }
+
+    /**
+     * Stores a book but does not index it
+     *
+     * @param link whether to add the book to its authors now, rather than along with others
+     */
+    private void storeBook(Book book, boolean link) {
+        if (book.getPublisher() != null) {
+            book.setPublisher(publishers.computeIfAbsent(book.getPublisher(), Function.identity()));
+        }
+        if (book.getAuthors() != null) {
+            List<Author> authors = new ArrayList<>(book.getAuthors().size());
+            for (Author reference : book.getAuthors()) {
+                Author author = MockData.authors.get(reference.getId());
+                if (author != null) {
+                    authors.add(author);
+                    if (link) {
+                        author.addBook(book);
+                    }
+                }
+            }
+            // immutable, the services copy the association on write
+            book.setAuthors(Set.of(authors.toArray(Author[]::new)));
+            MockData.coAuthorsChanged(null, book.getAuthors());
+        }
+        // replayed from the journal, where the books were written once their ISBN was claimed
+        MockData.isbns.claim(book.getIsbn(), book.getId());
+        MockData.books.put(book.getId(), book);
+        MockData.reserveId(Book.class, book.getId());
+    }
+
+    private void append(Change change) {
+        lock.lock();
+        try {
+            change.write();
+            if (changeLog.changes() >= snapshotEvery) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void clearStore() {
+        for (Book book : List.copyOf(MockData.books.values())) {
+            MockData.books.remove(book.getId());
+            MockData.releaseIsbn(book);
+        }
+        for (Author author : List.copyOf(MockData.authors.values())) {
+            MockData.authors.remove(author.getId());
+        }
+        // at once rather than entity by entity, the store is not in use yet
+        MockData.bookTitles.clear();
+        MockData.bookFacets.clear();
+        MockData.authorNames.clear();
+        MockData.coAuthored.clear();
+    }
+
+    private interface Change {
+        void write() throws IOException;
+    }
+}
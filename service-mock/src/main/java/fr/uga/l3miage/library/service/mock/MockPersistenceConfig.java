@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Keeps the mock store on disk, in the directory {@code library.mock.data-dir}, see {@link MockPersistence}. A snapshot
+ * is written every {@code library.mock.snapshot-every} changes (100 000 by default).
+ * <p>
+ * Disabled unless {@code library.mock.data-dir} is set, the mock store then starts from the seed data every time.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.mock.data-dir")
+public class MockPersistenceConfig {
+
+    @Bean
+    static MockPersistence mockPersistence(@Value("${library.mock.data-dir}") String directory,
+                                           @Value("${library.mock.snapshot-every:100000}") long snapshotEvery)
+            throws IOException {
+        return new MockPersistence(Path.of(directory), snapshotEvery);
+    }
+}
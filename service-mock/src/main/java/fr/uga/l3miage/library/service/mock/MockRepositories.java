@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.data.repo.Repository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The storage engines of the entities kept in the mock store through the {@link Repository} SPI: {@link IdMapRepository}
+ * over the maps of {@link MockData}, which the snapshots and metrics of the store read.
+ */
+@Configuration
+public class MockRepositories {
+
+    @Bean
+    public static Repository<Borrower, Long> borrowers() {
+        return new IdMapRepository<>(MockData.borrowers, Borrower::getId, Borrower::setId,
+                () -> MockData.getNextId(Borrower.class));
+    }
+
+    @Bean
+    public static Repository<Librarian, Long> librarians() {
+        return new IdMapRepository<>(MockData.librarians, Librarian::getId, Librarian::setId,
+                () -> MockData.getNextId(Librarian.class));
+    }
+}
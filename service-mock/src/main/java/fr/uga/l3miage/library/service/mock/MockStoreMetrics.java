@@ -0,0 +1,48 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Gauges of the {@link MockData} store, read when the meters are scraped.
+ * <pre>
+ * library.store.entities{entity} number of entities in the store
+ * library.store.next.id{entity}  id the next entity will get, persons share theirs
+ * library.store.loans            number of books borrowed
+ * </pre>
+ */
+@Component
+public class MockStoreMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        entities(registry, "author", Author.class, MockData.authors::size);
+        entities(registry, "book", Book.class, () -> MockData.books.size() + MockData.catalogue.size());
+        entities(registry, "borrow", Borrow.class, MockData.borrows::size);
+        entities(registry, "borrower", Borrower.class, MockData.borrowers::size);
+        entities(registry, "librarian", Librarian.class, MockData.librarians::size);
+        Gauge.builder("library.store.loans", MockData.loans::size)
+                .description("Number of books borrowed")
+                .register(registry);
+    }
+
+    private static void entities(MeterRegistry registry, String entity, Class<?> type, Supplier<Number> size) {
+        Gauge.builder("library.store.entities", size)
+                .description("Number of entities in the mock store")
+                .tag("entity", entity)
+                .register(registry);
+        Gauge.builder("library.store.next.id", () -> MockData.peekNextId(type))
+                .description("Id the next entity will get")
+                .tag("entity", entity)
+                .register(registry);
+    }
+}
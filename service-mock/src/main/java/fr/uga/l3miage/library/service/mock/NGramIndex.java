@@ -0,0 +1,299 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Incrementally maintained trigram index used for case-insensitive substring search.
+ * <p>
+ * Each indexed text is lower-cased once when it is put in the index. The posting list of a trigram is an
+ * {@link IdBitmap}, so that an id costs about two bytes in it instead of a boxed {@code Long} and a hash set node. A
+ * query intersects the posting lists of its trigrams, rarest first, and checks the candidates against their normalized
+ * key, so its cost is bound by the rarest trigrams rather than by the number of indexed entities. Queries shorter than a
+ * trigram fall back to a scan of the normalized keys.
+ * <p>
+ * Posting lists are copy-on-write: a write replaces the bitmap of each trigram it touches with a copy sharing all the
+ * containers but one, atomically per trigram, so that reads never lock and see a bitmap that is never modified. Writes
+ * to the same id are serialized by a striped lock, writes to different ids only contend on the trigrams they share.
+ * Ids must fit in an {@code int}, as required by {@link IdBitmap}.
+ */
+public class NGramIndex {
+
+    private static final int GRAM = 3;
+    private static final int STRIPES = 64;
+
+    private final IdMap<Key> keys = new IdMap<>();
+    private final Map<Long, IdBitmap> postings = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    public NGramIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * @param text text to normalize
+     * @return the text as it is stored and compared in the index
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Index or re-index a text
+     *
+     * @param id   id of the entity
+     * @param text text to index, replacing any previous one for this id
+     * @throws ArithmeticException if the id does not fit in an int
+     */
+    public void put(Long id, String text) {
+        checkId(id);
+        String key = normalize(text);
+        synchronized (stripe(id)) {
+            Key previous = keys.get(id);
+            if (previous != null && key.equals(previous.text)) {
+                return;
+            }
+            Set<Long> added = grams(key);
+            if (previous != null) {
+                Set<Long> indexed = grams(previous.text);
+                Set<Long> removed = new HashSet<>(indexed);
+                removed.removeAll(added);
+                added.removeAll(indexed);
+                unlink(id, removed);
+            }
+            keys.put(id, new Key(id, key));
+            for (Long gram : added) {
+                postings.compute(gram, (g, posting) -> posting == null ? IdBitmap.of(List.of(id)) : posting.with(id));
+            }
+        }
+    }
+
+    /**
+     * Index the texts of entities that are not indexed yet, such as those of a store being loaded: the posting list of
+     * each trigram is replaced once for all of them rather than once per entity. The entities must not be written to
+     * the index concurrently.
+     *
+     * @param entities the entities
+     * @param id       id of an entity
+     * @param text     text to index for an entity
+     * @param <T>      type of the entities
+     * @throws ArithmeticException if an id does not fit in an int, the entities before it are indexed
+     */
+    public <T> void putAll(Collection<T> entities, ToLongFunction<T> id, Function<T, String> text) {
+        Batch batch = new Batch();
+        for (T entity : entities) {
+            long entityId = id.applyAsLong(entity);
+            if (keys.containsKey(entityId)) {
+                put(entityId, text.apply(entity));
+                continue;
+            }
+            checkId(entityId);
+            String key = normalize(text.apply(entity));
+            keys.put(entityId, new Key(entityId, key));
+            for (int i = 0; i + GRAM <= key.length(); i++) {
+                batch.add(gram(key, i), entityId);
+            }
+        }
+        // the batch bitmaps are published as they are and never modified afterwards
+        batch.forEach((gram, ids) -> postings.merge(gram, ids, IdBitmap::or));
+    }
+
+    /**
+     * @param id id of the entity to remove from the index
+     */
+    public void remove(Long id) {
+        synchronized (stripe(id)) {
+            Key previous = keys.remove(id);
+            if (previous != null) {
+                unlink(id, grams(previous.text));
+            }
+        }
+    }
+
+    /**
+     * @param ids ids of the entities to remove from the index
+     */
+    public void removeAll(Collection<Long> ids) {
+        for (Long id : ids) {
+            remove(id);
+        }
+    }
+
+    /**
+     * @param id    id of an indexed entity
+     * @param query a query already passed through {@link #normalize(String)}
+     * @return true if the indexed text of the entity contains the query
+     */
+    public boolean matches(Long id, String query) {
+        Key key = keys.get(id);
+        return key != null && key.text.contains(query);
+    }
+
+    /**
+     * @param text the text to look for, case-insensitive
+     * @return ids of the entities whose text contains the query, in id order
+     */
+    public Collection<Long> search(String text) {
+        String query = normalize(text);
+        if (query.length() < GRAM) {
+            return keys.values().stream()
+                    .filter(key -> key.text.contains(query))
+                    .map(key -> key.id)
+                    .toList();
+        }
+
+        List<IdBitmap> lists = new ArrayList<>();
+        for (Long gram : grams(query)) {
+            IdBitmap posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingLong(IdBitmap::cardinality));
+        IdBitmap candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates = candidates.and(lists.get(i));
+        }
+        return candidates.page(null, Integer.MAX_VALUE).stream()
+                .filter(id -> matches(id, query))
+                .toList();
+    }
+
+    /**
+     * Empties the index at once, for a store which is not in use yet
+     */
+    public void clear() {
+        for (Key key : keys.values()) {
+            keys.remove(key.id);
+        }
+        postings.clear();
+    }
+
+    /**
+     * @return the number of indexed entities
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    private void unlink(Long id, Set<Long> grams) {
+        for (Long gram : grams) {
+            postings.computeIfPresent(gram, (g, posting) -> {
+                IdBitmap without = posting.without(id);
+                return without.isEmpty() ? null : without;
+            });
+        }
+    }
+
+    // before anything is indexed, the posting lists would reject the id
+    private static void checkId(long id) {
+        if (id != (int) id) {
+            throw new ArithmeticException("id does not fit in an int: " + id);
+        }
+    }
+
+    private Object stripe(long id) {
+        return stripes[(int) (id ^ (id >>> 32)) & (STRIPES - 1)];
+    }
+
+    private static Set<Long> grams(String key) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            grams.add(gram(key, i));
+        }
+        return grams;
+    }
+
+    // three UTF-16 chars packed in a long, so that no substring is allocated, times an odd constant so that the grams
+    // stay distinct but spread over the buckets: the packed chars alone give colliding Long hash codes
+    private static long gram(String key, int from) {
+        long packed = ((long) key.charAt(from) << 32) | ((long) key.charAt(from + 1) << 16) | key.charAt(from + 2);
+        return packed * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Posting lists of a batch, in an open addressing table keyed by the trigrams, so that the trigrams are not boxed
+     * while the batch is built. The ids of a store being loaded come in ascending order, each one is then appended.
+     */
+    private static final class Batch {
+
+        private long[] grams = new long[1024];
+        // null for a free slot
+        private IdBitmap[] ids = new IdBitmap[1024];
+        private int size;
+
+        void add(long gram, long id) {
+            int slot = slot(grams, ids, gram);
+            if (ids[slot] == null) {
+                grams[slot] = gram;
+                ids[slot] = new IdBitmap();
+                if (++size * 2 > grams.length) {
+                    grow();
+                    slot = slot(grams, ids, gram);
+                }
+            }
+            ids[slot].add(id);
+        }
+
+        void forEach(BiConsumer<Long, IdBitmap> action) {
+            for (int slot = 0; slot < grams.length; slot++) {
+                if (ids[slot] != null) {
+                    action.accept(grams[slot], ids[slot]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldGrams = grams;
+            IdBitmap[] oldIds = ids;
+            grams = new long[2 * oldGrams.length];
+            ids = new IdBitmap[2 * oldGrams.length];
+            for (int i = 0; i < oldGrams.length; i++) {
+                if (oldIds[i] != null) {
+                    int slot = slot(grams, ids, oldGrams[i]);
+                    grams[slot] = oldGrams[i];
+                    ids[slot] = oldIds[i];
+                }
+            }
+        }
+
+        /**
+         * @return the slot of the gram, or the free slot where it goes
+         */
+        private static int slot(long[] grams, IdBitmap[] ids, long gram) {
+            int mask = grams.length - 1;
+            int slot = (int) (gram ^ (gram >>> 32)) & mask;
+            while (ids[slot] != null && grams[slot] != gram) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Normalized text of an entity, with its id for the scans of short queries
+     */
+    private static final class Key {
+
+        private final long id;
+        private final String text;
+
+        Key(long id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.ReactiveAuthorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads stream straight from the mock store, writes go through the {@link AuthorService}. Nothing here blocks, so no
+ * scheduler is needed.
+ */
+@Component
+public class ReactiveAuthorServiceMockImpl implements ReactiveAuthorService {
+
+    private final AuthorService authorService;
+
+    @Autowired
+    public ReactiveAuthorServiceMockImpl(AuthorService authorService) {
+        this.authorService = authorService;
+    }
+
+    @Override
+    public Mono<Author> save(Author author) {
+        return Mono.fromCallable(() -> authorService.save(author));
+    }
+
+    @Override
+    public Flux<Author> searchByName(String name, Long after) {
+        return MockData.stream(MockData.authors, () -> MockData.authorNames.search(name), after);
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        return Mono.fromCallable(() -> {
+            authorService.delete(id);
+            return null;
+        }).then();
+    }
+
+    @Override
+    public Mono<Author> get(Long id) {
+        return Mono.fromCallable(() -> AuthorServiceMockImpl.doGet(id));
+    }
+
+    @Override
+    public Mono<Boolean> exists(Long id) {
+        return Mono.fromSupplier(() -> MockData.authors.containsKey(id));
+    }
+
+    @Override
+    public Flux<Author> list(Long after) {
+        return MockData.stream(MockData.authors, after);
+    }
+
+    @Override
+    public Mono<Author> update(Author author) {
+        return Mono.fromCallable(() -> authorService.update(author));
+    }
+}
@@ -0,0 +1,79 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.ReactiveBookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Reads stream straight from the mock store, writes go through the {@link BookService}. Nothing here blocks, so no
+ * scheduler is needed.
+ */
+@Component
+@Profile("!compact")
+public class ReactiveBookServiceMockImpl implements ReactiveBookService {
+
+    private final BookService bookService;
+
+    @Autowired
+    public ReactiveBookServiceMockImpl(BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    @Override
+    public Mono<Book> save(Long authorId, Book book) {
+        return Mono.fromCallable(() -> bookService.save(authorId, book));
+    }
+
+    @Override
+    public Flux<Book> findByTitle(String title, Long after) {
+        return MockData.stream(MockData.books, () -> MockData.bookTitles.search(title), after);
+    }
+
+    @Override
+    public Flux<Book> getByAuthor(Long id) {
+        return Mono.fromCallable(() -> AuthorServiceMockImpl.doGet(id).getBooks())
+                .flatMapIterable(books -> books);
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        return Mono.fromCallable(() -> {
+            bookService.delete(id);
+            return null;
+        }).then();
+    }
+
+    @Override
+    public Mono<Book> addAuthor(Long bookId, Long authorId) {
+        return Mono.fromCallable(() -> bookService.addAuthor(bookId, authorId));
+    }
+
+    @Override
+    public Mono<Book> get(Long id) {
+        return Mono.fromCallable(() -> Optional.ofNullable(MockData.books.get(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id)));
+    }
+
+    @Override
+    public Mono<Boolean> exists(Long id) {
+        return Mono.fromSupplier(() -> MockData.books.containsKey(id));
+    }
+
+    @Override
+    public Flux<Book> list(Long after) {
+        return MockData.stream(MockData.books, after);
+    }
+
+    @Override
+    public Mono<Book> update(Book book) {
+        return Mono.fromCallable(() -> bookService.update(book));
+    }
+}
@@ -0,0 +1,166 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot of the authors and books of the mock store, see {@link MockPersistence}.
+ * <pre>
+ * header: int magic "LSNP", short version, short 0, long sequence, int authors, int books, long body length, int crc32
+ *         of the body, int 0
+ * body:   the authors then the books, encoded by {@link StoreRecords}
+ * </pre>
+ * The sequence is the one of the last change of the {@link ChangeLog} the snapshot includes. A snapshot is written to a
+ * temporary file then moved over the previous one, so that there always is a whole snapshot on disk. It is read
+ * through a memory mapping, without copying the file. Snapshots of the previous versions are read too.
+ */
+public final class SnapshotFile {
+
+    static final int MAGIC = 0x4C534E50;
+    static final short VERSION = StoreRecords.VERSIONED;
+    static final int HEADER = 40;
+    private static final int BUFFER = 1 << 20;
+
+    private SnapshotFile() {
+        // to hide the public one
+    }
+
+    /**
+     * @param file     path of the snapshot, replaced atomically
+     * @param sequence sequence of the last change included
+     * @param authors  the authors
+     * @param books    the books, with their authors
+     * @throws IOException if the snapshot cannot be written, then the previous one is left as it was
+     */
+    public static void write(Path file, long sequence, Iterable<Author> authors, Iterable<Book> books)
+            throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Body body = new Body(channel);
+            int authorCount = 0;
+            for (Author author : authors) {
+                body.write(StoreRecords.encode(author));
+                authorCount++;
+            }
+            int bookCount = 0;
+            for (Book book : books) {
+                body.write(StoreRecords.encode(book));
+                bookCount++;
+            }
+            body.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER)
+                    .putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putShort((short) 0)
+                    .putLong(sequence)
+                    .putInt(authorCount)
+                    .putInt(bookCount)
+                    .putLong(body.length)
+                    .putInt((int) body.crc.getValue())
+                    .putInt(0)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param file    path of the snapshot
+     * @param authors receives the authors, in the order they were written
+     * @param books   receives the books after all the authors, in the order they were written
+     * @return the sequence of the last change included in the snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot of a supported version or is corrupted
+     */
+    public static long read(Path file, Consumer<Author> authors, Consumer<Book> books) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("not a snapshot: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt() != MAGIC) {
+                throw new IOException("not a snapshot: " + file);
+            }
+            short version = mapped.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("unsupported snapshot version " + version + ": " + file);
+            }
+            mapped.getShort();
+            long sequence = mapped.getLong();
+            int authorCount = mapped.getInt();
+            int bookCount = mapped.getInt();
+            long length = mapped.getLong();
+            int checksum = mapped.getInt();
+            if (length != channel.size() - HEADER) {
+                throw new IOException("truncated snapshot: " + file);
+            }
+            ByteBuffer body = mapped.slice(HEADER, (int) length);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("corrupted snapshot: " + file);
+            }
+            for (int i = 0; i < authorCount; i++) {
+                authors.accept(StoreRecords.decodeAuthor(body, version));
+            }
+            for (int i = 0; i < bookCount; i++) {
+                books.accept(StoreRecords.decodeBook(body, version));
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Records written after the header through a direct buffer, checksummed on the way
+     */
+    private static final class Body {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+        private final CRC32 crc = new CRC32();
+        private long length;
+
+        Body(FileChannel channel) throws IOException {
+            this.channel = channel;
+            channel.position(HEADER);
+        }
+
+        void write(ByteBuffer record) throws IOException {
+            crc.update(record.duplicate());
+            length += record.remaining();
+            if (record.remaining() > buffer.remaining()) {
+                flush();
+            }
+            if (record.remaining() > buffer.capacity()) {
+                drain(record);
+            } else {
+                buffer.put(record);
+            }
+        }
+
+        void flush() throws IOException {
+            drain(buffer.flip());
+            buffer.clear();
+        }
+
+        private void drain(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+}
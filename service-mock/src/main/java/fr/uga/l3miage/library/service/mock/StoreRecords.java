@@ -0,0 +1,129 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Binary encoding of the authors and books shared by the {@link SnapshotFile} and the {@link ChangeLog}, big-endian.
+ * <pre>
+ * author: long id, string fullName, long version
+ * book:   long id, string title, long isbn, string publisher, short year, byte language (ordinal, -1 for none),
+ *         int authors, long authorId..., long version
+ * string: int length in bytes (-1 for null), UTF-8 bytes
+ * </pre>
+ * This is the format {@link #VERSIONED}, format 1 is still decoded: it has no versions, which are then 0. Authors of
+ * decoded books only have their id set.
+ */
+final class StoreRecords {
+
+    /** first format with the versions of the entities, the one written */
+    static final short VERSIONED = 2;
+
+    private static final Book.Language[] LANGUAGES = Book.Language.values();
+
+    private StoreRecords() {
+        // to hide the public one
+    }
+
+    static ByteBuffer encode(Author author) {
+        byte[] name = bytes(author.getFullName());
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES + size(name));
+        buffer.putLong(author.getId());
+        putString(buffer, name);
+        buffer.putLong(author.getVersion());
+        return buffer.flip();
+    }
+
+    static ByteBuffer encode(Book book) {
+        byte[] title = bytes(book.getTitle());
+        byte[] publisher = bytes(book.getPublisher());
+        int authors = book.getAuthors() == null ? 0 : book.getAuthors().size();
+        ByteBuffer buffer = ByteBuffer.allocate(3 * Long.BYTES + size(title) + size(publisher) + Short.BYTES + 1
+                + Integer.BYTES + authors * Long.BYTES);
+        buffer.putLong(book.getId());
+        putString(buffer, title);
+        buffer.putLong(book.getIsbn());
+        putString(buffer, publisher);
+        buffer.putShort(book.getYear());
+        buffer.put(book.getLanguage() == null ? -1 : (byte) book.getLanguage().ordinal());
+        buffer.putInt(authors);
+        if (authors > 0) {
+            for (Author author : book.getAuthors()) {
+                buffer.putLong(author.getId());
+            }
+        }
+        buffer.putLong(book.getVersion());
+        return buffer.flip();
+    }
+
+    static Author decodeAuthor(ByteBuffer buffer, short format) {
+        Author author = new Author();
+        author.setId(buffer.getLong());
+        author.setFullName(getString(buffer));
+        if (format >= VERSIONED) {
+            author.setVersion(buffer.getLong());
+        }
+        return author;
+    }
+
+    static Book decodeBook(ByteBuffer buffer, short format) {
+        Book book = new Book();
+        book.setId(buffer.getLong());
+        book.setTitle(getString(buffer));
+        book.setIsbn(buffer.getLong());
+        book.setPublisher(getString(buffer));
+        book.setYear(buffer.getShort());
+        byte language = buffer.get();
+        book.setLanguage(language < 0 ? null : LANGUAGES[language]);
+        Author[] authors = new Author[buffer.getInt()];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = new Author();
+            authors[i].setId(buffer.getLong());
+        }
+        if (authors.length > 0) {
+            book.setAuthors(Set.of(authors));
+        }
+        if (format >= VERSIONED) {
+            book.setVersion(buffer.getLong());
+        }
+        return book;
+    }
+
+    private static byte[] bytes(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int size(byte[] text) {
+        return Integer.BYTES + (text == null ? 0 : text.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] text) {
+        if (text == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(text.length);
+            buffer.put(text);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String text;
+        if (buffer.hasArray()) {
+            text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return text;
+    }
+}
@@ -6,6 +6,15 @@ import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
 
 
@@ -49,4 +58,110 @@ class AuthorServiceMockImplTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteRemovesTheSoloBooksOfTheAuthor() throws Exception {
+        Author author = author("Solo");
+        List<Long> books = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            books.add(bookServiceMock.save(author.getId(), book("Solo book " + i)).getId());
+        }
+
+        authorServiceMock.delete(author.getId());
+
+        assertThat(authorServiceMock.exists(author.getId())).isFalse();
+        assertThat(books).noneMatch(bookServiceMock::exists);
+        assertThat(bookServiceMock.findByTitle("solo book")).isEmpty();
+    }
+
+    @Test
+    void coAuthoredBooksFollowTheAssociation() throws Exception {
+        Author first = author("First");
+        Author second = author("Second");
+        Book book = bookServiceMock.save(first.getId(), book("Shared"));
+
+        bookServiceMock.addAuthor(book.getId(), second.getId());
+        bookServiceMock.addAuthor(book.getId(), second.getId());
+        assertThat(MockData.coAuthoredBooks(first.getId())).isEqualTo(1);
+        assertThat(MockData.coAuthoredBooks(second.getId())).isEqualTo(1);
+        assertThatThrownBy(() -> authorServiceMock.delete(first.getId())).isInstanceOf(DeleteAuthorException.class);
+
+        bookServiceMock.delete(book.getId());
+        assertThat(MockData.coAuthoredBooks(first.getId())).isZero();
+        assertThat(MockData.coAuthoredBooks(second.getId())).isZero();
+        authorServiceMock.delete(first.getId());
+        assertThat(authorServiceMock.exists(first.getId())).isFalse();
+    }
+
+    @Test
+    void versionsAreBumpedByTheChanges() throws Exception {
+        Author first = author("First");
+        Author second = author("Second");
+        Book book = bookServiceMock.save(first.getId(), book("Versioned"));
+        long version = book.getVersion();
+
+        bookServiceMock.addAuthor(book.getId(), second.getId());
+        assertThat(bookServiceMock.get(book.getId()).getVersion()).isEqualTo(version + 1);
+        bookServiceMock.addAuthor(book.getId(), second.getId());
+        assertThat(bookServiceMock.get(book.getId()).getVersion()).isEqualTo(version + 1);
+        assertThat(bookServiceMock.update(book).getVersion()).isEqualTo(version + 2);
+
+        long authorVersion = second.getVersion();
+        second.setFullName("Second, renamed");
+        assertThat(authorServiceMock.update(second).getVersion()).isEqualTo(authorVersion + 1);
+    }
+
+    @Test
+    void concurrentAddAuthorAndDeleteAgreeOnTheOutcome() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 200; round++) {
+                Author author = author("Deleted " + round);
+                Author coAuthor = author("Co-author " + round);
+                Book book = bookServiceMock.save(author.getId(), book("Contested " + round));
+                CountDownLatch start = new CountDownLatch(1);
+                Future<Boolean> added = executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookServiceMock.addAuthor(book.getId(), coAuthor.getId());
+                        return true;
+                    } catch (EntityNotFoundException e) {
+                        return false;
+                    }
+                });
+                Future<Boolean> deleted = executor.submit(() -> {
+                    start.await();
+                    try {
+                        authorServiceMock.delete(author.getId());
+                        return true;
+                    } catch (DeleteAuthorException e) {
+                        return false;
+                    }
+                });
+                start.countDown();
+
+                // either the book was co-authored in time and kept, or it went away with its author
+                assertThat(added.get()).isNotEqualTo(deleted.get());
+                assertThat(bookServiceMock.exists(book.getId())).isEqualTo(added.get());
+                assertThat(authorServiceMock.exists(author.getId())).isEqualTo(added.get());
+                assertThat(coAuthor.getBooks() == null ? List.of() : coAuthor.getBooks())
+                        .allMatch(b -> bookServiceMock.exists(b.getId()));
+                assertThat(MockData.coAuthoredBooks(coAuthor.getId())).isEqualTo(added.get() ? 1 : 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Author author(String name) {
+        Author author = new Author();
+        author.setFullName(name);
+        return authorServiceMock.save(author);
+    }
+
+    private static Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        return book;
+    }
+}
@@ -0,0 +1,345 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.FacetedBooks;
+import fr.uga.l3miage.library.service.base.Lookup;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookServiceMockImplTest {
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl(authorServiceMock);
+
+    @Test
+    void staleUpdateIsRejected() throws Exception {
+        Author author = author("Pierre Loti");
+        Book book = bookServiceMock.save(author.getId(), book("Pêcheur d'Islande", 0));
+        Book first = copy(book);
+        Book second = copy(book);
+
+        first.setTitle("Pêcheur d'Islande, tome 1");
+        Book updated = bookServiceMock.update(first);
+        second.setTitle("Pêcheur d'Islande, tome 2");
+
+        assertThatThrownBy(() -> bookServiceMock.update(second)).isInstanceOf(ConcurrentUpdateException.class);
+        assertThat(updated).isNotSameAs(book).isNotSameAs(first);
+        assertThat(bookServiceMock.get(book.getId())).isSameAs(updated);
+        assertThat(updated.getTitle()).isEqualTo("Pêcheur d'Islande, tome 1");
+        assertThat(updated.getVersion()).isEqualTo(book.getVersion() + 1);
+        // the shared book is left as it was
+        assertThat(book.getTitle()).isEqualTo("Pêcheur d'Islande");
+        assertThat(authorServiceMock.get(author.getId()).getBooks()).containsExactly(updated);
+    }
+
+    @Test
+    void getAllSeparatesFoundAndMissing() throws Exception {
+        Author author = author("Colette");
+        Book claudine = bookServiceMock.save(author.getId(), book("Claudine à l'école", 0));
+        Book cheri = bookServiceMock.save(author.getId(), book("Chéri", 0));
+        bookServiceMock.delete(claudine.getId());
+
+        Lookup<Book, Long> lookup = bookServiceMock.getAll(List.of(cheri.getId(), claudine.getId(), cheri.getId()));
+
+        assertThat(lookup.found()).containsExactly(cheri);
+        assertThat(lookup.missing()).containsExactly(claudine.getId());
+    }
+
+    @Test
+    void concurrentUpdatesAreNotLost() throws Exception {
+        Author author = author("0");
+        Book book = bookServiceMock.save(author.getId(), book("0", 0));
+        int writers = 4;
+        int increments = 2_000;
+        int renames = 500;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        try {
+            List<Future<?>> updates = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                updates.add(executor.submit(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        // read, change a copy, retry from the new version when another update went first
+                        while (true) {
+                            Book current = bookServiceMock.get(book.getId());
+                            Book changed = book(Long.toString(current.getIsbn() + 1), current.getIsbn() + 1);
+                            changed.setId(current.getId());
+                            changed.setVersion(current.getVersion());
+                            try {
+                                bookServiceMock.update(changed);
+                                break;
+                            } catch (ConcurrentUpdateException e) {
+                                // retried
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            updates.add(executor.submit(() -> {
+                for (int i = 1; i <= renames; i++) {
+                    Author current = authorServiceMock.get(author.getId());
+                    Author changed = new Author();
+                    changed.setId(current.getId());
+                    changed.setFullName(Integer.toString(i));
+                    changed.setVersion(current.getVersion());
+                    authorServiceMock.update(changed);
+                }
+                return null;
+            }));
+            Future<Integer> reader = executor.submit(() -> {
+                int torn = 0;
+                while (writing.get()) {
+                    for (Book read : authorServiceMock.get(author.getId()).getBooks()) {
+                        if (!read.getTitle().equals(Long.toString(read.getIsbn()))) {
+                            torn++;
+                        }
+                    }
+                }
+                return torn;
+            });
+            for (Future<?> update : updates) {
+                update.get();
+            }
+            writing.set(false);
+            assertThat(reader.get()).isZero();
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+
+        Book updated = bookServiceMock.get(book.getId());
+        Author renamed = authorServiceMock.get(author.getId());
+        assertThat(updated.getIsbn()).isEqualTo((long) writers * increments);
+        assertThat(updated.getVersion()).isEqualTo(book.getVersion() + (long) writers * increments);
+        assertThat(renamed.getFullName()).isEqualTo(Integer.toString(renames));
+        // the association refers to the current book and author, whichever update came last
+        assertThat(renamed.getBooks()).singleElement().isSameAs(updated);
+        assertThat(updated.getAuthors()).singleElement().isSameAs(renamed);
+    }
+
+    @Test
+    void facetsAreCountedWithTheOtherFilters() throws Exception {
+        Author author = author("Amin Maalouf");
+        Book leon = bookServiceMock.save(author.getId(), book("Léon l'Africain", "Lattès", 1986, Book.Language.FRENCH));
+        Book samarcande = bookServiceMock.save(author.getId(), book("Samarcande", "Lattès", 1988, Book.Language.FRENCH));
+        Book rock = bookServiceMock.save(author.getId(), book("The Rock of Tanios", "Lattès", 1993, Book.Language.ENGLISH));
+
+        FacetedBooks english = bookServiceMock.findByFacets(
+                new BookFilter(null, "Lattès", null, null, Book.Language.ENGLISH), null, 10);
+        assertThat(english.books()).containsExactly(rock);
+        assertThat(english.total()).isEqualTo(1);
+        assertThat(english.languages()).containsEntry(Book.Language.FRENCH, 2L).containsEntry(Book.Language.ENGLISH, 1L);
+        assertThat(english.decades()).containsExactly(Map.entry(1990, 1L));
+        assertThat(english.publishers()).containsEntry("Lattès", 1L);
+
+        BookFilter eighties = new BookFilter("A", "Lattès", (short) 1980, (short) 1989, null);
+        assertThat(bookServiceMock.findByFacets(eighties, null, 10).books()).containsExactly(leon, samarcande);
+        assertThat(bookServiceMock.findByFacets(eighties, leon.getId(), 10).books()).containsExactly(samarcande);
+
+        // the index follows the updates and the deletions
+        Book moved = copy(samarcande);
+        moved.setPublisher("Lattès");
+        moved.setYear((short) 1991);
+        moved.setLanguage(Book.Language.FRENCH);
+        moved = bookServiceMock.update(moved);
+        bookServiceMock.delete(leon.getId());
+        FacetedBooks nineties = bookServiceMock.findByFacets(
+                new BookFilter(null, "Lattès", (short) 1990, (short) 1999, null), null, 10);
+        assertThat(nineties.books()).containsExactly(moved, rock);
+        assertThat(nineties.decades()).containsExactly(Map.entry(1990, 2L));
+        assertThat(nineties.languages()).containsEntry(Book.Language.FRENCH, 1L);
+    }
+
+    @Test
+    void duplicateIsbnsAreRejected() throws Exception {
+        Author author = author("Emile Zola");
+        Book germinal = bookServiceMock.save(author.getId(), book("Germinal", 9782070360024L));
+        assertThatThrownBy(() -> bookServiceMock.save(author.getId(), book("Nana", 9782070360024L)))
+                .isInstanceOf(DuplicateIsbnException.class);
+        Book assommoir = bookServiceMock.save(author.getId(), book("L'Assommoir", 9782070360031L));
+        Book changed = copy(assommoir);
+        changed.setIsbn(germinal.getIsbn());
+        assertThatThrownBy(() -> bookServiceMock.update(changed)).isInstanceOf(DuplicateIsbnException.class);
+
+        assertThat(bookServiceMock.getByIsbn(germinal.getIsbn())).isSameAs(germinal);
+        assertThat(bookServiceMock.getByIsbn(assommoir.getIsbn())).isSameAs(assommoir);
+        assertThat(authorServiceMock.get(author.getId()).getBooks()).containsExactlyInAnyOrder(germinal, assommoir);
+
+        // an update and a deletion give the ISBN back
+        Book renumbered = copy(germinal);
+        renumbered.setIsbn(9782070360048L);
+        bookServiceMock.update(renumbered);
+        assertThatThrownBy(() -> bookServiceMock.getByIsbn(9782070360024L))
+                .isInstanceOf(EntityNotFoundException.class);
+        bookServiceMock.delete(assommoir.getId());
+        Book nana = bookServiceMock.save(author.getId(), book("Nana", 9782070360031L));
+        assertThat(bookServiceMock.getByIsbn(9782070360031L)).isSameAs(nana);
+    }
+
+    @Test
+    void saveForAMissingAuthorKeepsNothing() throws Exception {
+        assertThatThrownBy(() -> bookServiceMock.save(Long.MAX_VALUE, book("Thérèse Raquin", 9782070360055L)))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> bookServiceMock.getByIsbn(9782070360055L)).isInstanceOf(EntityNotFoundException.class);
+        assertThat(bookServiceMock.findByTitle("Thérèse Raquin")).isEmpty();
+
+        // the isbn was not kept by the failed save
+        Author author = author("Emile Zola");
+        Book saved = bookServiceMock.save(author.getId(), book("Thérèse Raquin", 9782070360055L));
+        assertThat(bookServiceMock.getByIsbn(9782070360055L)).isSameAs(saved);
+    }
+
+    @Test
+    void concurrentSavesOfAnIsbnKeepOneBook() throws Exception {
+        Author author = author("Jules Verne");
+        int writers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        int saved = 0;
+        try {
+            List<Future<Boolean>> saves = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                Book book = book("Vingt mille lieues sous les mers " + w, 9782253006329L);
+                saves.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookServiceMock.save(author.getId(), book);
+                        return true;
+                    } catch (DuplicateIsbnException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> save : saves) {
+                saved += save.get() ? 1 : 0;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(saved).isEqualTo(1);
+        assertThat(authorServiceMock.get(author.getId()).getBooks()).singleElement()
+                .isSameAs(bookServiceMock.getByIsbn(9782253006329L));
+    }
+
+    @Test
+    void concurrentDeleteAndAddAuthorLeaveNoAuthorWithTheBook() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 200; round++) {
+                Author author = author("Author " + round);
+                Author coAuthor = author("Co-author " + round);
+                Book book = bookServiceMock.save(author.getId(), book("Deleted " + round, 0));
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> added = executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookServiceMock.addAuthor(book.getId(), coAuthor.getId());
+                    } catch (EntityNotFoundException e) {
+                        // deleted first
+                    }
+                    return null;
+                });
+                Future<?> deleted = executor.submit(() -> {
+                    start.await();
+                    bookServiceMock.delete(book.getId());
+                    return null;
+                });
+                start.countDown();
+                added.get();
+                deleted.get();
+
+                // whichever came first, neither author is left with the book nor counted as co-authoring it
+                assertThat(bookServiceMock.exists(book.getId())).isFalse();
+                for (Author linked : List.of(author, coAuthor)) {
+                    Set<Book> books = authorServiceMock.get(linked.getId()).getBooks();
+                    assertThat(books == null ? Set.<Book>of() : books).noneMatch(b -> b.getId().equals(book.getId()));
+                    assertThat(MockData.coAuthoredBooks(linked.getId())).isZero();
+                }
+                authorServiceMock.delete(author.getId());
+                authorServiceMock.delete(coAuthor.getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void saveAllLinksNoAuthorWhenOneIsGone() throws Exception {
+        Author kept = author("Alexandre Dumas");
+        Author gone = author("Auguste Maquet");
+        // deleted once saveAll resolved it, as by a concurrent deletion
+        BookServiceMockImpl service = new BookServiceMockImpl(new AuthorServiceMockImpl() {
+            @Override
+            public Author get(Long id) throws EntityNotFoundException {
+                Author author = super.get(id);
+                if (id.equals(gone.getId())) {
+                    try {
+                        authorServiceMock.delete(id);
+                    } catch (DeleteAuthorException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return author;
+            }
+        });
+        Book musketeers = book("Les Trois Mousquetaires", 9782070393220L);
+        // the author still there is linked first
+        musketeers.setAuthors(new LinkedHashSet<>(List.of(kept, gone)));
+
+        assertThatThrownBy(() -> service.saveAll(List.of(musketeers))).isInstanceOf(EntityNotFoundException.class);
+        assertThat(authorServiceMock.get(kept.getId()).getBooks()).isNullOrEmpty();
+        assertThat(MockData.coAuthoredBooks(kept.getId())).isZero();
+        assertThatThrownBy(() -> bookServiceMock.getByIsbn(9782070393220L)).isInstanceOf(EntityNotFoundException.class);
+        authorServiceMock.delete(kept.getId());
+    }
+
+    private Author author(String name) {
+        Author author = new Author();
+        author.setFullName(name);
+        return authorServiceMock.save(author);
+    }
+
+    private static Book book(String title, long isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        return book;
+    }
+
+    private static Book book(String title, String publisher, int year, Book.Language language) {
+        Book book = book(title, 0);
+        book.setPublisher(publisher);
+        book.setYear((short) year);
+        book.setLanguage(language);
+        return book;
+    }
+
+    private static Book copy(Book book) {
+        Book copy = book(book.getTitle(), book.getIsbn());
+        copy.setId(book.getId());
+        copy.setVersion(book.getVersion());
+        return copy;
+    }
+}
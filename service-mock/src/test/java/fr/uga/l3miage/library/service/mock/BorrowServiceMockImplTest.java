@@ -0,0 +1,172 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowEvent;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BorrowServiceMockImplTest {
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl(authorServiceMock);
+    BorrowerServiceMockImpl borrowerServiceMock = new BorrowerServiceMockImpl(MockRepositories.borrowers());
+    LibrarianServiceMockImpl librarianServiceMock = new LibrarianServiceMockImpl(MockRepositories.librarians());
+    List<BorrowEvent> events = new CopyOnWriteArrayList<>();
+    BorrowServiceMockImpl borrowServiceMock = new BorrowServiceMockImpl(borrowerServiceMock, librarianServiceMock,
+            bookServiceMock, event -> events.add((BorrowEvent) event));
+
+    Long borrower;
+    Long librarian;
+    List<Long> books = new ArrayList<>();
+
+    @BeforeEach
+    void setup() throws EntityNotFoundException {
+        Borrower b = new Borrower();
+        b.setFirstName("Jane");
+        b.setLastName("Doe");
+        borrower = borrowerServiceMock.save(b).getId();
+        Librarian l = new Librarian();
+        l.setFirstName("John");
+        l.setLastName("Smith");
+        librarian = librarianServiceMock.save(l).getId();
+
+        Author author = new Author();
+        author.setFullName("Foo");
+        author = authorServiceMock.save(author);
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            books.add(bookServiceMock.save(author.getId(), book).getId());
+        }
+    }
+
+    @Test
+    void borrowIsAllOrNothing() throws Exception {
+        borrowServiceMock.borrow(borrower, librarian, List.of(books.get(1)), tomorrow());
+
+        assertThatThrownBy(() -> borrowServiceMock.borrow(borrower, librarian, books, tomorrow()))
+                .isInstanceOf(BookUnavailableException.class);
+
+        assertThat(borrowServiceMock.isAvailable(books.get(0))).isTrue();
+        assertThat(borrowServiceMock.isAvailable(books.get(1))).isFalse();
+        assertThat(borrowServiceMock.isAvailable(books.get(2))).isTrue();
+    }
+
+    @Test
+    void giveBackReleasesTheBooksOnce() throws Exception {
+        Borrow borrow = borrowServiceMock.borrow(borrower, librarian, books, tomorrow());
+
+        borrowServiceMock.giveBack(borrow.getId());
+
+        assertThat(borrow.getReturned()).isNotNull();
+        assertThat(books).allMatch(borrowServiceMock::isAvailable);
+        assertThatThrownBy(() -> borrowServiceMock.giveBack(borrow.getId())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void unknownBookIsNotFound() {
+        assertThatThrownBy(() -> borrowServiceMock.borrow(borrower, librarian, List.of(Long.MAX_VALUE), tomorrow()))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void overdueAreTheOpenBorrowsEndedBeforeNow() throws Exception {
+        Date now = new Date();
+        Borrow late = borrowServiceMock.borrow(borrower, librarian, List.of(books.get(0)), new Date(now.getTime() - 1000));
+        Borrow returned = borrowServiceMock.borrow(borrower, librarian, List.of(books.get(1)), new Date(now.getTime() - 1000));
+        Borrow onTime = borrowServiceMock.borrow(borrower, librarian, List.of(books.get(2)), tomorrow());
+        borrowServiceMock.giveBack(returned.getId());
+
+        assertThat(borrowServiceMock.findOverdue(now))
+                .contains(late)
+                .doesNotContain(returned, onTime);
+    }
+
+    @Test
+    void overdueIsFlaggedOnceAndNeverAfterReturn() throws Exception {
+        Date yesterday = new Date(System.currentTimeMillis() - 24 * 3600 * 1000);
+        Borrow late = borrowServiceMock.borrow(borrower, librarian, List.of(books.get(0)), yesterday);
+        Borrow returned = borrowServiceMock.borrow(borrower, librarian, List.of(books.get(1)), yesterday);
+        borrowServiceMock.giveBack(returned.getId());
+
+        assertThat(borrowServiceMock.flagOverdue(new Date())).contains(late).doesNotContain(returned);
+        assertThat(borrowServiceMock.flagOverdue(new Date())).doesNotContain(late);
+        borrowServiceMock.giveBack(late.getId());
+
+        assertThat(events).filteredOn(e -> e.borrowId().equals(late.getId()))
+                .extracting(BorrowEvent::type, BorrowEvent::overdue)
+                .containsExactly(
+                        tuple(BorrowEvent.Type.CREATED, false),
+                        tuple(BorrowEvent.Type.OVERDUE, true),
+                        tuple(BorrowEvent.Type.RETURNED, true));
+        assertThat(events).filteredOn(e -> e.borrowId().equals(returned.getId()))
+                .extracting(BorrowEvent::type)
+                .containsExactly(BorrowEvent.Type.CREATED, BorrowEvent.Type.RETURNED);
+    }
+
+    @Test
+    void concurrentBorrowsOfTheSameBookHaveASingleWinner() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 50; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Borrow>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    // every thread wants the shared book plus one of the others
+                    List<Long> wanted = List.of(books.get(0), books.get(1 + t % 2));
+                    Callable<Borrow> borrow = () -> {
+                        start.await();
+                        try {
+                            return borrowServiceMock.borrow(borrower, librarian, wanted, tomorrow());
+                        } catch (BookUnavailableException e) {
+                            return null;
+                        }
+                    };
+                    results.add(executor.submit(borrow));
+                }
+                start.countDown();
+
+                List<Borrow> winners = new ArrayList<>();
+                for (Future<Borrow> result : results) {
+                    if (result.get() != null) {
+                        winners.add(result.get());
+                    }
+                }
+                assertThat(winners).hasSize(1);
+                Borrow winner = winners.get(0);
+                // the losers released whatever they had claimed
+                long held = books.stream().filter(id -> !borrowServiceMock.isAvailable(id)).count();
+                assertThat(held).isEqualTo(2);
+                borrowServiceMock.giveBack(winner.getId());
+                assertThat(books).allMatch(borrowServiceMock::isAvailable);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Date tomorrow() {
+        return new Date(System.currentTimeMillis() + 24 * 3600 * 1000);
+    }
+}
@@ -0,0 +1,113 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysTheChangesAfterTheSnapshot() throws IOException {
+        Path file = directory.resolve("changes.log");
+        try (ChangeLog log = ChangeLog.open(file, 10, new Changes())) {
+            log.putAuthor(author(1L, "Jules Verne"));
+            log.putBook(book(2L, "De la Terre à la Lune"));
+            log.deleteBook(2L);
+            log.deleteAuthor(1L);
+            assertThat(log.lastSequence()).isEqualTo(14);
+        }
+
+        Changes all = new Changes();
+        try (ChangeLog log = ChangeLog.open(file, 10, all)) {
+            assertThat(log.lastSequence()).isEqualTo(14);
+            assertThat(log.changes()).isEqualTo(4);
+        }
+        assertThat(all.replayed).containsExactly("put author 1 Jules Verne", "put book 2 De la Terre à la Lune",
+                "delete book 2", "delete author 1");
+
+        Changes tail = new Changes();
+        try (ChangeLog log = ChangeLog.open(file, 12, tail)) {
+            assertThat(log.changes()).isEqualTo(2);
+        }
+        assertThat(tail.replayed).containsExactly("delete book 2", "delete author 1");
+    }
+
+    @Test
+    void tornTailIsDroppedAndOverwritten() throws IOException {
+        Path file = directory.resolve("changes.log");
+        try (ChangeLog log = ChangeLog.open(file, 0, new Changes())) {
+            log.putAuthor(author(1L, "Jules Verne"));
+            log.putAuthor(author(2L, "Pierre-Jules Hetzel"));
+        }
+        long size = Files.size(file);
+        // a crash in the middle of the second change
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 5);
+        }
+
+        Changes replayed = new Changes();
+        try (ChangeLog log = ChangeLog.open(file, 0, replayed)) {
+            assertThat(log.lastSequence()).isEqualTo(1);
+            log.deleteAuthor(1L);
+        }
+        assertThat(replayed.replayed).containsExactly("put author 1 Jules Verne");
+
+        Changes afterwards = new Changes();
+        try (ChangeLog log = ChangeLog.open(file, 0, afterwards)) {
+            assertThat(log.lastSequence()).isEqualTo(2);
+        }
+        assertThat(afterwards.replayed).containsExactly("put author 1 Jules Verne", "delete author 1");
+    }
+
+    private static Author author(Long id, String name) {
+        Author author = new Author();
+        author.setId(id);
+        author.setFullName(name);
+        return author;
+    }
+
+    private static Book book(Long id, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        return book;
+    }
+
+    private static class Changes implements ChangeLog.Replay {
+        final List<String> replayed = new ArrayList<>();
+
+        @Override
+        public void putAuthor(Author author) {
+            replayed.add("put author " + author.getId() + " " + author.getFullName());
+        }
+
+        @Override
+        public void deleteAuthor(long id) {
+            replayed.add("delete author " + id);
+        }
+
+        @Override
+        public void putBook(Book book) {
+            replayed.add("put book " + book.getId() + " " + book.getTitle());
+        }
+
+        @Override
+        public void deleteBook(long id) {
+            replayed.add("delete book " + id);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactCatalogueTest {
+
+    private final Map<Long, Author> authors = new HashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final CompactCatalogue catalogue = new CompactCatalogue(nextId::getAndIncrement, authors::get);
+
+    @Test
+    void booksAreMaterializedAsStored() {
+        Author verne = author(1L, "Jules Verne");
+        Book book = book("Vingt mille lieues sous les mers — édition illustrée", "Hetzel", verne);
+        book.setIsbn(9782070360024L);
+        book.setYear((short) 1870);
+        book.setLanguage(Book.Language.FRENCH);
+        Book bare = new Book();
+        catalogue.addAll(List.of(book, bare));
+
+        Book read = catalogue.get(book.getId());
+        assertThat(read).isNotSameAs(book);
+        assertThat(read.getTitle()).isEqualTo(book.getTitle());
+        assertThat(read.getPublisher()).isEqualTo("Hetzel");
+        assertThat(read.getIsbn()).isEqualTo(9782070360024L);
+        assertThat(read.getYear()).isEqualTo((short) 1870);
+        assertThat(read.getLanguage()).isEqualTo(Book.Language.FRENCH);
+        assertThat(read.getAuthors()).containsExactly(verne);
+
+        Book readBare = catalogue.get(bare.getId());
+        assertThat(readBare.getTitle()).isNull();
+        assertThat(readBare.getPublisher()).isNull();
+        assertThat(readBare.getLanguage()).isNull();
+        assertThat(readBare.getAuthors()).isNull();
+        assertThat(catalogue.get(nextId.get())).isNull();
+    }
+
+    @Test
+    void booksOfAnAuthorFollowTheCatalogue() {
+        Author verne = author(1L, "Jules Verne");
+        Author hetzel = author(2L, "Pierre-Jules Hetzel");
+        Book first = book("Cinq semaines en ballon", "Hetzel", verne);
+        Book second = book("De la Terre à la Lune", "Hetzel", verne);
+        catalogue.addAll(List.of(first, second));
+
+        assertThat(catalogue.booksOf(1L)).extracting(Book::getId).containsExactly(first.getId(), second.getId());
+        assertThat(catalogue.booksOf(2L)).isEmpty();
+
+        catalogue.addAuthor(second.getId(), 2L);
+        assertThat(catalogue.get(second.getId()).getAuthors()).containsExactlyInAnyOrder(verne, hetzel);
+        assertThat(catalogue.booksOf(2L)).extracting(Book::getId).containsExactly(second.getId());
+
+        assertThat(catalogue.remove(first.getId())).isTrue();
+        assertThat(catalogue.remove(first.getId())).isFalse();
+        assertThat(catalogue.booksOf(1L)).extracting(Book::getId).containsExactly(second.getId());
+        assertThat(catalogue.values()).extracting(Book::getId).containsExactly(second.getId());
+        assertThat(catalogue.valuesAfter(first.getId())).extracting(Book::getId).containsExactly(second.getId());
+        assertThat(catalogue.valuesAfter(second.getId())).isEmpty();
+        assertThat(catalogue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void updateRewritesTheColumnsButNotTheAuthors() {
+        Author verne = author(1L, "Jules Verne");
+        Book book = book("Le Tour du monde", "Hetzel", verne);
+        catalogue.addAll(List.of(book));
+
+        Book changed = new Book();
+        changed.setId(book.getId());
+        changed.setTitle("Le Tour du monde en quatre-vingts jours");
+        changed.setPublisher("Dunod");
+        Book updated = catalogue.update(changed);
+
+        assertThat(updated.getTitle()).isEqualTo("Le Tour du monde en quatre-vingts jours");
+        assertThat(updated.getPublisher()).isEqualTo("Dunod");
+        assertThat(updated.getAuthors()).containsExactly(verne);
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(catalogue.addAuthor(book.getId(), 1L).getVersion()).isEqualTo(1);
+        // from the version it replaced, the update is not applied
+        changed.setTitle("Le Tour du monde, bis");
+        assertThat(catalogue.update(changed).getTitle()).isEqualTo("Le Tour du monde en quatre-vingts jours");
+        Book missing = new Book();
+        missing.setId(nextId.get());
+        assertThat(catalogue.update(missing)).isNull();
+    }
+
+    @Test
+    void unusedRowsAndSlicesAreCompacted() {
+        Author verne = author(1L, "Jules Verne");
+        author(2L, "Pierre-Jules Hetzel");
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            books.add(book("Voyage " + i, "Hetzel", verne));
+        }
+        catalogue.addAll(books);
+        Book kept = books.get(0);
+        for (int version = 0; version < 2_000; version++) {
+            Book changed = book("Le Tour du monde en " + version + " jours", "Hetzel", verne);
+            changed.setId(kept.getId());
+            changed.setVersion(version);
+            catalogue.update(changed);
+        }
+        List<Long> left = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            if (i % 3 == 0) {
+                catalogue.addAuthor(books.get(i).getId(), 2L);
+                left.add(books.get(i).getId());
+            } else {
+                catalogue.remove(books.get(i).getId());
+            }
+        }
+
+        long[] held = catalogue.held();
+        assertThat(held[0]).isLessThan(2 * left.size());
+        assertThat(held[1]).isLessThan(2 * 1_000 * "Voyage 1000".length());
+        assertThat(held[2]).isLessThan(2 * 2 * left.size());
+        assertThat(catalogue.values()).extracting(Book::getId).containsExactlyElementsOf(left);
+        assertThat(catalogue.valuesAfter(left.get(1))).extracting(Book::getId).containsExactlyElementsOf(left.subList(2, left.size()));
+        assertThat(catalogue.booksOf(2L)).extracting(Book::getId).containsExactlyElementsOf(left);
+        Book read = catalogue.get(kept.getId());
+        assertThat(read.getTitle()).isEqualTo("Le Tour du monde en 1999 jours");
+        assertThat(read.getVersion()).isEqualTo(2_001);
+        assertThat(catalogue.get(books.get(1500).getId()).getTitle()).isEqualTo("Voyage 1500");
+    }
+
+    @Test
+    void versionsAreNotTruncated() {
+        Book book = book("Michel Strogoff", "Hetzel", author(1L, "Jules Verne"));
+        book.setId(1L);
+        book.setVersion(Integer.MAX_VALUE + 1L);
+        catalogue.append(book);
+
+        Book changed = catalogue.get(1L);
+        assertThat(changed.getVersion()).isEqualTo(Integer.MAX_VALUE + 1L);
+        changed.setTitle("Michel Strogoff, de Moscou à Irkoutsk");
+        assertThat(catalogue.update(changed).getVersion()).isEqualTo(Integer.MAX_VALUE + 2L);
+    }
+
+    @Test
+    void readersNeverSeeHalfAnUpdate() throws Exception {
+        Author verne = author(1L, "Jules Verne");
+        Book book = book("0", "Hetzel", verne);
+        catalogue.addAll(List.of(book));
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    int torn = 0;
+                    while (writing.get()) {
+                        Book read = catalogue.get(book.getId());
+                        if (!read.getTitle().equals(Long.toString(read.getIsbn()))) {
+                            torn++;
+                        }
+                    }
+                    return torn;
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                // titles of varying lengths and new rows, so that the buffers and the columns keep being reallocated
+                for (long isbn = 1; isbn <= 100_000; isbn++) {
+                    Book changed = new Book();
+                    changed.setId(book.getId());
+                    changed.setVersion(isbn - 1);
+                    changed.setIsbn(isbn * 7919 % 1_000_003);
+                    changed.setTitle(Long.toString(changed.getIsbn()));
+                    catalogue.update(changed);
+                    Book other = new Book();
+                    other.setTitle("other");
+                    catalogue.addAll(List.of(other));
+                }
+                writing.set(false);
+            });
+            writer.get();
+            for (Future<Integer> reader : readers) {
+                assertThat(reader.get()).isZero();
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+        assertThat(catalogue.size()).isEqualTo(100_001);
+    }
+
+    private Author author(Long id, String name) {
+        Author author = new Author();
+        author.setId(id);
+        author.setFullName(name);
+        authors.put(id, author);
+        return author;
+    }
+
+    private static Book book(String title, String publisher, Author author) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setPublisher(publisher);
+        book.addAuthor(author);
+        return book;
+    }
+}
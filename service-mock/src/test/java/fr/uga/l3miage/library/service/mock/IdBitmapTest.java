@@ -0,0 +1,99 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdBitmapTest {
+
+    @Test
+    void behavesLikeASortedSet() {
+        Random random = new Random(42);
+        IdBitmap bitmap = new IdBitmap();
+        NavigableSet<Long> expected = new TreeSet<>();
+        // dense enough for a container to become a bitmap and back, with negative ids and a sparse tail
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(10) == 0 ? random.nextInt(1 << 30) - 5 : random.nextInt(9_000);
+            assertThat(bitmap.add(id)).isEqualTo(expected.add(id));
+        }
+        for (int i = 0; i < 6_000; i++) {
+            long id = random.nextInt(9_000);
+            assertThat(bitmap.remove(id)).isEqualTo(expected.remove(id));
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(bitmap.page(null, Integer.MAX_VALUE)).containsExactlyElementsOf(expected);
+        assertThat(bitmap.page(4_000L, 50)).containsExactlyElementsOf(expected.tailSet(4_000L, false).stream().limit(50).toList());
+        assertThat(bitmap.contains(expected.first())).isTrue();
+        assertThat(bitmap.contains(1L << 40)).isFalse();
+        assertThat(bitmap.page((long) Integer.MAX_VALUE, 10)).isEmpty();
+    }
+
+    @Test
+    void andAndOrMatchTheSetOperations() {
+        Random random = new Random(7);
+        List<IdBitmap> bitmaps = new ArrayList<>();
+        List<NavigableSet<Long>> sets = new ArrayList<>();
+        // one sparse, one dense and one mixed, so that every pair of containers is combined
+        for (int bound : new int[]{1 << 20, 70_000, 140_000}) {
+            IdBitmap bitmap = new IdBitmap();
+            NavigableSet<Long> set = new TreeSet<>();
+            for (int i = 0; i < 30_000; i++) {
+                long id = random.nextInt(bound);
+                bitmap.add(id);
+                set.add(id);
+            }
+            bitmaps.add(bitmap);
+            sets.add(set);
+        }
+
+        for (int i = 0; i < bitmaps.size(); i++) {
+            for (int j = 0; j < bitmaps.size(); j++) {
+                NavigableSet<Long> and = new TreeSet<>(sets.get(i));
+                and.retainAll(sets.get(j));
+                NavigableSet<Long> or = new TreeSet<>(sets.get(i));
+                or.addAll(sets.get(j));
+
+                assertThat(bitmaps.get(i).and(bitmaps.get(j)).page(null, Integer.MAX_VALUE)).containsExactlyElementsOf(and);
+                assertThat(bitmaps.get(i).andCardinality(bitmaps.get(j))).isEqualTo(and.size());
+                assertThat(bitmaps.get(i).or(bitmaps.get(j)).page(null, Integer.MAX_VALUE)).containsExactlyElementsOf(or);
+            }
+        }
+    }
+
+    @Test
+    void withAndWithoutLeaveTheOriginalUnchanged() {
+        Random random = new Random(11);
+        IdBitmap bitmap = new IdBitmap();
+        NavigableSet<Long> expected = new TreeSet<>();
+        // enough ids for a container to become a bitmap and back, each copy checked against the set it came from
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(70_000) - 10;
+            boolean add = random.nextInt(4) != 0;
+            IdBitmap copy = add ? bitmap.with(id) : bitmap.without(id);
+            assertThat(bitmap.contains(id)).isEqualTo(expected.contains(id));
+            assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+            if (add) {
+                expected.add(id);
+            } else {
+                expected.remove(id);
+            }
+            bitmap = copy;
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(bitmap.page(null, Integer.MAX_VALUE)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void idsMustFitInAnInt() {
+        assertThatThrownBy(() -> new IdBitmap().add(1L << 40)).isInstanceOf(ArithmeticException.class);
+    }
+}
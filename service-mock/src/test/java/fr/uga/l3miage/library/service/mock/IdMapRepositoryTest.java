@@ -0,0 +1,61 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The same contract as the JPA engine, see {@code JpaEntityRepositoryTest} in service-impl.
+ */
+class IdMapRepositoryTest {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final IdMapRepository<Borrower> repository = new IdMapRepository<>(new IdMap<>(), Borrower::getId,
+            Borrower::setId, ids::incrementAndGet);
+
+    @Test
+    void newEntitiesAreGivenAnId() {
+        Borrower jane = repository.save(borrower("Jane"));
+        assertThat(jane.getId()).isNotNull();
+        assertThat(repository.findById(jane.getId())).isSameAs(jane);
+
+        Borrower renamed = borrower("Janet");
+        renamed.setId(jane.getId());
+        repository.save(renamed);
+        assertThat(repository.findById(jane.getId()).getFirstName()).isEqualTo("Janet");
+        assertThat(repository.getAll()).hasSize(1);
+    }
+
+    @Test
+    void batchAndStreamingVariants() {
+        Borrower jane = borrower("Jane");
+        Borrower john = borrower("John");
+        Borrower joan = borrower("Joan");
+        repository.saveAll(List.of(jane, john, joan));
+
+        assertThat(repository.findAllById(List.of(joan.getId(), Long.MAX_VALUE, jane.getId())))
+                .containsExactlyInAnyOrder(jane, joan);
+        assertThat(repository.stream()).containsExactly(jane, john, joan);
+        assertThat(repository.getAll()).containsExactly(jane, john, joan);
+        assertThat(repository.findAfter(null, 2)).containsExactly(jane, john);
+        assertThat(repository.findAfter(john.getId(), 2)).containsExactly(joan);
+
+        repository.delete(john);
+        assertThat(repository.findById(john.getId())).isNull();
+        assertThat(repository.existsById(john.getId())).isFalse();
+        assertThat(repository.findById(null)).isNull();
+        assertThat(repository.existsById(null)).isFalse();
+        assertThat(repository.existsById(joan.getId())).isTrue();
+        assertThat(repository.findAfter(jane.getId(), 10)).containsExactly(joan);
+    }
+
+    private static Borrower borrower(String firstName) {
+        Borrower borrower = new Borrower();
+        borrower.setFirstName(firstName);
+        return borrower;
+    }
+}
@@ -0,0 +1,76 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdMapTest {
+
+    private final IdMap<String> map = new IdMap<>();
+
+    @Test
+    void behavesLikeAMap() {
+        assertThat(map.put(3, "three")).isNull();
+        assertThat(map.put(3, "trois")).isEqualTo("three");
+        assertThat(map.get(3)).isEqualTo("trois");
+        assertThat(map.containsKey(4)).isFalse();
+        assertThat(map.get(1_000_000)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+
+        assertThat(map.remove(3)).isEqualTo("trois");
+        assertThat(map.remove(3)).isNull();
+        assertThat(map.remove(1_000_000)).isNull();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void iteratesInIdOrderWhateverTheId() {
+        long[] ids = {5_000, -1, 4_095, 4_096, 0, 1L << 40, -7, 12};
+        for (long id : ids) {
+            map.put(id, Long.toString(id));
+        }
+        List<String> sorted = LongStream.of(ids).sorted().mapToObj(Long::toString).toList();
+
+        assertThat(map.values()).containsExactlyElementsOf(sorted);
+        assertThat(map.valuesAfter(-7L)).containsExactlyElementsOf(sorted.subList(1, sorted.size()));
+        assertThat(map.valuesAfter(4_095L)).containsExactly("4096", "5000", Long.toString(1L << 40));
+        assertThat(map.valuesAfter(5_000L)).containsExactly(Long.toString(1L << 40));
+        assertThat(map.valuesAfter(1L << 40)).isEmpty();
+        assertThat(map.values()).hasSize(ids.length);
+    }
+
+    @Test
+    void concurrentWritersDoNotLoseEntries() throws Exception {
+        int threads = 4;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                // interleaved ids, so that the threads keep adding chunks concurrently
+                writers.add(executor.submit(() -> {
+                    for (long id = first; id < (long) threads * perThread; id += threads) {
+                        map.put(id, "v");
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(map.size()).isEqualTo(threads * perThread);
+        assertThat(map.values().stream().count()).isEqualTo(threads * perThread);
+        assertThat(LongStream.range(0, (long) threads * perThread).allMatch(map::containsKey)).isTrue();
+    }
+}
@@ -0,0 +1,46 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IsbnIndexTest {
+
+    @Test
+    void behavesLikeAMapOfUniqueKeys() {
+        Random random = new Random(42);
+        IsbnIndex index = new IsbnIndex();
+        Map<Long, Long> expected = new HashMap<>();
+        // few distinct ISBNs so that claims collide, growing the table and shifting entries back on release
+        for (int i = 0; i < 50_000; i++) {
+            long isbn = 9_780_000_000_000L + random.nextInt(3_000);
+            long id = random.nextInt(4) - 1;
+            if (random.nextBoolean()) {
+                assertThat(index.claim(isbn, id)).isEqualTo(expected.computeIfAbsent(isbn, k -> id) == id);
+            } else {
+                index.release(isbn, id);
+                expected.remove(isbn, id);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(expected.size());
+        for (int i = 0; i < 3_000; i++) {
+            long isbn = 9_780_000_000_000L + i;
+            assertThat(index.idOf(isbn)).isEqualTo(expected.getOrDefault(isbn, IsbnIndex.NONE));
+        }
+    }
+
+    @Test
+    void booksWithoutIsbnAreNotIndexed() {
+        IsbnIndex index = new IsbnIndex();
+        assertThat(index.claim(0, 1)).isTrue();
+        assertThat(index.claim(0, 2)).isTrue();
+
+        assertThat(index.idOf(0)).isEqualTo(IsbnIndex.NONE);
+        assertThat(index.size()).isZero();
+    }
+}
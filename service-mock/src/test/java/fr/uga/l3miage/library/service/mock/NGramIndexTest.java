@@ -0,0 +1,58 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NGramIndexTest {
+
+    private static final List<String> WORDS = List.of("Le", "Rouge", "et", "le", "Noir", "Germinal", "La", "Peste",
+            "Nana", "Candide", "Bel", "Ami", "Notre", "Dame", "de", "Paris");
+
+    @Test
+    void findsTheTextsContainingTheQuery() {
+        Random random = new Random(42);
+        NGramIndex index = new NGramIndex();
+        Map<Long, String> expected = new TreeMap<>();
+        // loaded in bulk, then re-indexed and removed one at a time
+        Map<Long, String> loaded = new TreeMap<>();
+        for (long id = -5; id < 2_000; id++) {
+            loaded.put(id, title(random));
+        }
+        index.putAll(loaded.keySet(), Long::longValue, loaded::get);
+        expected.putAll(loaded);
+        for (int i = 0; i < 3_000; i++) {
+            long id = random.nextInt(2_500) - 5;
+            if (random.nextInt(3) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                String title = title(random);
+                index.put(id, title);
+                expected.put(id, title);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(expected.size());
+        for (String query : List.of("rouge", "NOIR ET", "a", "ermi", "e le", "paris notre", "zzz", "")) {
+            String normalized = NGramIndex.normalize(query);
+            assertThat(index.search(query)).containsExactlyElementsOf(expected.entrySet().stream()
+                    .filter(e -> NGramIndex.normalize(e.getValue()).contains(normalized))
+                    .map(Map.Entry::getKey)
+                    .toList());
+        }
+    }
+
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder(WORDS.get(random.nextInt(WORDS.size())));
+        for (int words = random.nextInt(4); words > 0; words--) {
+            title.append(' ').append(WORDS.get(random.nextInt(WORDS.size())));
+        }
+        return title.toString();
+    }
+}
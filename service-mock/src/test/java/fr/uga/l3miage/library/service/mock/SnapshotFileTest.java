@@ -0,0 +1,122 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        Author verne = new Author();
+        verne.setId(3L);
+        verne.setFullName("Jules Verne");
+        verne.setVersion(2);
+        Book book = new Book();
+        book.setId(7L);
+        book.setVersion(5);
+        book.setTitle("Voyage au centre de la Terre");
+        book.setIsbn(9782253012443L);
+        book.setPublisher("Hetzel");
+        book.setYear((short) 1864);
+        book.setLanguage(Book.Language.FRENCH);
+        book.addAuthor(verne);
+        Book bare = new Book();
+        bare.setId(8L);
+        Path file = directory.resolve("snapshot.bin");
+
+        SnapshotFile.write(file, 42, List.of(verne), List.of(book, bare));
+        List<Author> authors = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        long sequence = SnapshotFile.read(file, authors::add, books::add);
+
+        assertThat(sequence).isEqualTo(42);
+        assertThat(authors).singleElement().satisfies(author -> {
+            assertThat(author.getId()).isEqualTo(3L);
+            assertThat(author.getFullName()).isEqualTo("Jules Verne");
+            assertThat(author.getVersion()).isEqualTo(2);
+        });
+        assertThat(books).hasSize(2);
+        assertThat(books.get(0))
+                .usingRecursiveComparison()
+                .ignoringFields("authors")
+                .isEqualTo(book);
+        assertThat(books.get(0).getAuthors()).extracting(Author::getId).containsExactly(3L);
+        assertThat(books.get(1)).usingRecursiveComparison().isEqualTo(bare);
+    }
+
+    @Test
+    void corruptedSnapshotIsRejected() throws IOException {
+        Author author = new Author();
+        author.setId(1L);
+        author.setFullName("Jules Verne");
+        Path file = directory.resolve("snapshot.bin");
+        SnapshotFile.write(file, 1, List.of(author), List.of());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), channel.size() - 1);
+        }
+
+        assertThatThrownBy(() -> SnapshotFile.read(file, a -> { }, b -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("corrupted");
+    }
+
+    @Test
+    void firstVersionIsReadWithoutVersions() throws IOException {
+        Author author = new Author();
+        author.setId(1L);
+        author.setFullName("Jules Verne");
+        Path file = directory.resolve("snapshot.bin");
+        // a version 1 snapshot is the same without the trailing versions
+        ByteBuffer record = StoreRecords.encode(author);
+        ByteBuffer body = record.limit(record.limit() - Long.BYTES).slice();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFile.HEADER)
+                .putInt(SnapshotFile.MAGIC).putShort((short) 1).putShort((short) 0).putLong(1)
+                .putInt(1).putInt(0).putLong(body.remaining()).putInt((int) crc.getValue()).putInt(0)
+                .flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(new ByteBuffer[]{header, body});
+        }
+
+        List<Author> authors = new ArrayList<>();
+        SnapshotFile.read(file, authors::add, b -> { });
+
+        assertThat(authors).singleElement().satisfies(read -> {
+            assertThat(read.getFullName()).isEqualTo("Jules Verne");
+            assertThat(read.getVersion()).isZero();
+        });
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        Path file = directory.resolve("snapshot.bin");
+        SnapshotFile.write(file, 1, List.of(), List.of());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Short.BYTES).putShort(0, (short) 99), Integer.BYTES);
+        }
+
+        assertThatThrownBy(() -> SnapshotFile.read(file, a -> { }, b -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("version 99");
+    }
+}
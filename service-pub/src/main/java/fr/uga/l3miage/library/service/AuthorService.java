@@ -15,6 +15,14 @@ public interface AuthorService extends BaseService<Author, Long> {
      */
     Author save(Author author);
 
+    /**
+     * Saves several authors at once, in one batch
+     *
+     * @param authors to be saved
+     * @return the authors with an id, in the same order
+     */
+    Collection<Author> saveAll(Collection<Author> authors);
+
     /**
      * Search an author by name ignoring case
      *
@@ -23,6 +31,16 @@ public interface AuthorService extends BaseService<Author, Long> {
      */
     Collection<Author> searchByName(String name);
 
+    /**
+     * Search an author by name ignoring case, one page at a time
+     *
+     * @param name  partial or complete name of the author
+     * @param after id of the last author of the previous page, excluded, or null for the first page
+     * @param limit maximum number of authors in the page
+     * @return found authors ordered by id
+     */
+    Collection<Author> searchByName(String name, Long after, int limit);
+
     /**
      * Deletes an author
      *
@@ -0,0 +1,50 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.Locale;
+
+/**
+ * Filters of a faceted search over books, see {@link BookService#findByFacets(BookFilter, Long, int)}. A null filter
+ * keeps every book, the filters given are combined.
+ *
+ * @param title     the title of the book or a part of it (case-insensitive)
+ * @param publisher the publisher of the book, exactly
+ * @param fromYear  first year of publication, included
+ * @param toYear    last year of publication, included
+ * @param language  the language of the book
+ */
+public record BookFilter(String title, String publisher, Short fromYear, Short toYear, Book.Language language) {
+
+    /**
+     * @return true if no filter is set, the search then keeps every book
+     */
+    public boolean isEmpty() {
+        return title == null && publisher == null && fromYear == null && toYear == null && language == null;
+    }
+
+    /**
+     * @param book a book
+     * @return true if the book passes every filter
+     */
+    public boolean matches(Book book) {
+        return matchesTitle(book) && matchesPublisher(book) && matchesYear(book) && matchesLanguage(book);
+    }
+
+    boolean matchesTitle(Book book) {
+        return title == null || book.getTitle() != null
+                && book.getTitle().toLowerCase(Locale.ROOT).contains(title.toLowerCase(Locale.ROOT));
+    }
+
+    boolean matchesPublisher(Book book) {
+        return publisher == null || publisher.equals(book.getPublisher());
+    }
+
+    boolean matchesYear(Book book) {
+        return (fromYear == null || book.getYear() >= fromYear) && (toYear == null || book.getYear() <= toYear);
+    }
+
+    boolean matchesLanguage(Book book) {
+        return language == null || language == book.getLanguage();
+    }
+}
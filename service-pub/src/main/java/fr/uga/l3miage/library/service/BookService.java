@@ -18,6 +18,31 @@ public interface BookService extends BaseService<Book, Long> {
      */
     Book save(Long authorId, Book book) throws EntityNotFoundException;
 
+    /**
+     * Saves several books at once, in one batch. Each book must already reference its authors, only their ids are used.
+     * Then adds the books to their authors.
+     *
+     * @param books the books to save, each one with at least one author
+     * @return the books with an id set, in the same order
+     * @throws EntityNotFoundException if one of the authors do not exist, then no book is saved
+     */
+    Collection<Book> saveAll(Collection<Book> books) throws EntityNotFoundException;
+
+    /**
+     * Get a book by its ISBN, which no two books share. The implementations look it up in an index, this default scans
+     * every book.
+     *
+     * @param isbn the ISBN of the book
+     * @return the book having this ISBN
+     * @throws EntityNotFoundException if no book has it
+     */
+    default Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return list().stream()
+                .filter(book -> isbn != 0 && book.getIsbn() == isbn)
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with isbn: " + isbn));
+    }
+
     /**
      * Find books by title. Title can partial, will be matched in case-insensitive fashion
      *
@@ -26,6 +51,30 @@ public interface BookService extends BaseService<Book, Long> {
      */
     Collection<Book> findByTitle(String title);
 
+    /**
+     * Find books by title, one page at a time
+     *
+     * @param title the title of the book or a part of it (case-insensitive)
+     * @param after id of the last book of the previous page, excluded, or null for the first page
+     * @param limit maximum number of books in the page
+     * @return books with a matching title ordered by id
+     */
+    Collection<Book> findByTitle(String title, Long after, int limit);
+
+    /**
+     * Find books by title, publisher, years and language, one page at a time, along with the number of books per
+     * publisher, language and decade. The implementations answer it from an index of the facets, this default tests
+     * every book.
+     *
+     * @param filter the filters, combined
+     * @param after  id of the last book of the previous page, excluded, or null for the first page
+     * @param limit  maximum number of books in the page
+     * @return books passing every filter ordered by id, their number and the facet counts
+     */
+    default FacetedBooks findByFacets(BookFilter filter, Long after, int limit) {
+        return FacetedBooks.of(filter.title() == null ? list() : findByTitle(filter.title()), filter, after, limit);
+    }
+
     /**
      * Get all books for a given author
      *
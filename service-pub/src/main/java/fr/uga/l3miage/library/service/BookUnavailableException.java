@@ -0,0 +1,16 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * Thrown when a book cannot be borrowed because it already is
+ */
+public class BookUnavailableException extends Exception {
+
+    public BookUnavailableException(String message) {
+        super(message);
+    }
+
+    public BookUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,23 @@
+package fr.uga.l3miage.library.service;
+
+import java.util.Date;
+
+/**
+ * Published by {@link BorrowService} implementations when a borrow is made, found overdue or returned.
+ *
+ * @param type       what happened
+ * @param borrowId   id of the borrow
+ * @param borrowerId id of its borrower
+ * @param end        date the books were due back
+ * @param returned   date the books were given back, null unless type is RETURNED
+ * @param overdue    whether an OVERDUE event was published for this borrow before this one
+ */
+public record BorrowEvent(Type type, Long borrowId, Long borrowerId, Date end, Date returned, boolean overdue) {
+
+    public enum Type {
+        CREATED,
+        OVERDUE,
+        RETURNED
+    }
+
+}
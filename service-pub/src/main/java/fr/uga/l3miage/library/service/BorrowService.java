@@ -0,0 +1,70 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.library.service.base.BaseService;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Implementations publish a {@link BorrowEvent} when a borrow is made, flagged overdue or returned.
+ */
+public interface BorrowService extends BaseService<Borrow, Long> {
+
+    /**
+     * Checks out books for a borrower. Either all the books are borrowed or none is.
+     *
+     * @param borrowerId  id of the borrower
+     * @param librarianId id of the librarian issuing the borrow
+     * @param bookIds     ids of the books to borrow, at least one
+     * @param end         date the books are due back
+     * @return the borrow, started now
+     * @throws EntityNotFoundException   if the borrower, the librarian or one of the books do not exist
+     * @throws BookUnavailableException if one of the books is already borrowed
+     */
+    Borrow borrow(Long borrowerId, Long librarianId, Collection<Long> bookIds, Date end)
+            throws EntityNotFoundException, BookUnavailableException;
+
+    /**
+     * Gives back the books of a borrow, which become available again
+     *
+     * @param id id of the borrow
+     * @return the borrow with its returned date set
+     * @throws EntityNotFoundException if the borrow do not exist
+     * @throws IllegalStateException   if the books were already returned
+     */
+    Borrow giveBack(Long id) throws EntityNotFoundException;
+
+    /**
+     * Flags the borrows that became overdue since the last call, publishing an OVERDUE {@link BorrowEvent} for each.
+     * A borrow is flagged at most once, and never after it was returned.
+     *
+     * @param now the current date
+     * @return the borrows flagged by this call
+     */
+    Collection<Borrow> flagOverdue(Date now);
+
+    /**
+     * @param bookId id of a book
+     * @return true if the book is not currently borrowed
+     */
+    boolean isAvailable(Long bookId);
+
+    /**
+     * Find the borrows whose books should have been returned
+     *
+     * @param now the current date
+     * @return the borrows not returned whose end date is before now, ordered by end date
+     */
+    Collection<Borrow> findOverdue(Date now);
+
+    /**
+     * List the borrows of a borrower
+     *
+     * @param borrowerId id of the borrower
+     * @return the borrows of the borrower, returned or not
+     * @throws EntityNotFoundException if the borrower do not exist
+     */
+    Collection<Borrow> findByBorrower(Long borrowerId) throws EntityNotFoundException;
+
+}
@@ -0,0 +1,16 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.base.BaseService;
+
+public interface BorrowerService extends BaseService<Borrower, Long> {
+
+    /**
+     * Saves a borrower
+     *
+     * @param borrower to be saved
+     * @return the borrower with an id
+     */
+    Borrower save(Borrower borrower);
+
+}
@@ -0,0 +1,17 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * Thrown when an object is updated from a version which is not the current one anymore: it was updated concurrently,
+ * and the update would overwrite these changes
+ */
+public class ConcurrentUpdateException extends Exception {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
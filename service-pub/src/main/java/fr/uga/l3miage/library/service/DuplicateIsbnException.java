@@ -0,0 +1,17 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * Thrown when a book is saved or updated with the ISBN of another book. Unchecked, as saving is shared with the authors
+ * through {@link fr.uga.l3miage.library.service.base.BaseService#save(Object)}
+ */
+public class DuplicateIsbnException extends RuntimeException {
+
+    public DuplicateIsbnException(String message) {
+        super(message);
+    }
+
+    public DuplicateIsbnException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
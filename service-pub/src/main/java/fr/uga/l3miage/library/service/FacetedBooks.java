@@ -0,0 +1,79 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of {@link BookService#findByFacets(BookFilter, Long, int)}: a page of the books found, their number and the
+ * facet counts.
+ * <p>
+ * The counts of a facet are computed with the filters of the other facets only, so that they tell how many books each
+ * value would give if it replaced the one filtered: with {@code language=FRENCH}, {@link #languages()} still counts the
+ * English books of the publishers and years filtered.
+ *
+ * @param books      a page of the books passing every filter, ordered by id
+ * @param total      number of books passing every filter
+ * @param publishers number of books per publisher, books without publisher are not counted
+ * @param languages  number of books per language, books without language are not counted
+ * @param decades    number of books per decade, by its first year (1990 for 1990 to 1999)
+ */
+public record FacetedBooks(Collection<Book> books, long total, Map<String, Long> publishers,
+                           Map<Book.Language, Long> languages, Map<Integer, Long> decades) {
+
+    /**
+     * @param year a year of publication
+     * @return the first year of its decade
+     */
+    public static int decade(int year) {
+        return Math.floorDiv(year, 10) * 10;
+    }
+
+    /**
+     * Computes the result by testing every book, for the implementations without index of the facets
+     *
+     * @param books  all the books
+     * @param filter the filters
+     * @param after  id of the last book of the previous page, excluded, or null for the first page
+     * @param limit  maximum number of books in the page
+     * @return the page, the total and the counts
+     */
+    public static FacetedBooks of(Collection<Book> books, BookFilter filter, Long after, int limit) {
+        List<Book> found = new ArrayList<>();
+        Map<String, Long> publishers = new TreeMap<>();
+        Map<Book.Language, Long> languages = new EnumMap<>(Book.Language.class);
+        Map<Integer, Long> decades = new TreeMap<>();
+        for (Book book : books) {
+            if (!filter.matchesTitle(book)) {
+                continue;
+            }
+            boolean publisher = filter.matchesPublisher(book);
+            boolean year = filter.matchesYear(book);
+            boolean language = filter.matchesLanguage(book);
+            if (year && language && book.getPublisher() != null) {
+                publishers.merge(book.getPublisher(), 1L, Long::sum);
+            }
+            if (publisher && year && book.getLanguage() != null) {
+                languages.merge(book.getLanguage(), 1L, Long::sum);
+            }
+            if (publisher && language) {
+                decades.merge(decade(book.getYear()), 1L, Long::sum);
+            }
+            if (publisher && year && language) {
+                found.add(book);
+            }
+        }
+        List<Book> page = found.stream()
+                .filter(book -> after == null || book.getId() > after)
+                .sorted(Comparator.comparing(Book::getId))
+                .limit(limit)
+                .toList();
+        return new FacetedBooks(page, found.size(), publishers, languages, decades);
+    }
+}
@@ -0,0 +1,16 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Librarian;
+import fr.uga.l3miage.library.service.base.BaseService;
+
+public interface LibrarianService extends BaseService<Librarian, Long> {
+
+    /**
+     * Saves a librarian
+     *
+     * @param librarian to be saved
+     * @return the librarian with an id
+     */
+    Librarian save(Librarian librarian);
+
+}
@@ -0,0 +1,39 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.base.ReactiveBaseService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link AuthorService}
+ */
+public interface ReactiveAuthorService extends ReactiveBaseService<Author, Long> {
+
+    /**
+     * Saves an author object
+     *
+     * @param author to be saved
+     * @return the author with an id
+     */
+    Mono<Author> save(Author author);
+
+    /**
+     * Search an author by name ignoring case
+     *
+     * @param name  partial or complete name of the author
+     * @param after id after which to start, excluded, or null to start from the first one
+     * @return found authors ordered by id
+     */
+    Flux<Author> searchByName(String name, Long after);
+
+    /**
+     * Deletes an author
+     *
+     * @param id id of the author to delete
+     * @return completes once deleted, or signals {@link EntityNotFoundException} when the entity do not already exists,
+     * {@link DeleteAuthorException} when an author has books that are co-authored
+     */
+    Mono<Void> delete(Long id);
+
+}
@@ -0,0 +1,56 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.base.ReactiveBaseService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link BookService}
+ */
+public interface ReactiveBookService extends ReactiveBaseService<Book, Long> {
+
+    /**
+     * Save a book by adding it to an author. Then adds the book to the author
+     *
+     * @param authorId the other id
+     * @param book     the book to add
+     * @return the book with an id set, or an {@link EntityNotFoundException} error if the author do not exist
+     */
+    Mono<Book> save(Long authorId, Book book);
+
+    /**
+     * Find books by title. Title can partial, will be matched in case-insensitive fashion
+     *
+     * @param title the title of the book or a part of it (case-insensitive)
+     * @param after id after which to start, excluded, or null to start from the first one
+     * @return books with a matching title, ordered by id
+     */
+    Flux<Book> findByTitle(String title, Long after);
+
+    /**
+     * List books of an author
+     *
+     * @param id the author's id
+     * @return the books of the author, or an {@link EntityNotFoundException} error if the author do not exist
+     */
+    Flux<Book> getByAuthor(Long id);
+
+    /**
+     * Deletes a book
+     *
+     * @param id id of the book to delete
+     * @return completes once deleted, or signals {@link EntityNotFoundException} when the entity do not already exists
+     */
+    Mono<Void> delete(Long id);
+
+    /**
+     * Add an author to a book
+     *
+     * @param bookId   book id on witch to add the author
+     * @param authorId author id to add to the book
+     * @return the book updated, or an {@link EntityNotFoundException} error if either the book or the author is not
+     * found
+     */
+    Mono<Book> addAuthor(Long bookId, Long authorId);
+}
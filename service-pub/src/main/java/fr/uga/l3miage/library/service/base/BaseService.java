@@ -1,5 +1,6 @@
 package fr.uga.l3miage.library.service.base;
 
+import fr.uga.l3miage.library.service.ConcurrentUpdateException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
 
 import java.util.Collection;
@@ -22,6 +23,31 @@ public interface BaseService<O, I> {
      */
     O get(I id) throws EntityNotFoundException;
 
+    /**
+     * get several transient objects in one call, the implementations look them up in one pass (a single query with
+     * JPA) rather than once per identifier
+     *
+     * @param ids the object identifiers
+     * @return the objects found and the identifiers that have none
+     */
+    default Lookup<O, I> getAll(Collection<I> ids) {
+        return Lookup.of(ids, id -> {
+            try {
+                return get(id);
+            } catch (EntityNotFoundException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Tells whether an object exists, without loading it
+     *
+     * @param id the object identifier
+     * @return true if an object with this identifier exists
+     */
+    boolean exists(I id);
+
     /**
      * Returns all objects
      *
@@ -29,13 +55,27 @@ public interface BaseService<O, I> {
      */
     Collection<O> list();
 
+    /**
+     * Returns a page of objects ordered by identifier (keyset pagination)
+     *
+     * @param after identifier of the last object of the previous page, excluded, or null to start from the first one
+     * @param limit maximum number of objects in the page
+     * @return at most limit objects whose identifier is greater than after, in ascending order
+     */
+    Collection<O> list(I after, int limit);
+
     /**
      * updates the object and return it (in case the object was updated internally)
+     * <p>
+     * Versioned objects are compared and swapped: the update only applies if the version of the object given is still
+     * the current one, the object returned then has the next version.
      *
      * @param object the object to update
      * @return the updated object
      * @throws fr.uga.l3miage.library.service.EntityNotFoundException when the entity do not already exists
+     * @throws fr.uga.l3miage.library.service.ConcurrentUpdateException when the entity was updated since the version
+     *                                                                  given
      */
-    O update(O object) throws EntityNotFoundException;
+    O update(O object) throws EntityNotFoundException, ConcurrentUpdateException;
 
 }
@@ -0,0 +1,37 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Result of {@link BaseService#getAll(Collection)}: the objects found and the identifiers that have none.
+ *
+ * @param found   the objects found, in the order of their identifier in the request
+ * @param missing the identifiers without object, in the order of the request
+ * @param <O>     the type of persistence object
+ * @param <I>     type of the identifier
+ */
+public record Lookup<O, I>(List<O> found, List<I> missing) {
+
+    /**
+     * @param ids  the identifiers requested, duplicates are looked up once
+     * @param find gives the object of an identifier, or null when there is none
+     * @return the objects found and the identifiers missing
+     */
+    public static <O, I> Lookup<O, I> of(Collection<I> ids, Function<I, O> find) {
+        List<O> found = new ArrayList<>(ids.size());
+        List<I> missing = new ArrayList<>();
+        for (I id : new LinkedHashSet<>(ids)) {
+            O object = id == null ? null : find.apply(id);
+            if (object == null) {
+                missing.add(id);
+            } else {
+                found.add(object);
+            }
+        }
+        return new Lookup<>(found, missing);
+    }
+}
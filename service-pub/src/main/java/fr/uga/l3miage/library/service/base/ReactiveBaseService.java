@@ -0,0 +1,50 @@
+package fr.uga.l3miage.library.service.base;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link BaseService}.
+ * <p>
+ * Errors are signalled rather than thrown, {@link fr.uga.l3miage.library.service.EntityNotFoundException} included.
+ *
+ * @param <O> the type of persistence object
+ * @param <I> type of the identifier
+ */
+public interface ReactiveBaseService<O, I> {
+
+    /**
+     * get a transient object
+     *
+     * @param id the object identifier
+     * @return the object, or an {@link fr.uga.l3miage.library.service.EntityNotFoundException} error
+     */
+    Mono<O> get(I id);
+
+    /**
+     * Tells whether an object exists, without loading it
+     *
+     * @param id the object identifier
+     * @return true if an object with this identifier exists
+     */
+    Mono<Boolean> exists(I id);
+
+    /**
+     * Returns the objects ordered by identifier, read from the store as the subscriber requests them
+     *
+     * @param after identifier after which to start, excluded, or null to start from the first one
+     * @return the objects whose identifier is greater than after, in ascending order
+     */
+    Flux<O> list(I after);
+
+    /**
+     * updates the object and return it (in case the object was updated internally)
+     *
+     * @param object the object to update
+     * @return the updated object, or an {@link fr.uga.l3miage.library.service.EntityNotFoundException} error when the
+     * entity do not already exists, or a {@link fr.uga.l3miage.library.service.ConcurrentUpdateException} error when it
+     * was updated since the version given, see {@link BaseService#update}
+     */
+    Mono<O> update(O object);
+
+}